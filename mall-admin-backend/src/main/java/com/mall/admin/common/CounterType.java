@@ -0,0 +1,37 @@
+package com.mall.admin.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 延迟写入的计数器类型
+ * 表名和列名直接拼接到批量更新语句中，只能使用这里定义的常量
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum CounterType {
+    
+    ARTICLE_VIEW("blog_articles", "article_id", "view_count"),
+    
+    PRODUCT_VIEW("products", "product_id", "view_count"),
+    
+    REVIEW_LIKE("product_reviews", "review_id", "like_count");
+    
+    /**
+     * 表名
+     */
+    private final String tableName;
+    
+    /**
+     * 主键列
+     */
+    private final String idColumn;
+    
+    /**
+     * 计数列
+     */
+    private final String countColumn;
+}
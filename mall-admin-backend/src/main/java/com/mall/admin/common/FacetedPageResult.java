@@ -0,0 +1,33 @@
+package com.mall.admin.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带分面计数的分页响应结果
+ *
+ * @param <T> 数据类型
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Schema(description = "带分面计数的分页响应结果")
+public class FacetedPageResult<T> extends PageResult<T> {
+    
+    @Schema(description = "分面计数：属性 -> 取值 -> 商品数量")
+    private Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+    
+    public FacetedPageResult() {}
+    
+    public FacetedPageResult(List<T> records, Long total, Long current, Long size,
+                             Map<String, Map<String, Integer>> facets) {
+        super(records, total, current, size);
+        this.facets = facets;
+    }
+}
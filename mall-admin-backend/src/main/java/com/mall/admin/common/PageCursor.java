@@ -0,0 +1,136 @@
+package com.mall.admin.common;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.mall.admin.common.exception.BusinessException;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的游标
+ * <p>
+ * 游标记录上一页最后一行的排序值和主键，下一页按(排序值, 主键)从该位置之后继续读取，
+ * 可以直接沿索引定位，不需要像LIMIT/OFFSET那样扫描并丢弃前面的行，翻到任意深度的代价都与第一页相同。
+ * 对外以Base64编码的不透明字符串传递，客户端原样回传即可。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 排序时间，按主键排序时为空
+     */
+    private final LocalDateTime sortTime;
+
+    private final Integer id;
+
+    private PageCursor(LocalDateTime sortTime, Integer id) {
+        this.sortTime = sortTime;
+        this.id = id;
+    }
+
+    public static PageCursor of(Integer id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor of(LocalDateTime sortTime, Integer id) {
+        return new PageCursor(sortTime, id);
+    }
+
+    public LocalDateTime getSortTime() {
+        return sortTime;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = (sortTime != null ? sortTime.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空字符串表示从第一页开始，返回null
+     *
+     * @param cursor 客户端回传的游标
+     * @return 游标
+     * @throws BusinessException 游标格式无效
+     */
+    public static PageCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index < 0) {
+                throw new IllegalArgumentException(raw);
+            }
+            String time = raw.substring(0, index);
+            Integer id = Integer.valueOf(raw.substring(index + 1));
+            return new PageCursor(time.isEmpty() ? null : LocalDateTime.parse(time), id);
+        } catch (RuntimeException e) {
+            throw new BusinessException("分页游标无效");
+        }
+    }
+
+    /**
+     * 按(时间, 主键)倒序从游标之后读取一页，多读一行用于判断是否还有下一页
+     * MySQL倒序时NULL排在最后，时间为空的行按主键倒序排在末尾
+     *
+     * @param wrapper 查询条件
+     * @param cursor 游标，为空时从第一行开始
+     * @param timeColumn 排序时间列
+     * @param idColumn 主键列
+     * @param size 每页大小
+     */
+    public static <T> void seekByTimeDesc(LambdaQueryWrapper<T> wrapper, PageCursor cursor,
+                                          SFunction<T, LocalDateTime> timeColumn, SFunction<T, Integer> idColumn, int size) {
+        if (cursor != null) {
+            if (cursor.sortTime != null) {
+                wrapper.and(w -> w.lt(timeColumn, cursor.sortTime)
+                        .or(o -> o.eq(timeColumn, cursor.sortTime).lt(idColumn, cursor.id))
+                        .or().isNull(timeColumn));
+            } else {
+                wrapper.isNull(timeColumn).lt(idColumn, cursor.id);
+            }
+        }
+        wrapper.orderByDesc(timeColumn).orderByDesc(idColumn).last("LIMIT " + (size + 1));
+    }
+
+    /**
+     * 按主键从游标之后读取一页，多读一行用于判断是否还有下一页
+     *
+     * @param wrapper 查询条件
+     * @param cursor 游标，为空时从第一行开始
+     * @param idColumn 主键列
+     * @param ascending 是否升序
+     * @param size 每页大小
+     */
+    public static <T> void seekById(LambdaQueryWrapper<T> wrapper, PageCursor cursor,
+                                    SFunction<T, Integer> idColumn, boolean ascending, int size) {
+        if (cursor != null) {
+            if (ascending) {
+                wrapper.gt(idColumn, cursor.id);
+            } else {
+                wrapper.lt(idColumn, cursor.id);
+            }
+        }
+        if (ascending) {
+            wrapper.orderByAsc(idColumn);
+        } else {
+            wrapper.orderByDesc(idColumn);
+        }
+        wrapper.last("LIMIT " + (size + 1));
+    }
+}
@@ -32,6 +32,15 @@ public class PageResult<T> {
     @Schema(description = "总页码")
     private Long pages;
     
+    @Schema(description = "下一页游标，仅游标分页时返回，为空表示没有下一页")
+    private String nextCursor;
+    
+    @Schema(description = "是否还有下一页")
+    private Boolean hasNext;
+    
+    @Schema(description = "总数是否精确，为false时来自短时缓存或估算")
+    private Boolean totalExact;
+    
     public PageResult() {}
     
     public PageResult(List<T> records, Long total, Long current, Long size) {
@@ -40,6 +49,36 @@ public class PageResult<T> {
         this.current = current;
         this.size = size;
         this.pages = (total + size - 1) / size;
+        this.hasNext = current != null && current * size < total;
+        this.totalExact = true;
+    }
+    
+    /**
+     * 游标分页结果，不统计总数和页码
+     */
+    public static <T> PageResult<T> ofCursor(List<T> records, Long size, String nextCursor) {
+        PageResult<T> result = new PageResult<>();
+        result.setRecords(records);
+        result.setSize(size);
+        result.setNextCursor(nextCursor);
+        result.setHasNext(nextCursor != null);
+        return result;
+    }
+    
+    /**
+     * 保留分页信息，替换数据列表
+     */
+    public <R> PageResult<R> withRecords(List<R> records) {
+        PageResult<R> result = new PageResult<>();
+        result.setRecords(records);
+        result.setTotal(total);
+        result.setCurrent(current);
+        result.setSize(size);
+        result.setPages(pages);
+        result.setNextCursor(nextCursor);
+        result.setHasNext(hasNext);
+        result.setTotalExact(totalExact);
+        return result;
     }
     
     /**
@@ -0,0 +1,56 @@
+package com.mall.admin.common.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * 带过期时间的单值缓存
+ * 过期后由第一个访问的线程重新加载，其他线程等待加载结果，避免并发穿透
+ *
+ * @param <T> 缓存值类型
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class CachedValue<T> {
+    
+    private final Supplier<T> loader;
+    private final long ttlMillis;
+    
+    private volatile T value;
+    private volatile long expireAt;
+    
+    /**
+     * @param loader 加载函数
+     * @param ttlMillis 缓存有效期（毫秒），小于等于0时不缓存
+     */
+    public CachedValue(Supplier<T> loader, long ttlMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+    }
+    
+    /**
+     * 获取缓存值，过期时重新加载
+     */
+    public T get() {
+        if (ttlMillis <= 0) {
+            return loader.get();
+        }
+        T current = value;
+        if (current != null && System.currentTimeMillis() < expireAt) {
+            return current;
+        }
+        synchronized (this) {
+            if (value == null || System.currentTimeMillis() >= expireAt) {
+                value = loader.get();
+                expireAt = System.currentTimeMillis() + ttlMillis;
+            }
+            return value;
+        }
+    }
+    
+    /**
+     * 使缓存失效
+     */
+    public void invalidate() {
+        expireAt = 0L;
+    }
+}
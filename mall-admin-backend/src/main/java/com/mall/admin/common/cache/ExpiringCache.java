@@ -0,0 +1,126 @@
+package com.mall.admin.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有容量上限、按条目过期时间淘汰的缓存
+ * 达到上限时先清理已过期条目，仍然已满则不再写入新条目，已有条目不受影响
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class ExpiringCache<K, V> {
+    
+    /**
+     * 缓存满时两次全量清理之间的最小间隔，避免大量写入时反复遍历
+     */
+    private static final long PURGE_INTERVAL_MILLIS = 1000L;
+    
+    private final int maxSize;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    
+    private volatile long lastPurgeTime;
+    
+    /**
+     * @param maxSize 最大条目数，小于等于0时不缓存
+     */
+    public ExpiringCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * 获取未过期的缓存值
+     *
+     * @return 缓存值，不存在或已过期时返回null
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expireAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+    
+    /**
+     * 写入缓存
+     *
+     * @param expireAt 过期时间戳（毫秒）
+     */
+    public void put(K key, V value, long expireAt) {
+        long now = System.currentTimeMillis();
+        if (maxSize <= 0 || value == null || expireAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            if (now - lastPurgeTime >= PURGE_INTERVAL_MILLIS) {
+                purgeExpired();
+            }
+            if (entries.size() >= maxSize) {
+                rejected.increment();
+                return;
+            }
+        }
+        entries.put(key, new Entry<>(value, expireAt));
+    }
+    
+    /**
+     * 移除缓存
+     */
+    public void remove(K key) {
+        entries.remove(key);
+    }
+    
+    /**
+     * 清理全部已过期条目
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        lastPurgeTime = now;
+        entries.values().removeIf(entry -> entry.expireAt <= now);
+    }
+    
+    /**
+     * 获取缓存统计：命中、未命中、命中率、当前条目数、容量上限、因已满被拒绝的写入数
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        statistics.put("size", entries.size());
+        statistics.put("maxSize", maxSize);
+        statistics.put("rejected", rejected.sum());
+        return statistics;
+    }
+    
+    private static final class Entry<V> {
+        
+        private final V value;
+        private final long expireAt;
+        
+        Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.mall.admin.common.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 按分数排序的排行榜
+ * <p>
+ * 条目按主分数降序、次分数降序、ID升序保存在跳表中，分数变化时先移除旧条目再插入新条目，
+ * 单次更新O(log n)，读取前K名只需从跳表头部顺序遍历K个条目，不需要排序。
+ * 写操作串行执行，读操作不加锁；更新过程中并发读取可能短暂看不到正在更新的条目。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class ScoreRanking {
+    
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>();
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    
+    /**
+     * 写入或更新条目的分数
+     *
+     * @param id 条目ID
+     * @param score 主分数
+     * @param tieBreaker 主分数相同时比较的次分数
+     */
+    public synchronized void update(int id, double score, double tieBreaker) {
+        Entry entry = new Entry(id, score, tieBreaker);
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            if (previous.compareTo(entry) == 0) {
+                return;
+            }
+            ranking.remove(previous);
+        }
+        ranking.add(entry);
+    }
+    
+    /**
+     * 移除条目
+     */
+    public synchronized void remove(int id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+    }
+    
+    /**
+     * 按分数从高到低取前K个条目ID
+     *
+     * @param limit 数量
+     * @return 条目ID
+     */
+    public List<Integer> top(int limit) {
+        List<Integer> ids = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next().id);
+        }
+        return ids;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private static final class Entry implements Comparable<Entry> {
+        
+        private final int id;
+        private final double score;
+        private final double tieBreaker;
+        
+        Entry(int id, double score, double tieBreaker) {
+            this.id = id;
+            this.score = score;
+            this.tieBreaker = tieBreaker;
+        }
+        
+        @Override
+        public int compareTo(Entry other) {
+            int result = Double.compare(other.score, score);
+            if (result == 0) {
+                result = Double.compare(other.tieBreaker, tieBreaker);
+            }
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.mall.admin.common.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按键统计的滑动窗口计数器
+ * <p>
+ * 窗口划分为若干个桶，每个桶用一个long同时保存桶的时间序号（高位）和计数（低位），
+ * 计数与过期桶的重置都通过CAS完成，不加锁；窗口内的计数为仍在窗口范围内的各桶之和。
+ * 键数量有上限，超过窗口时长未访问的键由 {@link #evictIdle()} 清理；已满时一次淘汰最久未访问的一批键，
+ * 新键总会被计数，不会因为表被大量键占满而跳过计数。
+ *
+ * @param <K> 键类型
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class SlidingWindowCounter<K> {
+    
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int maxKeys;
+    private final Map<K, Window> windows = new ConcurrentHashMap<>();
+    
+    private final LongAdder evicted = new LongAdder();
+    
+    /**
+     * @param windowMillis 窗口时长（毫秒）
+     * @param bucketCount 窗口划分的桶数，越多越精确
+     * @param maxKeys 最多跟踪的键数
+     */
+    public SlidingWindowCounter(long windowMillis, int bucketCount, int maxKeys) {
+        if (windowMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("窗口时长和桶数必须大于0");
+        }
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1L, windowMillis / bucketCount);
+        this.maxKeys = maxKeys;
+    }
+    
+    /**
+     * 计数加一
+     *
+     * @return 加一后窗口内的计数
+     */
+    public int increment(K key) {
+        long now = System.currentTimeMillis();
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxKeys) {
+                evictLeastRecent();
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(bucketCount));
+        }
+        window.lastAccess = now;
+        
+        long epoch = now / bucketMillis;
+        int slot = (int) (epoch % bucketCount);
+        while (true) {
+            long current = window.buckets.get(slot);
+            long next;
+            if (current >>> COUNT_BITS == epoch) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    break;
+                }
+                next = current + 1;
+            } else {
+                // 桶属于已经滑出窗口的时间段，重置后重新计数
+                next = (epoch << COUNT_BITS) | 1;
+            }
+            if (window.buckets.compareAndSet(slot, current, next)) {
+                break;
+            }
+        }
+        return sum(window, epoch);
+    }
+    
+    /**
+     * 获取窗口内的计数
+     */
+    public int count(K key) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return 0;
+        }
+        return sum(window, System.currentTimeMillis() / bucketMillis);
+    }
+    
+    /**
+     * 清除键的计数
+     */
+    public void reset(K key) {
+        windows.remove(key);
+    }
+    
+    /**
+     * 清理超过窗口时长未访问的键
+     */
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - bucketMillis * bucketCount;
+        windows.values().removeIf(window -> window.lastAccess < idleBefore);
+    }
+    
+    /**
+     * 获取统计：当前键数、键数上限、因已满被淘汰的键数
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", windows.size());
+        statistics.put("maxKeys", maxKeys);
+        statistics.put("evicted", evicted.sum());
+        return statistics;
+    }
+    
+    /**
+     * 键数已达上限时先清理空闲的键，仍然已满则淘汰最久未访问的十分之一，避免每个新键都排序一次
+     */
+    private synchronized void evictLeastRecent() {
+        if (windows.size() < maxKeys) {
+            return;
+        }
+        evictIdle();
+        int excess = windows.size() - maxKeys + Math.max(1, maxKeys / 10);
+        if (windows.size() < maxKeys || excess <= 0) {
+            return;
+        }
+        
+        // 先取出访问时间的快照再排序，排序期间访问时间变化不影响比较结果
+        List<Map.Entry<K, Long>> lastAccesses = new ArrayList<>(windows.size());
+        windows.forEach((key, window) -> lastAccesses.add(Map.entry(key, window.lastAccess)));
+        lastAccesses.sort(Map.Entry.comparingByValue());
+        for (int i = 0; i < excess && i < lastAccesses.size(); i++) {
+            if (windows.remove(lastAccesses.get(i).getKey()) != null) {
+                evicted.increment();
+            }
+        }
+    }
+    
+    private int sum(Window window, long epoch) {
+        long oldest = epoch - bucketCount + 1;
+        int total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long value = window.buckets.get(i);
+            if (value >>> COUNT_BITS >= oldest) {
+                total += (int) (value & COUNT_MASK);
+            }
+        }
+        return total;
+    }
+    
+    private static final class Window {
+        
+        private final AtomicLongArray buckets;
+        private volatile long lastAccess;
+        
+        Window(int bucketCount) {
+            this.buckets = new AtomicLongArray(bucketCount);
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
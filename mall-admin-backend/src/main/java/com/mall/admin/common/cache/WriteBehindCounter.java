@@ -0,0 +1,98 @@
+package com.mall.admin.common.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟写入的计数器
+ * <p>
+ * 每个ID一个LongAdder，并发累加分散到多个单元上，不会像UPDATE count = count + 1那样在同一行锁上排队。
+ * 定时调用{@link #drain()}取出各ID的累计增量批量写库，写库期间取出的增量仍计入{@link #pending(int)}，
+ * 写库成功后调用{@link #flushed(Map)}清除，失败时调用{@link #restore(Map)}放回。
+ * 一个周期内没有变化的ID会被移除，移除时与正在累加的线程竞争取出余量，任何增量都只会被取出一次。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class WriteBehindCounter {
+    
+    private final Map<Integer, Cell> cells = new ConcurrentHashMap<>();
+    
+    /**
+     * 已取出、尚未确认写入数据库的增量
+     */
+    private final Map<Integer, Long> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * 累加
+     *
+     * @param id 实体ID
+     * @param delta 增量
+     */
+    public void add(int id, long delta) {
+        while (delta != 0) {
+            Cell cell = cells.computeIfAbsent(id, k -> new Cell());
+            cell.adder.add(delta);
+            if (!cell.retired) {
+                return;
+            }
+            // 单元已被移除，取回可能没有被写库任务取走的部分，加到新的单元上
+            delta = cell.adder.sumThenReset();
+        }
+    }
+    
+    /**
+     * 尚未写入数据库的增量
+     */
+    public long pending(int id) {
+        Cell cell = cells.get(id);
+        long value = cell != null ? cell.adder.sum() : 0;
+        Long flushing = inFlight.get(id);
+        return flushing != null ? value + flushing : value;
+    }
+    
+    /**
+     * 取出各ID的累计增量，取出的部分在确认写入前仍计入{@link #pending(int)}
+     *
+     * @return ID及增量，不包含增量为0的ID
+     */
+    public Map<Integer, Long> drain() {
+        Map<Integer, Long> deltas = new HashMap<>();
+        for (Map.Entry<Integer, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            long value = cell.adder.sumThenReset();
+            if (value == 0 && cells.remove(entry.getKey(), cell)) {
+                cell.retired = true;
+                value = cell.adder.sumThenReset();
+            }
+            if (value != 0) {
+                deltas.put(entry.getKey(), value);
+                inFlight.merge(entry.getKey(), value, Long::sum);
+            }
+        }
+        return deltas;
+    }
+    
+    /**
+     * 确认取出的增量已写入数据库
+     */
+    public void flushed(Map<Integer, Long> deltas) {
+        deltas.forEach((id, value) -> inFlight.computeIfPresent(id, (k, v) -> v - value == 0 ? null : v - value));
+    }
+    
+    /**
+     * 写入失败时放回取出的增量，下次再写
+     */
+    public void restore(Map<Integer, Long> deltas) {
+        deltas.forEach((id, value) -> add(id, value));
+        flushed(deltas);
+    }
+    
+    private static final class Cell {
+        
+        private final LongAdder adder = new LongAdder();
+        private volatile boolean retired;
+    }
+}
@@ -2,6 +2,8 @@ package com.mall.admin.common.interceptor;
 
 import com.mall.admin.common.annotation.RequireAuth;
 import com.mall.admin.common.exception.AuthException;
+import com.mall.admin.service.ITokenRevocationService;
+import com.mall.admin.util.JwtPrincipal;
 import com.mall.admin.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -11,6 +13,9 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT拦截器
@@ -22,6 +27,14 @@ public class JwtInterceptor implements HandlerInterceptor {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ITokenRevocationService revocationService;
+
+    /**
+     * 各处理方法解析后的RequireAuth注解，未标注的方法缓存为空
+     */
+    private final Map<Method, Optional<RequireAuth>> requireAuthCache = new ConcurrentHashMap<>();
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // 如果不是方法处理器，直接放行
@@ -30,13 +43,9 @@ public class JwtInterceptor implements HandlerInterceptor {
         }
 
         HandlerMethod handlerMethod = (HandlerMethod) handler;
-        Method method = handlerMethod.getMethod();
-        
-        // 检查方法或类上是否有RequireAuth注解
-        RequireAuth requireAuth = method.getAnnotation(RequireAuth.class);
-        if (requireAuth == null) {
-            requireAuth = handlerMethod.getBeanType().getAnnotation(RequireAuth.class);
-        }
+        RequireAuth requireAuth = requireAuthCache
+                .computeIfAbsent(handlerMethod.getMethod(), method -> resolveRequireAuth(handlerMethod))
+                .orElse(null);
         
         // 如果没有RequireAuth注解，直接放行
         if (requireAuth == null) {
@@ -52,34 +61,44 @@ public class JwtInterceptor implements HandlerInterceptor {
             throw new AuthException(401, "缺少认证令牌");
         }
         
-        // 验证令牌有效性
-        if (!jwtUtil.validateToken(token)) {
+        // 验签并解析令牌（包含过期校验）
+        JwtPrincipal principal = jwtUtil.verify(token);
+        if (principal == null) {
             throw new AuthException(401, "认证令牌无效或已过期");
         }
         
-        // 检查令牌是否过期
-        if (jwtUtil.isTokenExpired(token)) {
-            throw new AuthException(401, "认证令牌已过期");
+        // 检查令牌是否已被吊销（登出、刷新或账户锁定）
+        if (revocationService.isRevoked(principal)) {
+            throw new AuthException(401, "认证令牌已失效");
         }
         
-        // 获取用户信息
-        Integer userId = jwtUtil.getUserIdFromToken(token);
-        String username = jwtUtil.getUsernameFromToken(token);
-        String userRole = jwtUtil.getRoleFromToken(token);
-        
         // 将用户信息存储到请求属性中，供后续使用
-        request.setAttribute("userId", userId);
-        request.setAttribute("username", username);
-        request.setAttribute("userRole", userRole);
+        request.setAttribute("principal", principal);
+        request.setAttribute("userId", principal.getUserId());
+        request.setAttribute("username", principal.getUsername());
+        request.setAttribute("userRole", principal.getRole());
         
         // 权限校验
-        if (!checkPermission(requireAuth, userRole)) {
+        if (!checkPermission(requireAuth, principal.getRole())) {
             throw new AuthException(403, "权限不足");
         }
         
         return true;
     }
     
+    /**
+     * 解析处理方法上的RequireAuth注解，方法上没有时取类上的
+     * @param handlerMethod 处理方法
+     * @return RequireAuth注解
+     */
+    private Optional<RequireAuth> resolveRequireAuth(HandlerMethod handlerMethod) {
+        RequireAuth requireAuth = handlerMethod.getMethod().getAnnotation(RequireAuth.class);
+        if (requireAuth == null) {
+            requireAuth = handlerMethod.getBeanType().getAnnotation(RequireAuth.class);
+        }
+        return Optional.ofNullable(requireAuth);
+    }
+    
     /**
      * 检查权限
      * @param requireAuth 权限注解
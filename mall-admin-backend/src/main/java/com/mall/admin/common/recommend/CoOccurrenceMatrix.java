@@ -0,0 +1,213 @@
+package com.mall.admin.common.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 物品共现矩阵
+ * <p>
+ * 每个购物篮（一个订单中的商品）里的物品两两计数一次，只保存出现过的物品对，每个物品一行，
+ * 行内用{@link IntIntHashMap}记录与其他物品共同出现的次数，同时记录每个物品出现在多少个购物篮中。
+ * 购物篮可以增量加入和撤销，相似度使用余弦相似度：共现次数 / sqrt(物品A次数 × 物品B次数)，
+ * 避免畅销商品出现在所有商品的推荐中。读多写少，使用读写锁保护。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class CoOccurrenceMatrix {
+    
+    private final Map<Integer, IntIntHashMap> rows = new HashMap<>();
+    private final IntIntHashMap itemCounts = new IntIntHashMap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long pairCount;
+    
+    /**
+     * 加入一个购物篮
+     *
+     * @param items 购物篮中的物品ID，重复的ID只计一次
+     */
+    public void add(int[] items) {
+        update(items, 1);
+    }
+    
+    /**
+     * 撤销之前加入的购物篮
+     *
+     * @param items 加入时的物品ID
+     */
+    public void remove(int[] items) {
+        update(items, -1);
+    }
+    
+    /**
+     * 一次加入和撤销多个购物篮，只获取一次写锁
+     *
+     * @param added 要加入的购物篮
+     * @param removed 要撤销的购物篮
+     */
+    public void update(Collection<int[]> added, Collection<int[]> removed) {
+        List<int[]> addedItems = added.stream().map(CoOccurrenceMatrix::distinct).toList();
+        List<int[]> removedItems = removed.stream().map(CoOccurrenceMatrix::distinct).toList();
+        lock.writeLock().lock();
+        try {
+            addedItems.forEach(items -> updateLocked(items, 1));
+            removedItems.forEach(items -> updateLocked(items, -1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 与指定物品最相似的物品
+     *
+     * @param item 物品ID
+     * @param limit 数量
+     * @param minCount 最少共现次数，低于该次数的物品对不参与推荐
+     * @return 按相似度降序排列的物品ID
+     */
+    public List<Integer> similar(int item, int limit, int minCount) {
+        return recommend(List.of(item), limit, minCount);
+    }
+    
+    /**
+     * 根据一组物品推荐其他物品，候选物品的得分为与各个已知物品的相似度之和
+     *
+     * @param items 已知物品ID，例如用户购买过的商品
+     * @param limit 数量
+     * @param minCount 最少共现次数
+     * @return 按得分降序排列的物品ID，不包含已知物品
+     */
+    public List<Integer> recommend(Collection<Integer> items, int limit, int minCount) {
+        if (items.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Integer> known = new LinkedHashSet<>(items);
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Integer item : known) {
+                IntIntHashMap row = rows.get(item);
+                if (row == null) {
+                    continue;
+                }
+                double itemCount = itemCounts.get(item);
+                row.forEach((other, count) -> {
+                    if (count >= minCount && !known.contains(other)) {
+                        double similarity = count / Math.sqrt(itemCount * itemCounts.get(other));
+                        scores.merge(other, similarity, Double::sum);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top(scores, limit);
+    }
+    
+    /**
+     * 出现过的物品数
+     */
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return itemCounts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 共现过的物品对数
+     */
+    public long pairCount() {
+        lock.readLock().lock();
+        try {
+            return pairCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void update(int[] items, int delta) {
+        int[] distinct = distinct(items);
+        lock.writeLock().lock();
+        try {
+            updateLocked(distinct, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void updateLocked(int[] distinct, int delta) {
+        for (int i = 0; i < distinct.length; i++) {
+            itemCounts.addTo(distinct[i], delta);
+            for (int j = i + 1; j < distinct.length; j++) {
+                int count = addToRow(distinct[i], distinct[j], delta);
+                addToRow(distinct[j], distinct[i], delta);
+                if (count == 0) {
+                    pairCount--;
+                } else if (delta > 0 && count == delta) {
+                    pairCount++;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 排序去重后的物品ID
+     */
+    private static int[] distinct(int[] items) {
+        int[] distinct = items.clone();
+        Arrays.sort(distinct);
+        int length = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[length++] = distinct[i];
+            }
+        }
+        return Arrays.copyOf(distinct, length);
+    }
+    
+    private int addToRow(int item, int other, int delta) {
+        IntIntHashMap row = rows.computeIfAbsent(item, k -> new IntIntHashMap());
+        int count = row.addTo(other, delta);
+        if (row.isEmpty()) {
+            rows.remove(item);
+        }
+        return count;
+    }
+    
+    /**
+     * 用大小为limit的小顶堆取得分最高的物品，得分相同时ID小的在前
+     */
+    private static List<Integer> top(Map<Integer, Double> scores, int limit) {
+        Comparator<Map.Entry<Integer, Double>> order = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(order);
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (order.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Integer> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getKey());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package com.mall.admin.common.recommend;
+
+/**
+ * int到int的哈希表
+ * <p>
+ * 开放寻址、线性探测，键和值分别保存在两个int数组中，每个条目只占8字节，
+ * 没有HashMap&lt;Integer, Integer&gt;的装箱对象和链表节点开销，适合保存大量稀疏的小计数表。
+ * 键0作为空槽标记，不能使用；值为0的条目视为不存在，计数减到0时自动删除。
+ * 非线程安全，由调用方加锁。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public final class IntIntHashMap {
+    
+    private static final int EMPTY = 0;
+    
+    private int[] keys;
+    private int[] values;
+    private int size;
+    
+    public IntIntHashMap() {
+        this(4);
+    }
+    
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 4 / 3 + 1) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+    
+    /**
+     * 获取键对应的值，不存在时返回0
+     */
+    public int get(int key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * 给键对应的值加上增量，不存在时从0开始；结果为0时删除该键
+     *
+     * @param key 键，不能为0
+     * @param delta 增量
+     * @return 更新后的值
+     */
+    public int addTo(int key, int delta) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int value = values[slot] + delta;
+                if (value == 0) {
+                    removeAt(slot);
+                } else {
+                    values[slot] = value;
+                }
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (delta == 0) {
+            return 0;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > keys.length * 3 / 4) {
+            resize(keys.length << 1);
+        }
+        return delta;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * 遍历全部条目，遍历期间不能修改
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+    
+    /**
+     * 删除槽位后把同一探测链上后面的条目前移，保证查找不会在空槽处提前结束
+     */
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            // 条目的理想位置不在(gap, next]区间内时可以移到gap
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+        size--;
+    }
+    
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private static void checkKey(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("键不能为0");
+        }
+    }
+    
+    /**
+     * 打散连续的自增ID，避免线性探测时聚集
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * 条目遍历回调
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        
+        void accept(int key, int value);
+    }
+}
@@ -0,0 +1,209 @@
+package com.mall.admin.common.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 分面位图索引
+ * <p>
+ * 每个属性的每个取值对应一个压缩位图，记录具有该取值的文档ID，随文档的写入和移除增量维护。
+ * 筛选时同一属性的多个取值取并集，不同属性之间取交集；
+ * 某个属性的分面计数基于除该属性外的其余筛选条件统计，使已选中的属性仍能展示其他可选取值及数量。
+ * 读多写少，使用读写锁保护。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class FacetIndex {
+    
+    private final Map<String, Map<String, CompressedBitmap>> fields = new HashMap<>();
+    private final Map<Integer, Map<String, List<String>>> docValues = new HashMap<>();
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * 写入或替换文档
+     *
+     * @param docId 文档ID
+     * @param values 属性及取值，一个属性可以有多个取值，空值忽略
+     */
+    public void put(int docId, Map<String, List<String>> values) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+            Map<String, List<String>> stored = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : values.entrySet()) {
+                List<String> fieldValues = new ArrayList<>();
+                for (String value : entry.getValue()) {
+                    if (value == null || fieldValues.contains(value)) {
+                        continue;
+                    }
+                    fields.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                            .computeIfAbsent(value, k -> new CompressedBitmap())
+                            .add(docId);
+                    fieldValues.add(value);
+                }
+                stored.put(entry.getKey(), fieldValues);
+            }
+            docValues.put(docId, stored);
+            all.add(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 移除文档
+     */
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docValues.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 按属性筛选文档并统计分面
+     *
+     * @param filters 属性及可接受的取值，取值为空的属性不参与筛选
+     * @param restriction 额外限定的文档范围，为空表示不限定
+     * @param facetFields 需要统计的属性
+     * @param maxValues 每个属性最多返回的取值数
+     * @return 命中的文档及各属性按数量降序排列的取值计数
+     */
+    public Result search(Map<String, ? extends Collection<String>> filters, CompressedBitmap restriction,
+                         Collection<String> facetFields, int maxValues) {
+        lock.readLock().lock();
+        try {
+            Map<String, CompressedBitmap> fieldMatches = new LinkedHashMap<>();
+            for (Map.Entry<String, ? extends Collection<String>> entry : filters.entrySet()) {
+                if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                Map<String, CompressedBitmap> valueBitmaps = fields.getOrDefault(entry.getKey(), Map.of());
+                CompressedBitmap matched = new CompressedBitmap();
+                for (String value : entry.getValue()) {
+                    CompressedBitmap bitmap = valueBitmaps.get(value);
+                    if (bitmap != null) {
+                        matched = CompressedBitmap.or(matched, bitmap);
+                    }
+                }
+                fieldMatches.put(entry.getKey(), matched);
+            }
+            
+            CompressedBitmap matches = intersect(restriction, fieldMatches, null);
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String field : facetFields) {
+                CompressedBitmap base = fieldMatches.containsKey(field)
+                        ? intersect(restriction, fieldMatches, field)
+                        : matches;
+                facets.put(field, count(field, base, maxValues));
+            }
+            return new Result(matches != null ? matches : all.copy(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 求限定范围与各属性命中结果的交集，跳过指定属性；没有任何条件时返回null表示全部文档
+     */
+    private static CompressedBitmap intersect(CompressedBitmap restriction, Map<String, CompressedBitmap> fieldMatches,
+                                              String excludedField) {
+        CompressedBitmap result = restriction;
+        for (Map.Entry<String, CompressedBitmap> entry : fieldMatches.entrySet()) {
+            if (entry.getKey().equals(excludedField)) {
+                continue;
+            }
+            result = result == null ? entry.getValue() : CompressedBitmap.and(result, entry.getValue());
+        }
+        return result;
+    }
+    
+    private Map<String, Integer> count(String field, CompressedBitmap base, int maxValues) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        for (Map.Entry<String, CompressedBitmap> entry : fields.getOrDefault(field, Map.of()).entrySet()) {
+            int count = base == null
+                    ? entry.getValue().cardinality()
+                    : CompressedBitmap.andCardinality(base, entry.getValue());
+            if (count > 0) {
+                counts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        counts.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? a.getKey().compareTo(b.getKey())
+                : Integer.compare(b.getValue(), a.getValue()));
+        
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.subList(0, Math.min(maxValues, counts.size()))) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+    
+    private void removeLocked(int docId) {
+        Map<String, List<String>> stored = docValues.remove(docId);
+        if (stored == null) {
+            return;
+        }
+        for (Map.Entry<String, List<String>> entry : stored.entrySet()) {
+            Map<String, CompressedBitmap> valueBitmaps = fields.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                CompressedBitmap bitmap = valueBitmaps.get(value);
+                bitmap.remove(docId);
+                if (bitmap.isEmpty()) {
+                    valueBitmaps.remove(value);
+                }
+            }
+        }
+        all.remove(docId);
+    }
+    
+    /**
+     * 筛选结果
+     */
+    public static final class Result {
+        
+        private final CompressedBitmap matches;
+        private final Map<String, Map<String, Integer>> facets;
+        
+        Result(CompressedBitmap matches, Map<String, Map<String, Integer>> facets) {
+            this.matches = matches;
+            this.facets = facets;
+        }
+        
+        /**
+         * 命中的文档
+         */
+        public CompressedBitmap getMatches() {
+            return matches;
+        }
+        
+        /**
+         * 各属性的取值计数
+         */
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+    }
+}
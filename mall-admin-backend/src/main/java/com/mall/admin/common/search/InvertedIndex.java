@@ -0,0 +1,406 @@
+package com.mall.admin.common.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * 内存倒排索引
+ * <p>
+ * 每个词项对应一个按文档ID升序排列的倒排表，记录文档ID和该词项在文档中的权重（所在字段的最高权重）。
+ * 查询时每个查询词项的倒排表之间取交集，从文档数最少的倒排表开始逐个检查其余倒排表，
+ * 得分为各词项权重与逆文档频率乘积之和，只保留得分最高的若干个文档；筛选和分面统计只需要交集本身，不计算得分也不截断。
+ * 字母数字词项额外按前缀匹配，例如"sku12"可以匹配"sku1234"。
+ * 读多写少，使用读写锁保护。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public class InvertedIndex {
+    
+    /**
+     * 单个查询词项最多展开的前缀匹配词项数
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Postings[]> docPostings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * 对字段文本分词并累加到词项权重中，同一词项保留最高权重
+     *
+     * @param termWeights 词项权重
+     * @param text 字段文本
+     * @param weight 字段权重
+     */
+    public static void addField(Map<String, Float> termWeights, String text, float weight) {
+        for (String term : TextTokenizer.tokenizeForIndex(text)) {
+            termWeights.merge(term, weight, Math::max);
+        }
+    }
+    
+    /**
+     * 写入或替换文档
+     *
+     * @param docId 文档ID
+     * @param termWeights 词项及权重
+     */
+    public void put(int docId, Map<String, Float> termWeights) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+            if (termWeights.isEmpty()) {
+                return;
+            }
+            Postings[] terms = new Postings[termWeights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                Postings list = postings.computeIfAbsent(entry.getKey(), Postings::new);
+                list.put(docId, entry.getValue());
+                terms[i++] = list;
+            }
+            docPostings.put(docId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 移除文档
+     */
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docPostings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 词项数
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 查询同时包含全部查询词项的文档
+     *
+     * @param query 查询文本
+     * @param filter 文档过滤条件，可为空
+     * @param maxHits 最多返回的文档数
+     * @return 按得分降序排列的文档ID及命中总数
+     */
+    public Hits search(String query, IntPredicate filter, int maxHits) {
+        Set<String> tokens = TextTokenizer.tokenizeForQuery(query);
+        if (tokens.isEmpty() || maxHits <= 0) {
+            return Hits.EMPTY;
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<TermGroup> groups = termGroups(tokens);
+            if (groups == null) {
+                return Hits.EMPTY;
+            }
+            
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(maxHits, 1024) + 1);
+            int total = 0;
+            candidates:
+            for (int docId : groups.get(0).candidates()) {
+                if (filter != null && !filter.test(docId)) {
+                    continue;
+                }
+                double score = 0;
+                for (TermGroup group : groups) {
+                    double termScore = group.score(docId);
+                    if (termScore <= 0) {
+                        continue candidates;
+                    }
+                    score += termScore;
+                }
+                total++;
+                top.offer(new ScoredDoc(docId, score));
+                if (top.size() > maxHits) {
+                    top.poll();
+                }
+            }
+            
+            List<Integer> docIds = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                docIds.add(top.poll().docId);
+            }
+            Collections.reverse(docIds);
+            return new Hits(docIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 同时包含全部查询词项的全部文档，只求倒排表交集，不计算得分也不限制数量，用于筛选和分面统计
+     *
+     * @param query 查询文本
+     * @return 命中文档ID的位图
+     */
+    public CompressedBitmap matchAll(String query) {
+        CompressedBitmap matches = new CompressedBitmap();
+        Set<String> tokens = TextTokenizer.tokenizeForQuery(query);
+        if (tokens.isEmpty()) {
+            return matches;
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<TermGroup> groups = termGroups(tokens);
+            if (groups == null) {
+                return matches;
+            }
+            candidates:
+            for (int docId : groups.get(0).candidates()) {
+                for (int i = 1; i < groups.size(); i++) {
+                    if (!groups.get(i).contains(docId)) {
+                        continue candidates;
+                    }
+                }
+                matches.add(docId);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 各查询词项匹配到的倒排表，按文档数升序排列；任一词项没有匹配时返回null。调用方需持有读锁
+     */
+    private List<TermGroup> termGroups(Set<String> tokens) {
+        int docCount = docPostings.size();
+        List<TermGroup> groups = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            TermGroup group = new TermGroup();
+            Postings exact = postings.get(token);
+            if (exact != null) {
+                group.add(exact, idf(docCount, exact.size));
+            }
+            if (TextTokenizer.isWordTerm(token)) {
+                for (Postings expansion : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    if (group.lists.size() >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    group.add(expansion, idf(docCount, expansion.size));
+                }
+            }
+            if (group.lists.isEmpty()) {
+                return null;
+            }
+            groups.add(group);
+        }
+        groups.sort((a, b) -> Integer.compare(a.docFrequency(), b.docFrequency()));
+        return groups;
+    }
+    
+    private void removeLocked(int docId) {
+        Postings[] terms = docPostings.remove(docId);
+        if (terms == null) {
+            return;
+        }
+        for (Postings list : terms) {
+            list.remove(docId);
+            if (list.size == 0) {
+                postings.remove(list.term);
+            }
+        }
+    }
+    
+    private static double idf(int docCount, int docFrequency) {
+        return Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+    
+    /**
+     * 查询结果
+     */
+    public static final class Hits {
+        
+        public static final Hits EMPTY = new Hits(List.of(), 0);
+        
+        private final List<Integer> docIds;
+        private final int total;
+        
+        Hits(List<Integer> docIds, int total) {
+            this.docIds = docIds;
+            this.total = total;
+        }
+        
+        /**
+         * 按得分降序排列的文档ID，最多maxHits个
+         */
+        public List<Integer> getDocIds() {
+            return docIds;
+        }
+        
+        /**
+         * 命中的文档总数
+         */
+        public int getTotal() {
+            return total;
+        }
+    }
+    
+    /**
+     * 单个词项的倒排表
+     */
+    private static final class Postings {
+        
+        private final String term;
+        private int[] docIds = new int[2];
+        private float[] weights = new float[2];
+        private int size;
+        
+        Postings(String term) {
+            this.term = term;
+        }
+        
+        void put(int docId, float weight) {
+            int index = Arrays.binarySearch(docIds, 0, size, docId);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+            index = -index - 1;
+            if (size == docIds.length) {
+                int capacity = size + (size >> 1) + 1;
+                docIds = Arrays.copyOf(docIds, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            System.arraycopy(docIds, index, docIds, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            docIds[index] = docId;
+            weights[index] = weight;
+            size++;
+        }
+        
+        void remove(int docId) {
+            int index = Arrays.binarySearch(docIds, 0, size, docId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+        }
+        
+        boolean contains(int docId) {
+            return Arrays.binarySearch(docIds, 0, size, docId) >= 0;
+        }
+        
+        float weight(int docId) {
+            int index = Arrays.binarySearch(docIds, 0, size, docId);
+            return index >= 0 ? weights[index] : 0f;
+        }
+    }
+    
+    /**
+     * 一个查询词项匹配到的倒排表（前缀匹配时有多个）
+     */
+    private static final class TermGroup {
+        
+        private final List<Postings> lists = new ArrayList<>();
+        private final List<Double> idfs = new ArrayList<>();
+        
+        void add(Postings list, double idf) {
+            lists.add(list);
+            idfs.add(idf);
+        }
+        
+        int docFrequency() {
+            int frequency = 0;
+            for (Postings list : lists) {
+                frequency += list.size;
+            }
+            return frequency;
+        }
+        
+        /**
+         * 去重后按升序排列的候选文档ID
+         */
+        int[] candidates() {
+            if (lists.size() == 1) {
+                Postings list = lists.get(0);
+                return Arrays.copyOf(list.docIds, list.size);
+            }
+            int[] merged = new int[docFrequency()];
+            int offset = 0;
+            for (Postings list : lists) {
+                System.arraycopy(list.docIds, 0, merged, offset, list.size);
+                offset += list.size;
+            }
+            return Arrays.stream(merged).sorted().distinct().toArray();
+        }
+        
+        boolean contains(int docId) {
+            for (Postings list : lists) {
+                if (list.contains(docId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        double score(int docId) {
+            double best = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                best = Math.max(best, lists.get(i).weight(docId) * idfs.get(i));
+            }
+            return best;
+        }
+    }
+    
+    private static final class ScoredDoc implements Comparable<ScoredDoc> {
+        
+        private final int docId;
+        private final double score;
+        
+        ScoredDoc(int docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+        
+        /**
+         * 堆顶为得分最低的文档；得分相同时ID较小（较早创建）的先淘汰
+         */
+        @Override
+        public int compareTo(ScoredDoc other) {
+            int result = Double.compare(score, other.score);
+            return result != 0 ? result : Integer.compare(docId, other.docId);
+        }
+    }
+}
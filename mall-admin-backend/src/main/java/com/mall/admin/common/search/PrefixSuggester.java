@@ -0,0 +1,283 @@
+package com.mall.admin.common.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 按前缀补全的联想词索引
+ * <p>
+ * 所有候选词的规范化文本（及其中每个词段的起始位置）作为键排序后存放在数组中，
+ * 以某个前缀开头的键在数组中是一段连续区间，通过二分查找定位；
+ * 区间内按权重取前K个候选词时使用线段树求区间最大值，每次取出最大值后把区间一分为二继续查找，
+ * 查询耗时只与前缀长度、K和键数量的对数有关。构建完成后不可修改，更新时整体重建后替换。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public final class PrefixSuggester {
+    
+    public static final PrefixSuggester EMPTY = new Builder().build();
+    
+    /**
+     * 排序后的键
+     */
+    private final String[] keys;
+    
+    /**
+     * 键对应的候选词下标
+     */
+    private final int[] keyEntries;
+    
+    private final String[] texts;
+    private final String[] types;
+    private final long[] weights;
+    
+    /**
+     * 线段树，叶子为键下标，内部节点为子区间内权重最大的键下标
+     */
+    private final int[] tree;
+    
+    private PrefixSuggester(String[] keys, int[] keyEntries, String[] texts, String[] types, long[] weights) {
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.texts = texts;
+        this.types = types;
+        this.weights = weights;
+        
+        int n = keys.length;
+        this.tree = new int[Math.max(2 * n, 2)];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+    
+    /**
+     * 查询以指定前缀开头的候选词
+     *
+     * @param prefix 用户输入的前缀
+     * @param limit 最多返回的数量
+     * @return 按权重降序排列的候选词
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0 || keys.length == 0) {
+            return List.of();
+        }
+        
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        if (from >= to) {
+            return List.of();
+        }
+        
+        // 候选区间按区间内最大权重排序：{起点, 终点, 最大权重的键下标}
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> Long.compare(weightOf(b[2]), weightOf(a[2])));
+        ranges.offer(new int[]{from, to, argMax(from, to)});
+        
+        List<Suggestion> result = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            int entry = keyEntries[best];
+            if (seen.add(entry)) {
+                result.add(new Suggestion(texts[entry], types[entry], weights[entry]));
+            }
+            if (range[0] < best) {
+                ranges.offer(new int[]{range[0], best, argMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.offer(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 候选词数量
+     */
+    public int size() {
+        return texts.length;
+    }
+    
+    /**
+     * 规范化文本：转小写、去掉首尾空白、连续空白合并为一个空格
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+            builder.append(Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * 区间[from, to)内权重最大的键下标
+     */
+    private int argMax(int from, int to) {
+        int n = keys.length;
+        int best = from;
+        for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+    
+    private int better(int a, int b) {
+        return weightOf(b) > weightOf(a) ? b : a;
+    }
+    
+    private long weightOf(int keyIndex) {
+        return weights[keyEntries[keyIndex]];
+    }
+    
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * 联想候选词
+     */
+    public static final class Suggestion {
+        
+        private final String text;
+        private final String type;
+        private final long weight;
+        
+        Suggestion(String text, String type, long weight) {
+            this.text = text;
+            this.type = type;
+            this.weight = weight;
+        }
+        
+        public String getText() {
+            return text;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        public long getWeight() {
+            return weight;
+        }
+    }
+    
+    private static final class KeyRef {
+        
+        private final String key;
+        private final int entry;
+        
+        KeyRef(String key, int entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+    
+    /**
+     * 构建器，同类型同文本的候选词权重累加
+     */
+    public static final class Builder {
+        
+        private final Map<String, long[]> weightsByEntry = new LinkedHashMap<>();
+        private final Map<String, String[]> entries = new LinkedHashMap<>();
+        
+        /**
+         * 添加候选词
+         *
+         * @param text 展示文本
+         * @param type 类型，如商品、品牌、分类
+         * @param weight 权重
+         */
+        public Builder add(String text, String type, long weight) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            String entryKey = type + '\u0000' + normalized;
+            entries.putIfAbsent(entryKey, new String[]{text.trim(), type, normalized});
+            weightsByEntry.computeIfAbsent(entryKey, k -> new long[1])[0] += Math.max(0, weight);
+            return this;
+        }
+        
+        public PrefixSuggester build() {
+            int entryCount = entries.size();
+            String[] texts = new String[entryCount];
+            String[] types = new String[entryCount];
+            long[] weights = new long[entryCount];
+            List<String> keyList = new ArrayList<>();
+            List<Integer> keyEntryList = new ArrayList<>();
+            
+            int index = 0;
+            for (Map.Entry<String, String[]> entry : entries.entrySet()) {
+                String[] value = entry.getValue();
+                texts[index] = value[0];
+                types[index] = value[1];
+                weights[index] = weightsByEntry.get(entry.getKey())[0];
+                
+                // 整个文本及其中每个词段的起始位置都可作为前缀匹配的起点
+                String normalized = value[2];
+                keyList.add(normalized);
+                keyEntryList.add(index);
+                for (int i = 1; i < normalized.length(); i++) {
+                    if (normalized.charAt(i - 1) == ' ') {
+                        keyList.add(normalized.substring(i));
+                        keyEntryList.add(index);
+                    }
+                }
+                index++;
+            }
+            
+            KeyRef[] refs = new KeyRef[keyList.size()];
+            for (int i = 0; i < refs.length; i++) {
+                refs[i] = new KeyRef(keyList.get(i), keyEntryList.get(i));
+            }
+            Arrays.sort(refs, (a, b) -> a.key.compareTo(b.key));
+            
+            String[] keys = new String[refs.length];
+            int[] keyEntries = new int[refs.length];
+            for (int i = 0; i < refs.length; i++) {
+                keys[i] = refs[i].key;
+                keyEntries[i] = refs[i].entry;
+            }
+            return new PrefixSuggester(keys, keyEntries, texts, types, weights);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mall.admin.common.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 中英文混合文本分词器
+ * <p>
+ * 连续的中日韩字符按单字和相邻二元组切分，连续的字母数字作为一个词并转为小写，其他字符视为分隔符。
+ * 索引时同时保留单字和二元组；查询时两个字以上的中文只用二元组，使多字关键词按相邻关系匹配，
+ * 效果接近子串匹配而不需要扫描原文。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public final class TextTokenizer {
+    
+    private TextTokenizer() {
+    }
+    
+    /**
+     * 索引分词
+     *
+     * @param text 原文
+     * @return 去重后的词项
+     */
+    public static Set<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+    
+    /**
+     * 查询分词
+     *
+     * @param text 关键词
+     * @return 去重后的词项
+     */
+    public static Set<String> tokenizeForQuery(String text) {
+        return tokenize(text, false);
+    }
+    
+    /**
+     * 是否为字母数字词项（可做前缀匹配）
+     */
+    public static boolean isWordTerm(String term) {
+        return !term.isEmpty() && !isCjk(term.codePointAt(0));
+    }
+    
+    private static Set<String> tokenize(String text, boolean forIndex) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = normalized.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int start = i;
+                while (i < length && isCjk(normalized.codePointAt(i))) {
+                    i += Character.charCount(normalized.codePointAt(i));
+                }
+                addCjkTerms(terms, normalized.substring(start, i), forIndex);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length) {
+                    int current = normalized.codePointAt(i);
+                    if (isCjk(current) || !Character.isLetterOrDigit(current)) {
+                        break;
+                    }
+                    i += Character.charCount(current);
+                }
+                terms.add(normalized.substring(start, i));
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return terms;
+    }
+    
+    private static void addCjkTerms(Set<String> terms, String run, boolean forIndex) {
+        int[] codePoints = run.codePoints().toArray();
+        if (forIndex || codePoints.length == 1) {
+            for (int codePoint : codePoints) {
+                terms.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+    }
+    
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,39 @@
+package com.mall.admin.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务配置
+ * <p>
+ * 默认的调度器只有一个线程，搜索索引重建、排行榜重新加载等耗时任务运行时，
+ * 库存、计数、登录时间等秒级的批量写库任务都要排队等待，写库间隔和异常退出时的丢失范围都无法保证。
+ * 这里使用多线程调度器，线程数大于耗时任务的数量，使批量写库任务总有空闲线程可用。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    
+    /**
+     * 调度线程数
+     */
+    @Value("${mall.scheduling.pool-size:8}")
+    private int poolSize;
+    
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("mall-scheduling-");
+        // 停机时等待正在执行的批量写库任务完成
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
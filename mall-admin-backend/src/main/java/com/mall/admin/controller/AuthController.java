@@ -2,12 +2,17 @@ package com.mall.admin.controller;
 
 import com.mall.admin.common.annotation.RequireAuth;
 import com.mall.admin.common.ApiResponse;
+import com.mall.admin.common.exception.BusinessException;
 import com.mall.admin.dto.UserRegisterRequest;
 import com.mall.admin.dto.UserRegisterResponse;
-import com.mall.admin.entity.User;
+import com.mall.admin.dto.request.LoginRequest;
+import com.mall.admin.dto.response.LoginResponse;
+import com.mall.admin.dto.response.UserResponse;
+import com.mall.admin.service.IAuthService;
 import com.mall.admin.service.IUserService;
+import com.mall.admin.util.ClientIpResolver;
 import com.mall.admin.util.JwtUtil;
-import com.mall.admin.util.PasswordUtil;
+import com.mall.admin.util.PasswordHasher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,7 +22,6 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +40,15 @@ public class AuthController {
     
     @Autowired
     private IUserService userService;
+    
+    @Autowired
+    private IAuthService authService;
+    
+    @Autowired
+    private PasswordHasher passwordHasher;
+    
+    @Autowired
+    private ClientIpResolver clientIpResolver;
 
     /**
      * 用户注册
@@ -45,7 +58,7 @@ public class AuthController {
     public ApiResponse<UserRegisterResponse> register(@Valid @RequestBody UserRegisterRequest request, HttpServletRequest httpRequest) {
         try {
             // 获取客户端IP
-            String clientIp = getClientIp(httpRequest);
+            String clientIp = clientIpResolver.resolve(httpRequest);
             
             // 执行注册
             UserRegisterResponse response = userService.register(request, clientIp);
@@ -65,31 +78,11 @@ public class AuthController {
      */
     @Operation(summary = "用户登录", description = "用户登录获取JWT令牌")
     @PostMapping("/login")
-    public ApiResponse<Map<String, Object>> login(@RequestBody LoginRequest request) {
+    public ApiResponse<Map<String, Object>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
-            // 根据昵称查询用户
-            User user = userService.findByNickname(request.getNickname());
-            
-            if (user == null) {
-                return ApiResponse.error("昵称或密码错误");
-            }
-            
-            // 检查用户状态
-            if (user.getStatus() == 0) {
-                return ApiResponse.error("账户已被禁用");
-            }
-            
-            // 验证密码
-            if (!PasswordUtil.matches(request.getPassword(), user.getPassword())) {
-                return ApiResponse.error("昵称或密码错误");
-            }
-            
-            // 更新最后登录时间
-            user.setLastLoginTime(LocalDateTime.now());
-            userService.updateById(user);
-            
-            // 生成JWT令牌
-            String token = jwtUtil.generateToken(user.getUserId(), user.getNickname(), "USER");
+            // 失败次数限制、密码校验、旧版哈希升级和登录时间记录都由认证服务完成
+            LoginResponse loginResponse = authService.login(request, clientIpResolver.resolve(httpRequest));
+            UserResponse user = loginResponse.getUser();
             
             // 构建用户信息对象
             Map<String, Object> userInfo = new HashMap<>();
@@ -105,17 +98,58 @@ public class AuthController {
             
             // 构建响应数据
             Map<String, Object> data = new HashMap<>();
-            data.put("token", token);
+            data.put("token", loginResponse.getAccessToken());
             data.put("user", userInfo);
             
             return ApiResponse.success(data);
             
+        } catch (BusinessException e) {
+            log.warn("登录失败，昵称: {}, 原因: {}", request.getNickname(), e.getMessage());
+            return ApiResponse.error(e.getMessage());
         } catch (Exception e) {
             log.error("登录异常: {}", e.getMessage(), e);
             return ApiResponse.error("登录失败，请稍后重试");
         }
     }
 
+    /**
+     * 用户登出
+     * 吊销当前令牌
+     */
+    @Operation(summary = "用户登出", description = "吊销当前JWT令牌")
+    @PostMapping("/logout")
+    public ApiResponse<Void> logout(HttpServletRequest request) {
+        try {
+            String token = jwtUtil.extractToken(request.getHeader(jwtUtil.getHeader()));
+            if (token != null) {
+                authService.logout(token);
+            }
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("登出异常: {}", e.getMessage(), e);
+            return ApiResponse.error("登出失败，请稍后重试");
+        }
+    }
+
+    /**
+     * 刷新令牌
+     * 签发新令牌并吊销旧令牌
+     */
+    @Operation(summary = "刷新令牌", description = "使用当前令牌换取新的JWT令牌")
+    @PostMapping("/refresh")
+    public ApiResponse<LoginResponse> refresh(HttpServletRequest request) {
+        try {
+            String token = jwtUtil.extractToken(request.getHeader(jwtUtil.getHeader()));
+            if (token == null) {
+                return ApiResponse.error("缺少认证令牌");
+            }
+            return ApiResponse.success(authService.refreshToken(token));
+        } catch (Exception e) {
+            log.error("刷新令牌失败: {}", e.getMessage());
+            return ApiResponse.error("刷新令牌失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 获取当前用户信息
      * 需要JWT认证
@@ -148,6 +182,39 @@ public class AuthController {
         return ApiResponse.success("这是管理员专用功能");
     }
 
+    /**
+     * 已验证令牌缓存统计
+     * 需要管理员权限
+     */
+    @Operation(summary = "令牌缓存统计", description = "查看已验证令牌缓存的命中率和容量")
+    @RequireAuth(admin = true)
+    @GetMapping("/token-cache/stats")
+    public ApiResponse<Map<String, Object>> tokenCacheStats() {
+        return ApiResponse.success(jwtUtil.getTokenCacheStatistics());
+    }
+
+    /**
+     * 密码哈希线程池统计
+     * 需要管理员权限
+     */
+    @Operation(summary = "密码哈希统计", description = "查看密码哈希线程池的排队、拒绝和超时情况")
+    @RequireAuth(admin = true)
+    @GetMapping("/password-hasher/stats")
+    public ApiResponse<Map<String, Object>> passwordHasherStats() {
+        return ApiResponse.success(passwordHasher.getStatistics());
+    }
+
+    /**
+     * 登录失败计数统计
+     * 需要管理员权限
+     */
+    @Operation(summary = "登录失败计数统计", description = "查看按昵称和IP跟踪的登录失败计数数量")
+    @RequireAuth(admin = true)
+    @GetMapping("/login-failure/stats")
+    public ApiResponse<Map<String, Object>> loginFailureStats() {
+        return ApiResponse.success(authService.getLoginFailureStatistics());
+    }
+
     /**
      * 普通用户接口
      * 只需要登录即可访问
@@ -168,45 +235,4 @@ public class AuthController {
     public ApiResponse<String> publicTest() {
         return ApiResponse.success("这是公开接口，无需认证");
     }
-    
-    /**
-     * 获取客户端IP地址
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
-
-    /**
-     * 登录请求对象
-     */
-    public static class LoginRequest {
-        private String nickname;  // 对应User实体的nickname字段
-        private String password;
-
-        public String getNickname() {
-            return nickname;
-        }
-
-        public void setNickname(String nickname) {
-            this.nickname = nickname;
-        }
-
-        public String getPassword() {
-            return password;
-        }
-
-        public void setPassword(String password) {
-            this.password = password;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.mall.admin.controller;
 import com.mall.admin.common.ApiResponse;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.dto.request.CouponRequest;
+import com.mall.admin.dto.response.BatchOperationResponse;
 import com.mall.admin.dto.response.CouponResponse;
 import com.mall.admin.service.ICouponService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -126,12 +127,12 @@ public class CouponController {
      */
     @Operation(summary = "批量删除优惠卷", description = "批量删除多个优惠卷")
     @DeleteMapping("/batch")
-    public ApiResponse<Void> deleteCoupons(
+    public ApiResponse<BatchOperationResponse> deleteCoupons(
             @Parameter(description = "优惠卷ID列表") @RequestBody List<Integer> couponIds) {
         
         try {
-            couponService.deleteCoupons(couponIds);
-            return ApiResponse.success();
+            BatchOperationResponse result = couponService.deleteCoupons(couponIds);
+            return ApiResponse.success(result);
         } catch (Exception e) {
             log.error("批量删除优惠卷失败", e);
             return ApiResponse.error("批量删除优惠卷失败：" + e.getMessage());
@@ -162,7 +163,7 @@ public class CouponController {
      */
     @Operation(summary = "批量更新优惠卷状态", description = "批量启用或禁用优惠卷")
     @PatchMapping("/batch/status")
-    public ApiResponse<Void> updateCouponStatus(
+    public ApiResponse<BatchOperationResponse> updateCouponStatus(
             @Parameter(description = "批量状态更新请求") @RequestBody Map<String, Object> request) {
         
         try {
@@ -170,8 +171,8 @@ public class CouponController {
             List<Integer> couponIds = (List<Integer>) request.get("couponIds");
             Integer status = (Integer) request.get("status");
             
-            couponService.updateCouponStatus(couponIds, status);
-            return ApiResponse.success();
+            BatchOperationResponse result = couponService.updateCouponStatus(couponIds, status);
+            return ApiResponse.success(result);
         } catch (Exception e) {
             log.error("批量更新优惠卷状态失败", e);
             return ApiResponse.error("批量更新优惠卷状态失败：" + e.getMessage());
@@ -3,6 +3,7 @@ package com.mall.admin.controller;
 import com.mall.admin.common.ApiResponse;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.dto.request.OrderRequest;
+import com.mall.admin.dto.response.BatchOperationResponse;
 import com.mall.admin.dto.response.OrderResponse;
 import com.mall.admin.service.IOrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -41,9 +42,12 @@ public class OrderController {
             @Parameter(description = "每页大小", example = "10") @RequestParam(defaultValue = "10") Integer size,
             @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword,
             @Parameter(description = "订单状态") @RequestParam(required = false) Integer status,
-            @Parameter(description = "用户ID") @RequestParam(required = false) Integer userId) {
+            @Parameter(description = "用户ID") @RequestParam(required = false) Integer userId,
+            @Parameter(description = "是否返回订单项明细") @RequestParam(defaultValue = "true") Boolean withItems,
+            @Parameter(description = "分页游标，传入时按游标翻页并忽略页码，传空字符串获取第一页") @RequestParam(required = false) String after,
+            @Parameter(description = "是否精确统计总数，默认使用短时缓存的总数") @RequestParam(defaultValue = "false") Boolean exactTotal) {
         try {
-            PageResult<OrderResponse> result = orderService.getOrderList(page, size, keyword, status, userId);
+            PageResult<OrderResponse> result = orderService.getOrderList(page, size, keyword, status, userId, withItems, after, exactTotal);
             return ApiResponse.success(result);
         } catch (Exception e) {
             log.error("获取订单列表失败", e);
@@ -212,9 +216,10 @@ public class OrderController {
     @Operation(summary = "获取用户订单", description = "根据用户ID获取订单列表")
     @GetMapping("/user/{userId}")
     public ApiResponse<List<OrderResponse>> getOrdersByUserId(
-            @Parameter(description = "用户ID", required = true) @PathVariable Integer userId) {
+            @Parameter(description = "用户ID", required = true) @PathVariable Integer userId,
+            @Parameter(description = "是否返回订单项明细") @RequestParam(defaultValue = "true") Boolean withItems) {
         try {
-            List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
+            List<OrderResponse> orders = orderService.getOrdersByUserId(userId, withItems);
             return ApiResponse.success(orders);
         } catch (Exception e) {
             log.error("获取用户订单失败，用户ID: {}", userId, e);
@@ -228,9 +233,10 @@ public class OrderController {
     @Operation(summary = "根据状态获取订单", description = "根据订单状态获取订单列表")
     @GetMapping("/status/{status}")
     public ApiResponse<List<OrderResponse>> getOrdersByStatus(
-            @Parameter(description = "订单状态", required = true) @PathVariable Integer status) {
+            @Parameter(description = "订单状态", required = true) @PathVariable Integer status,
+            @Parameter(description = "是否返回订单项明细") @RequestParam(defaultValue = "true") Boolean withItems) {
         try {
-            List<OrderResponse> orders = orderService.getOrdersByStatus(status);
+            List<OrderResponse> orders = orderService.getOrdersByStatus(status, withItems);
             return ApiResponse.success(orders);
         } catch (Exception e) {
             log.error("根据状态获取订单失败，状态: {}", status, e);
@@ -260,9 +266,10 @@ public class OrderController {
     @GetMapping("/sales-statistics")
     public ApiResponse<Map<String, Object>> getSalesStatistics(
             @Parameter(description = "开始日期", example = "2024-01-01") @RequestParam(required = false) String startDate,
-            @Parameter(description = "结束日期", example = "2024-12-31") @RequestParam(required = false) String endDate) {
+            @Parameter(description = "结束日期", example = "2024-12-31") @RequestParam(required = false) String endDate,
+            @Parameter(description = "分组维度：day、week、month、status") @RequestParam(required = false) String groupBy) {
         try {
-            Map<String, Object> statistics = orderService.getSalesStatistics(startDate, endDate);
+            Map<String, Object> statistics = orderService.getSalesStatistics(startDate, endDate, groupBy);
             return ApiResponse.success(statistics);
         } catch (Exception e) {
             log.error("获取销售统计失败", e);
@@ -275,7 +282,7 @@ public class OrderController {
      */
     @Operation(summary = "批量更新订单状态", description = "批量更新多个订单的状态")
     @PatchMapping("/batch/status")
-    public ApiResponse<Void> batchUpdateStatus(
+    public ApiResponse<BatchOperationResponse> batchUpdateStatus(
             @Parameter(description = "批量更新请求", required = true) @RequestBody Map<String, Object> request) {
         try {
             @SuppressWarnings("unchecked")
@@ -289,8 +296,8 @@ public class OrderController {
                 return ApiResponse.error("状态不能为空");
             }
             
-            orderService.batchUpdateStatus(ids, status);
-            return ApiResponse.success();
+            BatchOperationResponse result = orderService.batchUpdateStatus(ids, status);
+            return ApiResponse.success(result);
         } catch (Exception e) {
             log.error("批量更新订单状态失败", e);
             return ApiResponse.error("批量更新订单状态失败：" + e.getMessage());
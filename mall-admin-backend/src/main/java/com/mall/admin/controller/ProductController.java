@@ -2,9 +2,14 @@ package com.mall.admin.controller;
 
 import com.mall.admin.common.ApiResponse;
 import com.mall.admin.common.PageResult;
+import com.mall.admin.common.annotation.RequireAuth;
 import com.mall.admin.dto.request.ProductRequest;
 import com.mall.admin.dto.request.ProductQueryDTO;
 import com.mall.admin.dto.response.ProductResponse;
+import com.mall.admin.dto.response.SearchSuggestionResponse;
+import com.mall.admin.service.IProductRankingService;
+import com.mall.admin.service.IProductRecommendationService;
+import com.mall.admin.service.IProductSearchService;
 import com.mall.admin.service.IProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -31,11 +36,14 @@ import java.util.Map;
 public class ProductController {
     
     private final IProductService productService;
+    private final IProductSearchService productSearchService;
+    private final IProductRankingService productRankingService;
+    private final IProductRecommendationService productRecommendationService;
     
     /**
      * 获取商品列表
      */
-    @Operation(summary = "获取商品列表", description = "分页查询商品列表，支持多条件筛选")
+    @Operation(summary = "获取商品列表", description = "分页查询商品列表，支持多条件筛选；搜索索引就绪时返回结果中附带facets分面计数")
     @GetMapping
     public ApiResponse<PageResult<ProductResponse>> getProductList(ProductQueryDTO queryDTO) {
         try {
@@ -150,12 +158,13 @@ public class ProductController {
     /**
      * 获取热门商品
      */
-    @Operation(summary = "获取热门商品", description = "获取热门商品列表")
+    @Operation(summary = "获取热门商品", description = "获取热门商品列表，可按分类筛选")
     @GetMapping("/hot")
     public ApiResponse<List<ProductResponse>> getHotProducts(
-            @Parameter(description = "限制数量", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+            @Parameter(description = "限制数量", example = "10") @RequestParam(defaultValue = "10") Integer limit,
+            @Parameter(description = "分类ID，为空表示全部分类") @RequestParam(required = false) Integer categoryId) {
         try {
-            List<ProductResponse> products = productService.getHotProducts(limit);
+            List<ProductResponse> products = productService.getHotProducts(limit, categoryId);
             return ApiResponse.success(products);
         } catch (Exception e) {
             log.error("获取热门商品失败", e);
@@ -166,12 +175,13 @@ public class ProductController {
     /**
      * 获取推荐商品
      */
-    @Operation(summary = "获取推荐商品", description = "获取推荐商品列表")
+    @Operation(summary = "获取推荐商品", description = "获取推荐商品列表，可按分类筛选")
     @GetMapping("/recommended")
     public ApiResponse<List<ProductResponse>> getRecommendedProducts(
-            @Parameter(description = "限制数量", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+            @Parameter(description = "限制数量", example = "10") @RequestParam(defaultValue = "10") Integer limit,
+            @Parameter(description = "分类ID，为空表示全部分类") @RequestParam(required = false) Integer categoryId) {
         try {
-            List<ProductResponse> products = productService.getRecommendedProducts(limit);
+            List<ProductResponse> products = productService.getRecommendedProducts(limit, categoryId);
             return ApiResponse.success(products);
         } catch (Exception e) {
             log.error("获取推荐商品失败", e);
@@ -179,6 +189,40 @@ public class ProductController {
         }
     }
     
+    /**
+     * 获取经常一起购买的商品
+     */
+    @Operation(summary = "获取关联购买商品", description = "获取购买了该商品的顾客还购买的商品，不足时用同分类的推荐商品补足")
+    @GetMapping("/{id}/also-bought")
+    public ApiResponse<List<ProductResponse>> getAlsoBoughtProducts(
+            @Parameter(description = "商品ID", required = true) @PathVariable Integer id,
+            @Parameter(description = "限制数量", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            List<ProductResponse> products = productService.getAlsoBoughtProducts(id, limit);
+            return ApiResponse.success(products);
+        } catch (Exception e) {
+            log.error("获取关联购买商品失败，商品ID: {}", id, e);
+            return ApiResponse.error("获取关联购买商品失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取用户个性化推荐商品
+     */
+    @Operation(summary = "获取个性化推荐商品", description = "根据用户购买过的商品推荐经常一起购买的商品，不足时用推荐商品补足")
+    @GetMapping("/recommended/user/{userId}")
+    public ApiResponse<List<ProductResponse>> getPersonalizedProducts(
+            @Parameter(description = "用户ID", required = true) @PathVariable Integer userId,
+            @Parameter(description = "限制数量", example = "10") @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            List<ProductResponse> products = productService.getPersonalizedProducts(userId, limit);
+            return ApiResponse.success(products);
+        } catch (Exception e) {
+            log.error("获取个性化推荐商品失败，用户ID: {}", userId, e);
+            return ApiResponse.error("获取个性化推荐商品失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 根据分类ID获取商品
      */
@@ -211,6 +255,74 @@ public class ProductController {
         }
     }
     
+    /**
+     * 分页搜索商品
+     */
+    @Operation(summary = "分页搜索商品", description = "根据关键词搜索商品，按相关度排序并分页")
+    @GetMapping("/search/page")
+    public ApiResponse<PageResult<ProductResponse>> searchProductsPage(
+            @Parameter(description = "搜索关键词", required = true) @RequestParam String keyword,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer pageNum,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer pageSize) {
+        try {
+            PageResult<ProductResponse> result = productService.searchProducts(keyword, pageNum, pageSize);
+            return ApiResponse.success(result);
+        } catch (Exception e) {
+            log.error("分页搜索商品失败，关键词: {}", keyword, e);
+            return ApiResponse.error("搜索商品失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 搜索框输入联想
+     */
+    @Operation(summary = "搜索联想", description = "根据已输入的前缀联想上架商品名称、品牌和分类，按销量排序")
+    @GetMapping("/suggest")
+    public ApiResponse<List<SearchSuggestionResponse>> suggest(
+            @Parameter(description = "已输入的前缀", required = true) @RequestParam String prefix,
+            @Parameter(description = "返回数量，最多20") @RequestParam(defaultValue = "10") Integer limit) {
+        try {
+            List<SearchSuggestionResponse> suggestions = productSearchService.suggest(prefix, limit);
+            return ApiResponse.success(suggestions);
+        } catch (Exception e) {
+            log.error("获取搜索联想失败，前缀: {}", prefix, e);
+            return ApiResponse.error("获取搜索联想失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 商品搜索索引统计
+     * 需要管理员权限
+     */
+    @Operation(summary = "搜索索引统计", description = "查看商品搜索索引的商品数、词项数和重建耗时")
+    @RequireAuth(admin = true)
+    @GetMapping("/search/stats")
+    public ApiResponse<Map<String, Object>> searchIndexStats() {
+        return ApiResponse.success(productSearchService.getStatistics());
+    }
+    
+    /**
+     * 商品排行榜统计
+     * 需要管理员权限
+     */
+    @Operation(summary = "排行榜统计", description = "查看热门和推荐排行榜的商品数、分类数和加载耗时")
+    @RequireAuth(admin = true)
+    @GetMapping("/ranking/stats")
+    public ApiResponse<Map<String, Object>> rankingStats() {
+        return ApiResponse.success(productRankingService.getStatistics());
+    }
+    
+    /**
+     * 商品共现矩阵统计
+     * 需要管理员权限
+     */
+    @Operation(summary = "关联推荐统计", description = "查看共现矩阵计入的订单数、商品数、商品对数和构建耗时")
+    @RequireAuth(admin = true)
+    @GetMapping("/recommendation/stats")
+    public ApiResponse<Map<String, Object>> recommendationStats() {
+        return ApiResponse.success(productRecommendationService.getStatistics());
+    }
+    
     /**
      * 更新商品库存
      */
@@ -232,6 +344,17 @@ public class ProductController {
         }
     }
     
+    /**
+     * 记录商品浏览
+     */
+    @Operation(summary = "记录商品浏览", description = "商品浏览量加一，在内存中累加后定时写库")
+    @PostMapping("/{id}/view")
+    public ApiResponse<Void> recordView(
+            @Parameter(description = "商品ID", required = true) @PathVariable Integer id) {
+        productService.recordView(id);
+        return ApiResponse.success();
+    }
+    
     /**
      * 检查商品编码是否存在
      */
@@ -0,0 +1,161 @@
+package com.mall.admin.controller;
+
+import com.mall.admin.common.ApiResponse;
+import com.mall.admin.common.PageResult;
+import com.mall.admin.dto.request.ProductReviewRequest;
+import com.mall.admin.dto.response.ProductReviewResponse;
+import com.mall.admin.service.IProductReviewService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品评价控制器
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reviews")
+@RequiredArgsConstructor
+@Tag(name = "商品评价管理", description = "商品评价相关的API接口")
+public class ProductReviewController {
+    
+    private final IProductReviewService productReviewService;
+    
+    /**
+     * 获取评价列表
+     */
+    @Operation(summary = "获取评价列表", description = "分页查询评价列表，支持按商品、用户、评分筛选")
+    @GetMapping
+    public ApiResponse<PageResult<ProductReviewResponse>> getReviewList(
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "商品ID") @RequestParam(required = false) Integer productId,
+            @Parameter(description = "用户ID") @RequestParam(required = false) Integer userId,
+            @Parameter(description = "评分") @RequestParam(required = false) Integer rating) {
+        try {
+            PageResult<ProductReviewResponse> result = productReviewService.getReviewList(page, size, productId, userId, rating);
+            return ApiResponse.success(result);
+        } catch (Exception e) {
+            log.error("获取评价列表失败", e);
+            return ApiResponse.error("获取评价列表失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 根据ID获取评价详情
+     */
+    @Operation(summary = "获取评价详情", description = "根据评价ID获取评价详细信息")
+    @GetMapping("/{id}")
+    public ApiResponse<ProductReviewResponse> getReviewById(
+            @Parameter(description = "评价ID", required = true) @PathVariable Integer id) {
+        try {
+            ProductReviewResponse review = productReviewService.getReviewById(id);
+            return ApiResponse.success(review);
+        } catch (Exception e) {
+            log.error("获取评价详情失败，评价ID: {}", id, e);
+            return ApiResponse.error("获取评价详情失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 创建评价
+     */
+    @Operation(summary = "创建评价", description = "创建商品评价，同时更新商品的评价分布和平均评分")
+    @PostMapping
+    public ApiResponse<Void> createReview(
+            @Parameter(description = "评价创建请求", required = true) @Valid @RequestBody ProductReviewRequest request) {
+        try {
+            productReviewService.createReview(request);
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("创建评价失败，商品ID: {}", request.getProductId(), e);
+            return ApiResponse.error("创建评价失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 更新评价
+     */
+    @Operation(summary = "更新评价", description = "更新评价内容，评分变化时同步调整商品的评价分布")
+    @PutMapping("/{id}")
+    public ApiResponse<Void> updateReview(
+            @Parameter(description = "评价ID", required = true) @PathVariable Integer id,
+            @Parameter(description = "评价更新请求", required = true) @Valid @RequestBody ProductReviewRequest request) {
+        try {
+            productReviewService.updateReview(id, request);
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("更新评价失败，评价ID: {}", id, e);
+            return ApiResponse.error("更新评价失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 删除评价
+     */
+    @Operation(summary = "删除评价", description = "根据评价ID删除评价（逻辑删除）")
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> deleteReview(
+            @Parameter(description = "评价ID", required = true) @PathVariable Integer id) {
+        try {
+            productReviewService.deleteReview(id);
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("删除评价失败，评价ID: {}", id, e);
+            return ApiResponse.error("删除评价失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量删除评价
+     */
+    @Operation(summary = "批量删除评价", description = "根据评价ID列表批量删除评价")
+    @DeleteMapping("/batch")
+    public ApiResponse<Void> batchDeleteReviews(
+            @Parameter(description = "评价ID列表", required = true) @RequestBody List<Integer> ids) {
+        try {
+            productReviewService.batchDeleteReviews(ids);
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("批量删除评价失败，评价ID: {}", ids, e);
+            return ApiResponse.error("批量删除评价失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取商品评价统计
+     */
+    @Operation(summary = "获取商品评价统计", description = "评价总数、平均评分、各星级数量和好评率，只读取商品的一行数据")
+    @GetMapping("/product/{productId}/statistics")
+    public ApiResponse<Map<String, Object>> getReviewStatistics(
+            @Parameter(description = "商品ID", required = true) @PathVariable Integer productId) {
+        try {
+            Map<String, Object> statistics = productReviewService.getReviewStatistics(productId);
+            return ApiResponse.success(statistics);
+        } catch (Exception e) {
+            log.error("获取商品评价统计失败，商品ID: {}", productId, e);
+            return ApiResponse.error("获取商品评价统计失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 点赞评价
+     */
+    @Operation(summary = "点赞评价", description = "点赞数先在内存中累加，定时批量写入数据库")
+    @PostMapping("/{id}/like")
+    public ApiResponse<Void> likeReview(
+            @Parameter(description = "评价ID", required = true) @PathVariable Integer id) {
+        productReviewService.likeReview(id);
+        return ApiResponse.success();
+    }
+}
@@ -2,10 +2,12 @@ package com.mall.admin.controller;
 
 import com.mall.admin.common.ApiResponse;
 import com.mall.admin.common.PageResult;
+import com.mall.admin.common.annotation.RequireAuth;
 import com.mall.admin.dto.UserRegisterRequest;
 import com.mall.admin.dto.UserRegisterResponse;
 import com.mall.admin.dto.request.UserRequest;
 import com.mall.admin.dto.response.UserResponse;
+import com.mall.admin.service.IAuthService;
 import com.mall.admin.service.IUserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,6 +35,7 @@ import java.util.Map;
 public class UserController {
 
     private final IUserService userService;
+    private final IAuthService authService;
 
     /**
      * 获取用户列表（分页）
@@ -47,11 +50,15 @@ public class UserController {
             @Parameter(description = "搜索关键词（用户名、手机号、邮箱）")
             @RequestParam(required = false) String keyword,
             @Parameter(description = "用户状态：0禁用，1正常")
-            @RequestParam(required = false) Integer status) {
+            @RequestParam(required = false) Integer status,
+            @Parameter(description = "分页游标，传入时按游标翻页并忽略页码，传空字符串获取第一页")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "是否精确统计总数，默认使用短时缓存的总数")
+            @RequestParam(defaultValue = "false") Boolean exactTotal) {
         
-        log.info("获取用户列表，页码: {}, 大小: {}, 关键词: {}, 状态: {}", page, size, keyword, status);
+        log.info("获取用户列表，页码: {}, 大小: {}, 关键词: {}, 状态: {}, 游标: {}", page, size, keyword, status, after);
         
-        PageResult<UserResponse> result = userService.getUserList(page, size, keyword, status);
+        PageResult<UserResponse> result = userService.getUserList(page, size, keyword, status, after, exactTotal);
         return ApiResponse.success(result);
     }
     
@@ -143,6 +150,41 @@ public class UserController {
         return ApiResponse.success();
     }
     
+    /**
+     * 锁定用户账户
+     */
+    @Operation(summary = "锁定用户账户", description = "禁用用户并使其已签发的令牌全部失效")
+    @RequireAuth(admin = true)
+    @PostMapping("/{id}/lock")
+    public ApiResponse<Void> lockAccount(
+            @Parameter(description = "用户ID", required = true)
+            @PathVariable Integer id,
+            @Parameter(description = "锁定信息")
+            @RequestBody(required = false) Map<String, String> request) {
+        
+        String reason = request != null ? request.get("reason") : null;
+        log.info("锁定用户账户，用户ID: {}, 原因: {}", id, reason);
+        
+        authService.lockAccount(id, reason);
+        return ApiResponse.success();
+    }
+    
+    /**
+     * 解锁用户账户
+     */
+    @Operation(summary = "解锁用户账户", description = "恢复被锁定的用户账户")
+    @RequireAuth(admin = true)
+    @PostMapping("/{id}/unlock")
+    public ApiResponse<Void> unlockAccount(
+            @Parameter(description = "用户ID", required = true)
+            @PathVariable Integer id) {
+        
+        log.info("解锁用户账户，用户ID: {}", id);
+        
+        authService.unlockAccount(id);
+        return ApiResponse.success();
+    }
+    
     /**
      * 批量更新用户状态
      */
@@ -31,6 +31,12 @@ public class PageQuery {
     @Schema(description = "排序方向", example = "asc")
     private String orderDirection = "desc";
     
+    @Schema(description = "分页游标，传入时按游标翻页并忽略页码，传空字符串获取第一页")
+    private String after;
+    
+    @Schema(description = "是否精确统计总数，默认使用短时缓存或估算的总数")
+    private Boolean exactTotal = false;
+    
     // 兼容前端传递的参数名
     @Schema(hidden = true)
     public void setPage(Integer page) {
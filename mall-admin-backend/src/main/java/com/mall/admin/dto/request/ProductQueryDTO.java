@@ -45,6 +45,12 @@ public class ProductQueryDTO extends PageQuery {
     @Schema(description = "商品品牌")
     private String brand;
     
+    @Schema(description = "材质")
+    private String material;
+    
+    @Schema(description = "颜色")
+    private String color;
+    
     @Schema(description = "商品标签")
     private String tags;
     
@@ -0,0 +1,43 @@
+package com.mall.admin.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量操作结果响应DTO
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Data
+@Schema(description = "批量操作结果响应DTO")
+public class BatchOperationResponse {
+
+    @Schema(description = "处理成功的ID列表")
+    private List<Integer> updatedIds = new ArrayList<>();
+
+    @Schema(description = "被拒绝的ID及原因")
+    private Map<Integer, String> rejected = new LinkedHashMap<>();
+
+    @Schema(description = "成功数量")
+    public int getUpdatedCount() {
+        return updatedIds.size();
+    }
+
+    @Schema(description = "拒绝数量")
+    public int getRejectedCount() {
+        return rejected.size();
+    }
+
+    /**
+     * 记录被拒绝的ID
+     */
+    public void reject(Integer id, String reason) {
+        rejected.put(id, reason);
+    }
+}
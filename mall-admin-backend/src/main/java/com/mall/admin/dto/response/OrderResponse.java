@@ -182,6 +182,11 @@ public class OrderResponse {
      */
     private List<OrderItemResponse> orderItems;
     
+    /**
+     * 订单项数量
+     */
+    private Integer itemCount;
+    
     /**
      * 创建时间
      */
@@ -440,6 +445,14 @@ public class OrderResponse {
         this.orderItems = orderItems;
     }
     
+    public Integer getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+    
     public LocalDateTime getCreateTime() {
         return createTime;
     }
@@ -0,0 +1,25 @@
+package com.mall.admin.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索联想词响应DTO
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "搜索联想词响应DTO")
+public class SearchSuggestionResponse {
+
+    @Schema(description = "联想词")
+    private String text;
+
+    @Schema(description = "类型：product商品名称，brand品牌，category分类")
+    private String type;
+}
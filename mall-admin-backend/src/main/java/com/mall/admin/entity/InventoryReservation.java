@@ -0,0 +1,60 @@
+package com.mall.admin.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存预占实体类
+ * 下单时按订单商品预占库存，支付后转为已确认，取消或支付超时后释放并归还库存
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Data
+@TableName("inventory_reservations")
+@Schema(description = "库存预占实体")
+public class InventoryReservation {
+    
+    /**
+     * 预占中
+     */
+    public static final Integer STATUS_RESERVED = 1;
+    
+    /**
+     * 已释放
+     */
+    public static final Integer STATUS_RELEASED = 2;
+    
+    /**
+     * 已确认（订单已支付）
+     */
+    public static final Integer STATUS_CONFIRMED = 3;
+    
+    @TableId(value = "reservation_id", type = IdType.AUTO)
+    @Schema(description = "预占ID")
+    private Long reservationId;
+    
+    @Schema(description = "订单ID")
+    private Integer orderId;
+    
+    @Schema(description = "商品ID")
+    private Integer productId;
+    
+    @Schema(description = "预占数量")
+    private Integer quantity;
+    
+    @Schema(description = "状态：1预占中，2已释放，3已确认")
+    private Integer status;
+    
+    @Schema(description = "预占过期时间（支付截止时间）")
+    private LocalDateTime expireTime;
+    
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+    
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+}
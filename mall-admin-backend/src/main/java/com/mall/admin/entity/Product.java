@@ -76,6 +76,26 @@ public class Product {
     @Schema(description = "评价数量")
     private Integer ratingCount;
     
+    @TableField("rating_1_count")
+    @Schema(description = "1星评价数量")
+    private Integer rating1Count;
+    
+    @TableField("rating_2_count")
+    @Schema(description = "2星评价数量")
+    private Integer rating2Count;
+    
+    @TableField("rating_3_count")
+    @Schema(description = "3星评价数量")
+    private Integer rating3Count;
+    
+    @TableField("rating_4_count")
+    @Schema(description = "4星评价数量")
+    private Integer rating4Count;
+    
+    @TableField("rating_5_count")
+    @Schema(description = "5星评价数量")
+    private Integer rating5Count;
+    
     @Schema(description = "是否热门：0否，1是")
     private Integer isHot;
     
@@ -0,0 +1,45 @@
+package com.mall.admin.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每日销售汇总实体类
+ * 按下单日期汇总，category_id为0的行是当日全部订单的汇总
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Data
+@TableName("sales_daily_rollup")
+@Schema(description = "每日销售汇总实体")
+public class SalesDailyRollup {
+    
+    /**
+     * 全部分类汇总行的分类ID
+     */
+    public static final Integer ALL_CATEGORIES = 0;
+    
+    @Schema(description = "统计日期")
+    private LocalDate statDate;
+    
+    @Schema(description = "分类ID，0表示全部")
+    private Integer categoryId;
+    
+    @Schema(description = "订单数量")
+    private Long orderCount;
+    
+    @Schema(description = "销售额（已完成订单实付金额）")
+    private BigDecimal salesAmount;
+    
+    @Schema(description = "商品件数")
+    private Long itemQuantity;
+    
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,55 @@
+package com.mall.admin.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 令牌吊销记录实体类
+ * 按令牌吊销时记录令牌摘要；按用户吊销时记录吊销后的令牌版本，低于该版本的令牌全部失效
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Data
+@TableName("token_revocations")
+@Schema(description = "令牌吊销记录实体")
+public class TokenRevocation {
+    
+    /**
+     * 吊销单个令牌
+     */
+    public static final Integer TYPE_TOKEN = 1;
+    
+    /**
+     * 吊销用户此前签发的全部令牌
+     */
+    public static final Integer TYPE_USER = 2;
+    
+    @TableId(value = "revocation_id", type = IdType.AUTO)
+    @Schema(description = "吊销记录ID")
+    private Long revocationId;
+    
+    @Schema(description = "吊销类型：1单个令牌，2用户全部令牌")
+    private Integer revokeType;
+    
+    @Schema(description = "令牌SHA-256摘要（Base64），按用户吊销时为空")
+    private String tokenDigest;
+    
+    @Schema(description = "用户ID")
+    private Integer userId;
+    
+    @Schema(description = "按用户吊销后的令牌版本，低于该版本的令牌失效；按令牌吊销时为空")
+    private Integer tokenVersion;
+    
+    @Schema(description = "吊销时间")
+    private LocalDateTime revokeTime;
+    
+    @Schema(description = "记录失效时间，此后相关令牌均已自然过期")
+    private LocalDateTime expireTime;
+    
+    @Schema(description = "吊销原因")
+    private String reason;
+}
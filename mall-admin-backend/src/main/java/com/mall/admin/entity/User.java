@@ -61,5 +61,10 @@ public class User {
     @Schema(description = "用户状态：0禁用，1正常")
     private Integer status;
     
+    @Schema(description = "令牌版本，吊销用户全部令牌时递增")
+    // 只由incrementTokenVersion原子递增，updateById不回写读到的旧版本
+    @TableField(value = "token_version", updateStrategy = FieldStrategy.NEVER)
+    private Integer tokenVersion;
+    
 
 }
\ No newline at end of file
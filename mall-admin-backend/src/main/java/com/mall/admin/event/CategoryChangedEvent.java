@@ -0,0 +1,23 @@
+package com.mall.admin.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 分类变更事件
+ * 分类新增、修改、删除或状态变更后发布，用于刷新分类缓存
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+    
+    /**
+     * 发生变更的分类ID列表
+     */
+    private final List<Integer> categoryIds;
+}
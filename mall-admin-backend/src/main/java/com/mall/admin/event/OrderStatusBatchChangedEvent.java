@@ -0,0 +1,24 @@
+package com.mall.admin.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 订单状态批量变更事件
+ * 批量更新订单状态后整批发布一次，监听方可以对整批订单一次读取和写入派生数据；
+ * 库存预占已由发布方整批释放或确认
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderStatusBatchChangedEvent {
+    
+    /**
+     * 各订单的状态变更
+     */
+    private final List<OrderStatusChangedEvent> changes;
+}
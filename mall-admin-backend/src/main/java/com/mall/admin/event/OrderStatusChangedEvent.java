@@ -0,0 +1,44 @@
+package com.mall.admin.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单状态变更事件
+ * 订单状态发生变化后发布，用于维护销售汇总、库存预占等派生数据
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderStatusChangedEvent {
+    
+    /**
+     * 订单ID
+     */
+    private final Integer orderId;
+    
+    /**
+     * 下单时间
+     */
+    private final LocalDateTime createTime;
+    
+    /**
+     * 原状态
+     */
+    private final Integer oldStatus;
+    
+    /**
+     * 新状态
+     */
+    private final Integer newStatus;
+    
+    /**
+     * 实付金额
+     */
+    private final BigDecimal actualAmount;
+}
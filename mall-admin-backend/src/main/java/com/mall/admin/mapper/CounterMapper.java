@@ -0,0 +1,39 @@
+package com.mall.admin.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
+
+/**
+ * 计数器数据访问层接口
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Mapper
+public interface CounterMapper {
+    
+    /**
+     * 一条语句给多行的计数列加上各自的增量
+     * 表名和列名直接拼接，只能传入{@link com.mall.admin.common.CounterType}中定义的常量
+     *
+     * @param tableName 表名
+     * @param idColumn 主键列
+     * @param countColumn 计数列
+     * @param deltas 主键及增量，调用方需控制单次数量
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE ${tableName} SET ${countColumn} = COALESCE(${countColumn}, 0) + CASE ${idColumn} " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "ELSE 0 END " +
+            "WHERE ${idColumn} IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int batchIncrement(@Param("tableName") String tableName,
+                       @Param("idColumn") String idColumn,
+                       @Param("countColumn") String countColumn,
+                       @Param("deltas") Map<Integer, Long> deltas);
+}
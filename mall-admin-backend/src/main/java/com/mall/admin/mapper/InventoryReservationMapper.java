@@ -0,0 +1,82 @@
+package com.mall.admin.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.mall.admin.entity.InventoryReservation;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存预占数据访问层接口
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Mapper
+public interface InventoryReservationMapper extends BaseMapper<InventoryReservation> {
+    
+    /**
+     * 多行插入库存预占记录
+     *
+     * @param reservations 预占记录列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO inventory_reservations (order_id, product_id, quantity, status, expire_time, create_time, update_time) " +
+            "VALUES " +
+            "<foreach collection='reservations' item='r' separator=','>" +
+            "(#{r.orderId}, #{r.productId}, #{r.quantity}, #{r.status}, #{r.expireTime}, #{r.createTime}, #{r.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("reservations") List<InventoryReservation> reservations);
+    
+    /**
+     * 锁定多个订单下指定状态的预占记录，按商品ID排序（须在事务内调用）
+     *
+     * @param orderIds 订单ID列表，调用方需控制单次数量
+     * @param status 预占状态
+     * @return 预占记录
+     */
+    @Select("<script>" +
+            "SELECT * FROM inventory_reservations WHERE status = #{status} AND order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "ORDER BY product_id, order_id FOR UPDATE" +
+            "</script>")
+    List<InventoryReservation> selectByOrderIdsForUpdate(@Param("orderIds") Collection<Integer> orderIds,
+                                                         @Param("status") Integer status);
+    
+    /**
+     * 更新多个订单下指定状态的预占记录
+     *
+     * @param orderIds 订单ID列表，调用方需控制单次数量
+     * @param fromStatus 原状态
+     * @param toStatus 新状态
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE inventory_reservations SET status = #{toStatus}, update_time = NOW() " +
+            "WHERE status = #{fromStatus} AND order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int updateStatusByOrderIds(@Param("orderIds") Collection<Integer> orderIds,
+                               @Param("fromStatus") Integer fromStatus,
+                               @Param("toStatus") Integer toStatus);
+    
+    /**
+     * 查询预占已过期的订单ID
+     *
+     * @param now 当前时间
+     * @param limit 最大数量
+     * @return 订单ID列表
+     */
+    @Select("SELECT DISTINCT order_id FROM inventory_reservations " +
+            "WHERE status = 1 AND expire_time < #{now} " +
+            "LIMIT #{limit}")
+    List<Integer> selectExpiredOrderIds(@Param("now") LocalDateTime now, @Param("limit") Integer limit);
+}
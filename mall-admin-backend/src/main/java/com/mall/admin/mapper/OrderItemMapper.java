@@ -2,11 +2,13 @@ package com.mall.admin.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.mall.admin.entity.OrderItem;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +21,22 @@ import java.util.Map;
 @Mapper
 public interface OrderItemMapper extends BaseMapper<OrderItem> {
     
+    /**
+     * 多行插入订单商品，一条语句写入全部明细
+     *
+     * @param items 订单商品列表，调用方需控制单次数量
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO order_items (order_id, product_id, product_name, product_image, product_price, quantity, total_price, create_time) " +
+            "VALUES " +
+            "<foreach collection='items' item='item' separator=','>" +
+            "(#{item.orderId}, #{item.productId}, #{item.productName}, #{item.productImage}, " +
+            "#{item.productPrice}, #{item.quantity}, #{item.totalPrice}, #{item.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("items") List<OrderItem> items);
+    
     /**
      * 根据订单ID获取订单商品列表
      *
@@ -95,16 +113,18 @@ public interface OrderItemMapper extends BaseMapper<OrderItem> {
     
     /**
      * 获取用户购买的商品列表（用于推荐）
+     * 包含已收货和已完成的订单，按最近一次购买时间倒序
      *
      * @param userId 用户ID
      * @param limit 限制数量
      * @return 商品ID列表
      */
-    @Select("SELECT DISTINCT oi.product_id " +
+    @Select("SELECT oi.product_id " +
             "FROM order_items oi " +
             "INNER JOIN orders o ON oi.order_id = o.order_id " +
-            "WHERE o.user_id = #{userId} AND o.order_status = 4 " +
-            "ORDER BY oi.create_time DESC " +
+            "WHERE o.user_id = #{userId} AND o.order_status IN (4, 5) " +
+            "GROUP BY oi.product_id " +
+            "ORDER BY MAX(o.create_time) DESC " +
             "LIMIT #{limit}")
     List<Integer> getUserPurchasedProducts(@Param("userId") Integer userId, @Param("limit") Integer limit);
     
@@ -117,6 +137,46 @@ public interface OrderItemMapper extends BaseMapper<OrderItem> {
     @Select("SELECT COUNT(*) FROM order_items WHERE order_id = #{orderId}")
     Long countByOrderId(@Param("orderId") Integer orderId);
     
+    /**
+     * 批量统计订单商品数量
+     *
+     * @param orderIds 订单ID列表
+     * @return 每个订单的商品数量（orderId, itemCount）
+     */
+    @Select("<script>" +
+            "SELECT order_id AS orderId, COUNT(*) AS itemCount FROM order_items " +
+            "WHERE order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY order_id" +
+            "</script>")
+    List<Map<String, Object>> countByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+    
+    /**
+     * 批量获取订单中的商品ID
+     *
+     * @param orderIds 订单ID列表
+     * @return 只包含订单ID和商品ID的订单商品
+     */
+    @Select("<script>" +
+            "SELECT order_id, product_id FROM order_items " +
+            "WHERE order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<OrderItem> selectProductIdsByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+    
+    /**
+     * 批量获取订单商品的小计金额
+     *
+     * @param orderIds 订单ID列表
+     * @return 只包含订单ID、商品ID和小计金额的订单商品
+     */
+    @Select("<script>" +
+            "SELECT order_id, product_id, total_price FROM order_items " +
+            "WHERE order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<OrderItem> selectAmountsByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+    
     /**
      * 获取待评价的订单商品
      *
@@ -2,10 +2,17 @@ package com.mall.admin.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.mall.admin.entity.Order;
+import com.mall.admin.entity.SalesDailyRollup;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface OrderMapper extends BaseMapper<Order> {
@@ -19,7 +26,7 @@ public interface OrderMapper extends BaseMapper<Order> {
     /**
      * 获取今日订单数
      */
-    @Select("SELECT COUNT(*) FROM orders WHERE DATE(create_time) = CURDATE()")
+    @Select("SELECT COUNT(*) FROM orders WHERE create_time >= CURDATE() AND create_time < CURDATE() + INTERVAL 1 DAY")
     Long selectTodayOrders();
     
     /**
@@ -31,6 +38,160 @@ public interface OrderMapper extends BaseMapper<Order> {
     /**
      * 获取今日销售额
      */
-    @Select("SELECT COALESCE(SUM(actual_amount), 0) FROM orders WHERE order_status = 5 AND DATE(create_time) = CURDATE()")
+    @Select("SELECT COALESCE(SUM(actual_amount), 0) FROM orders WHERE order_status = 5 " +
+            "AND create_time >= CURDATE() AND create_time < CURDATE() + INTERVAL 1 DAY")
     BigDecimal selectTodaySales();
-}
\ No newline at end of file
+    
+    /**
+     * 汇总时间区间内有效订单（非取消）的订单数和销售额
+     *
+     * @param start 开始时间（包含），为null时不限制
+     * @param end 结束时间（不包含），为null时不限制
+     * @return orderCount, totalSales
+     */
+    @Select("<script>" +
+            "SELECT COUNT(*) AS orderCount, COALESCE(SUM(actual_amount), 0) AS totalSales FROM orders " +
+            "WHERE order_status != 6 " +
+            "<if test=\"start != null\">AND create_time &gt;= #{start} </if>" +
+            "<if test=\"end != null\">AND create_time &lt; #{end} </if>" +
+            "</script>")
+    Map<String, Object> selectSalesSummary(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    /**
+     * 按维度分组汇总时间区间内有效订单（非取消）的订单数和销售额
+     *
+     * @param start 开始时间（包含），为null时不限制
+     * @param end 结束时间（不包含），为null时不限制
+     * @param groupBy 分组维度：day、week、month、status
+     * @return 每组的period, orderCount, totalSales
+     */
+    @Select("<script>" +
+            "SELECT " +
+            "<choose>" +
+            "<when test=\"groupBy == 'day'\">DATE_FORMAT(create_time, '%Y-%m-%d')</when>" +
+            "<when test=\"groupBy == 'week'\">DATE_FORMAT(create_time, '%x-W%v')</when>" +
+            "<when test=\"groupBy == 'month'\">DATE_FORMAT(create_time, '%Y-%m')</when>" +
+            "<otherwise>CAST(order_status AS CHAR)</otherwise>" +
+            "</choose> AS period, " +
+            "COUNT(*) AS orderCount, COALESCE(SUM(actual_amount), 0) AS totalSales FROM orders " +
+            "WHERE order_status != 6 " +
+            "<if test=\"start != null\">AND create_time &gt;= #{start} </if>" +
+            "<if test=\"end != null\">AND create_time &lt; #{end} </if>" +
+            "GROUP BY period ORDER BY period" +
+            "</script>")
+    List<Map<String, Object>> selectSalesGroupBy(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                 @Param("groupBy") String groupBy);
+    
+    /**
+     * 一次查询统计订单总数、各状态订单数和今日订单数
+     *
+     * @param todayStart 今日零点
+     * @return totalOrders, status1Count..status6Count, todayOrders
+     */
+    @Select("SELECT COUNT(*) AS totalOrders, " +
+            "SUM(CASE WHEN order_status = 1 THEN 1 ELSE 0 END) AS status1Count, " +
+            "SUM(CASE WHEN order_status = 2 THEN 1 ELSE 0 END) AS status2Count, " +
+            "SUM(CASE WHEN order_status = 3 THEN 1 ELSE 0 END) AS status3Count, " +
+            "SUM(CASE WHEN order_status = 4 THEN 1 ELSE 0 END) AS status4Count, " +
+            "SUM(CASE WHEN order_status = 5 THEN 1 ELSE 0 END) AS status5Count, " +
+            "SUM(CASE WHEN order_status = 6 THEN 1 ELSE 0 END) AS status6Count, " +
+            "SUM(CASE WHEN create_time >= #{todayStart} THEN 1 ELSE 0 END) AS todayOrders " +
+            "FROM orders")
+    Map<String, Object> selectOrderStatistics(@Param("todayStart") LocalDateTime todayStart);
+    
+    /**
+     * 获取最早的下单时间
+     */
+    @Select("SELECT MIN(create_time) FROM orders")
+    LocalDateTime selectMinCreateTime();
+    
+    /**
+     * 按下单日期汇总订单数和销售额（已完成订单实付金额）
+     *
+     * @param start 开始时间（包含）
+     * @param end 结束时间（不包含）
+     * @return 每日汇总，分类ID固定为0
+     */
+    @Select("SELECT DATE(create_time) AS stat_date, 0 AS category_id, COUNT(*) AS order_count, " +
+            "COALESCE(SUM(CASE WHEN order_status = 5 THEN actual_amount ELSE 0 END), 0) AS sales_amount " +
+            "FROM orders " +
+            "WHERE create_time >= #{start} AND create_time < #{end} " +
+            "GROUP BY DATE(create_time)")
+    List<SalesDailyRollup> selectDailySummary(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    /**
+     * 按下单日期和商品分类汇总订单数、销售额和商品件数
+     *
+     * @param start 开始时间（包含）
+     * @param end 结束时间（不包含）
+     * @return 每日各分类汇总
+     */
+    @Select("SELECT DATE(o.create_time) AS stat_date, p.category_id, COUNT(DISTINCT o.order_id) AS order_count, " +
+            "COALESCE(SUM(CASE WHEN o.order_status = 5 THEN oi.total_price ELSE 0 END), 0) AS sales_amount, " +
+            "COALESCE(SUM(oi.quantity), 0) AS item_quantity " +
+            "FROM orders o " +
+            "INNER JOIN order_items oi ON oi.order_id = o.order_id " +
+            "INNER JOIN products p ON p.product_id = oi.product_id " +
+            "WHERE o.create_time >= #{start} AND o.create_time < #{end} " +
+            "GROUP BY DATE(o.create_time), p.category_id")
+    List<SalesDailyRollup> selectCategorySummary(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    /**
+     * 批量锁定订单并读取状态变更所需字段（须在事务内调用）
+     *
+     * @param orderIds 订单ID集合
+     * @return 订单ID、状态、下单时间和实付金额
+     */
+    @Select("<script>" +
+            "SELECT order_id, order_status, create_time, actual_amount FROM orders " +
+            "WHERE order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "FOR UPDATE" +
+            "</script>")
+    List<Order> selectStatusForUpdate(@Param("orderIds") Collection<Integer> orderIds);
+    
+    /**
+     * 按主键顺序分批读取指定状态的订单ID
+     *
+     * @param statuses 订单状态
+     * @param afterId 上一批最后一个订单ID，从0开始
+     * @param limit 每批数量
+     * @return 订单ID，升序
+     */
+    @Select("<script>" +
+            "SELECT order_id FROM orders WHERE order_id &gt; #{afterId} AND order_status IN " +
+            "<foreach collection='statuses' item='s' open='(' separator=',' close=')'>#{s}</foreach> " +
+            "ORDER BY order_id LIMIT #{limit}" +
+            "</script>")
+    List<Integer> selectIdsByStatusAfter(@Param("statuses") Collection<Integer> statuses,
+                                         @Param("afterId") Integer afterId,
+                                         @Param("limit") Integer limit);
+    
+    /**
+     * 批量更新订单状态，只更新当前状态在允许范围内的订单，并写入对应的节点时间
+     *
+     * @param orderIds 订单ID集合
+     * @param fromStatuses 允许的原状态
+     * @param status 新状态
+     * @param now 当前时间
+     * @return 更新记录数
+     */
+    @Update("<script>" +
+            "UPDATE orders SET order_status = #{status}" +
+            "<choose>" +
+            "<when test=\"status == 2\">, payment_status = 1, payment_time = #{now}</when>" +
+            "<when test=\"status == 3\">, ship_time = #{now}</when>" +
+            "<when test=\"status == 4\">, receive_time = #{now}</when>" +
+            "<when test=\"status == 5\">, finish_time = #{now}</when>" +
+            "<when test=\"status == 6\">, cancel_time = #{now}</when>" +
+            "</choose> " +
+            "WHERE order_id IN " +
+            "<foreach collection='orderIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND order_status IN " +
+            "<foreach collection='fromStatuses' item='s' open='(' separator=',' close=')'>#{s}</foreach>" +
+            "</script>")
+    int batchUpdateStatus(@Param("orderIds") Collection<Integer> orderIds,
+                          @Param("fromStatuses") Collection<Integer> fromStatuses,
+                          @Param("status") Integer status,
+                          @Param("now") LocalDateTime now);
+}
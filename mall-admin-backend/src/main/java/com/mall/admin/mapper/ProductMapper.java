@@ -3,9 +3,13 @@ package com.mall.admin.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.mall.admin.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Mapper
 public interface ProductMapper extends BaseMapper<Product> {
     
@@ -21,6 +25,68 @@ public interface ProductMapper extends BaseMapper<Product> {
     @Update("UPDATE products SET stock_quantity = stock_quantity - #{quantity} WHERE product_id = #{productId} AND stock_quantity >= #{quantity}")
     int updateStock(Integer productId, Integer quantity);
     
+    /**
+     * 归还商品库存
+     */
+    @Update("UPDATE products SET stock_quantity = stock_quantity + #{quantity} WHERE product_id = #{productId}")
+    int restoreStock(@Param("productId") Integer productId, @Param("quantity") Integer quantity);
+    
+    /**
+     * 按差值调整商品库存（正数增加，负数减少）
+     */
+    @Update("UPDATE products SET stock_quantity = stock_quantity + #{delta} WHERE product_id = #{productId}")
+    int adjustStock(@Param("productId") Integer productId, @Param("delta") Integer delta);
+    
+    /**
+     * 查询商品当前库存
+     */
+    @Select("SELECT stock_quantity FROM products WHERE product_id = #{productId}")
+    Integer selectStockQuantity(@Param("productId") Integer productId);
+    
+    /**
+     * 查询当前处于促销期内的上架商品ID
+     */
+    @Select("SELECT product_id FROM products WHERE is_promotion = 1 AND status = 1 " +
+            "AND (promotion_start_time IS NULL OR promotion_start_time <= #{now}) " +
+            "AND (promotion_end_time IS NULL OR promotion_end_time > #{now})")
+    List<Integer> selectActivePromotionIds(@Param("now") LocalDateTime now);
+    
+    /**
+     * 按主键顺序分批读取搜索索引需要的字段
+     */
+    @Select("SELECT product_id, product_name, product_code, category_id, brand, description, material, color, " +
+            "current_price, sales_count, is_hot, is_new, status " +
+            "FROM products WHERE product_id > #{afterId} ORDER BY product_id LIMIT #{limit}")
+    List<Product> selectSearchFieldsAfter(@Param("afterId") Integer afterId, @Param("limit") int limit);
+    
+    /**
+     * 按主键顺序分批读取排行榜需要的字段
+     */
+    @Select("SELECT product_id, category_id, is_hot, sales_count, rating_average, status " +
+            "FROM products WHERE product_id > #{afterId} ORDER BY product_id LIMIT #{limit}")
+    List<Product> selectRankingFieldsAfter(@Param("afterId") Integer afterId, @Param("limit") int limit);
+    
+    /**
+     * 按评分调整评价分布，同时重算评价数量和平均评分
+     * MySQL单表UPDATE按书写顺序赋值，后面的表达式读取的是前面已更新的值
+     *
+     * @param productId 商品ID
+     * @param rating 评分，1-5
+     * @param delta 新增评价为1，删除评价为-1
+     * @return 更新行数
+     */
+    @Update("UPDATE products SET " +
+            "rating_1_count = rating_1_count + CASE WHEN #{rating} = 1 THEN #{delta} ELSE 0 END, " +
+            "rating_2_count = rating_2_count + CASE WHEN #{rating} = 2 THEN #{delta} ELSE 0 END, " +
+            "rating_3_count = rating_3_count + CASE WHEN #{rating} = 3 THEN #{delta} ELSE 0 END, " +
+            "rating_4_count = rating_4_count + CASE WHEN #{rating} = 4 THEN #{delta} ELSE 0 END, " +
+            "rating_5_count = rating_5_count + CASE WHEN #{rating} = 5 THEN #{delta} ELSE 0 END, " +
+            "rating_count = rating_1_count + rating_2_count + rating_3_count + rating_4_count + rating_5_count, " +
+            "rating_average = CASE WHEN rating_count = 0 THEN 0 ELSE ROUND((rating_1_count + 2 * rating_2_count " +
+            "+ 3 * rating_3_count + 4 * rating_4_count + 5 * rating_5_count) / rating_count, 2) END " +
+            "WHERE product_id = #{productId}")
+    int addRating(@Param("productId") Integer productId, @Param("rating") Integer rating, @Param("delta") Integer delta);
+    
     /**
      * 根据商品编码查找商品
      */
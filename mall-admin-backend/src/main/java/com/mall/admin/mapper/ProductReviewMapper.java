@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -120,6 +121,28 @@ public interface ProductReviewMapper extends BaseMapper<ProductReview> {
     @Select("SELECT * FROM product_reviews WHERE product_id = #{productId} AND rating <= 2 ORDER BY create_time DESC")
     List<ProductReview> selectBadReviewsByProductId(@Param("productId") Integer productId);
     
+    /**
+     * 加锁读取未删除的评价，修改或删除评价时使用，使并发的修改和删除按读到的评分依次调整评价分布
+     *
+     * @param reviewId 评价ID
+     * @return 评价，不存在或已删除时为null
+     */
+    @Select("SELECT * FROM product_reviews WHERE review_id = #{reviewId} AND deleted = 0 FOR UPDATE")
+    ProductReview selectByIdForUpdate(@Param("reviewId") Integer reviewId);
+    
+    /**
+     * 按评价ID升序加锁读取多个未删除的评价，批量删除时使用
+     *
+     * @param reviewIds 评价ID列表
+     * @return 评价列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM product_reviews WHERE deleted = 0 AND review_id IN " +
+            "<foreach collection='reviewIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "ORDER BY review_id FOR UPDATE" +
+            "</script>")
+    List<ProductReview> selectByIdsForUpdate(@Param("reviewIds") Collection<Integer> reviewIds);
+    
     /**
      * 更新评价点赞数
      *
@@ -0,0 +1,117 @@
+package com.mall.admin.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.mall.admin.entity.SalesDailyRollup;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 每日销售汇总数据访问层接口
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Mapper
+public interface SalesDailyRollupMapper extends BaseMapper<SalesDailyRollup> {
+    
+    /**
+     * 获取最后一个已汇总的日期
+     *
+     * @return 最后汇总日期，没有汇总数据时返回null
+     */
+    @Select("SELECT MAX(stat_date) FROM sales_daily_rollup WHERE category_id = 0")
+    LocalDate selectLastStatDate();
+    
+    /**
+     * 写入或覆盖一行汇总数据
+     *
+     * @param rollup 汇总数据
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO sales_daily_rollup (stat_date, category_id, order_count, sales_amount, item_quantity, update_time) " +
+            "VALUES (#{statDate}, #{categoryId}, #{orderCount}, #{salesAmount}, #{itemQuantity}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), sales_amount = VALUES(sales_amount), " +
+            "item_quantity = VALUES(item_quantity), update_time = NOW()")
+    int upsert(SalesDailyRollup rollup);
+    
+    /**
+     * 多行写入或覆盖汇总数据
+     *
+     * @param rollups 汇总数据列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO sales_daily_rollup (stat_date, category_id, order_count, sales_amount, item_quantity, update_time) " +
+            "VALUES " +
+            "<foreach collection='rollups' item='r' separator=','>" +
+            "(#{r.statDate}, #{r.categoryId}, #{r.orderCount}, #{r.salesAmount}, #{r.itemQuantity}, NOW())" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), sales_amount = VALUES(sales_amount), " +
+            "item_quantity = VALUES(item_quantity), update_time = NOW()" +
+            "</script>")
+    int upsertBatch(@Param("rollups") List<SalesDailyRollup> rollups);
+    
+    /**
+     * 删除指定日期的全部汇总数据
+     *
+     * @param statDate 统计日期
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM sales_daily_rollup WHERE stat_date = #{statDate}")
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+    
+    /**
+     * 多行增量调整销售额，汇总行不存在时以该增量写入
+     *
+     * @param deltas 各日期、分类的销售额增量（salesAmount可为负数）
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO sales_daily_rollup (stat_date, category_id, order_count, sales_amount, item_quantity, update_time) " +
+            "VALUES " +
+            "<foreach collection='deltas' item='d' separator=','>" +
+            "(#{d.statDate}, #{d.categoryId}, 0, #{d.salesAmount}, 0, NOW())" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE sales_amount = sales_amount + VALUES(sales_amount), update_time = NOW()" +
+            "</script>")
+    int addSalesAmountBatch(@Param("deltas") List<SalesDailyRollup> deltas);
+    
+    /**
+     * 获取日期区间内每天的全部分类汇总
+     *
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含）
+     * @return 每日汇总列表
+     */
+    @Select("SELECT * FROM sales_daily_rollup WHERE category_id = 0 " +
+            "AND stat_date >= #{startDate} AND stat_date <= #{endDate} ORDER BY stat_date ASC")
+    List<SalesDailyRollup> selectDailyTotals(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * 获取截至指定日期的累计汇总
+     *
+     * @param endDate 结束日期（包含）
+     * @return 累计订单数和销售额
+     */
+    @Select("SELECT COALESCE(SUM(order_count), 0) AS order_count, COALESCE(SUM(sales_amount), 0) AS sales_amount, " +
+            "COALESCE(SUM(item_quantity), 0) AS item_quantity " +
+            "FROM sales_daily_rollup WHERE category_id = 0 AND stat_date <= #{endDate}")
+    SalesDailyRollup selectTotals(@Param("endDate") LocalDate endDate);
+    
+    /**
+     * 获取截至指定日期的各分类累计汇总
+     *
+     * @param endDate 结束日期（包含）
+     * @return 各分类累计汇总
+     */
+    @Select("SELECT category_id, COALESCE(SUM(order_count), 0) AS order_count, COALESCE(SUM(sales_amount), 0) AS sales_amount, " +
+            "COALESCE(SUM(item_quantity), 0) AS item_quantity " +
+            "FROM sales_daily_rollup WHERE category_id > 0 AND stat_date <= #{endDate} GROUP BY category_id")
+    List<SalesDailyRollup> selectCategoryTotals(@Param("endDate") LocalDate endDate);
+}
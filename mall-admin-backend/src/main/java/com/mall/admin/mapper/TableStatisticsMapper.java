@@ -0,0 +1,24 @@
+package com.mall.admin.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 表统计信息数据访问层接口
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Mapper
+public interface TableStatisticsMapper {
+    
+    /**
+     * 查询InnoDB统计信息中的估算行数，只读取元数据，不扫描表
+     *
+     * @param tableName 表名
+     * @return 估算行数，表不存在时返回null
+     */
+    @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{tableName}")
+    Long estimateRowCount(@Param("tableName") String tableName);
+}
@@ -0,0 +1,54 @@
+package com.mall.admin.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.mall.admin.entity.TokenRevocation;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 令牌吊销记录数据访问层接口
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Mapper
+public interface TokenRevocationMapper extends BaseMapper<TokenRevocation> {
+    
+    /**
+     * 查询指定ID之后仍然有效的吊销记录，用于增量加载
+     *
+     * @param afterId 起始ID（不包含）
+     * @param now 当前时间
+     * @param limit 最大数量
+     * @return 吊销记录，按ID升序
+     */
+    @Select("SELECT * FROM token_revocations WHERE revocation_id > #{afterId} AND expire_time > #{now} " +
+            "ORDER BY revocation_id LIMIT #{limit}")
+    List<TokenRevocation> selectActiveAfter(@Param("afterId") Long afterId,
+                                            @Param("now") LocalDateTime now,
+                                            @Param("limit") Integer limit);
+    
+    /**
+     * 判断令牌是否已被吊销
+     *
+     * @param tokenDigest 令牌摘要
+     * @param now 当前时间
+     * @return 有效吊销记录数
+     */
+    @Select("SELECT COUNT(*) FROM token_revocations WHERE token_digest = #{tokenDigest} AND expire_time > #{now}")
+    int countActiveByDigest(@Param("tokenDigest") String tokenDigest, @Param("now") LocalDateTime now);
+    
+    /**
+     * 删除已失效的吊销记录
+     *
+     * @param now 当前时间
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM token_revocations WHERE expire_time <= #{now}")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -3,7 +3,13 @@ package com.mall.admin.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.mall.admin.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 用户数据访问层接口
@@ -20,6 +26,22 @@ public interface UserMapper extends BaseMapper<User> {
     @Select("SELECT COUNT(*) FROM users")
     Long selectTotalUsers();
     
+    /**
+     * 一次查询统计用户总数、各状态用户数和新增用户数
+     *
+     * @param todayStart 今日零点
+     * @param monthStart 本月第一天零点
+     * @return totalUsers, activeUsers, disabledUsers, todayNewUsers, monthNewUsers
+     */
+    @Select("SELECT COUNT(*) AS totalUsers, " +
+            "SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END) AS activeUsers, " +
+            "SUM(CASE WHEN status = 0 THEN 1 ELSE 0 END) AS disabledUsers, " +
+            "SUM(CASE WHEN register_time >= #{todayStart} THEN 1 ELSE 0 END) AS todayNewUsers, " +
+            "SUM(CASE WHEN register_time >= #{monthStart} THEN 1 ELSE 0 END) AS monthNewUsers " +
+            "FROM users")
+    Map<String, Object> selectUserStatistics(@Param("todayStart") LocalDateTime todayStart,
+                                             @Param("monthStart") LocalDateTime monthStart);
+    
     /**
      * 根据昵称查找用户
      */
@@ -55,4 +77,41 @@ public interface UserMapper extends BaseMapper<User> {
      */
     @Select("SELECT COUNT(*) > 0 FROM users WHERE phone = #{phone}")
     boolean existsByPhone(String phone);
-}
\ No newline at end of file
+    
+    /**
+     * 批量写入最后登录时间，一条语句更新多个用户
+     * 只前移不后退，避免较早的登录时间覆盖较新的记录
+     *
+     * @param users 只需设置userId和lastLoginTime
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE users SET last_login_time = CASE user_id " +
+            "<foreach collection='users' item='user'>WHEN #{user.userId} THEN #{user.lastLoginTime} </foreach>" +
+            "END " +
+            "WHERE user_id IN " +
+            "<foreach collection='users' item='user' open='(' separator=',' close=')'>#{user.userId}</foreach> " +
+            "AND (last_login_time IS NULL OR last_login_time &lt; CASE user_id " +
+            "<foreach collection='users' item='user'>WHEN #{user.userId} THEN #{user.lastLoginTime} </foreach>" +
+            "END)" +
+            "</script>")
+    int batchUpdateLastLoginTime(@Param("users") List<User> users);
+    
+    /**
+     * 递增用户的令牌版本，此前签发的令牌全部失效
+     *
+     * @param userId 用户ID
+     * @return 影响行数
+     */
+    @Update("UPDATE users SET token_version = token_version + 1 WHERE user_id = #{userId}")
+    int incrementTokenVersion(@Param("userId") Integer userId);
+    
+    /**
+     * 查询用户当前的令牌版本
+     *
+     * @param userId 用户ID
+     * @return 令牌版本，用户不存在时为null
+     */
+    @Select("SELECT token_version FROM users WHERE user_id = #{userId}")
+    Integer selectTokenVersion(@Param("userId") Integer userId);
+}
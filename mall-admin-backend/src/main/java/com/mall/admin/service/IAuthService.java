@@ -6,6 +6,8 @@ import com.mall.admin.dto.request.ChangePasswordRequest;
 import com.mall.admin.dto.response.LoginResponse;
 import com.mall.admin.dto.response.UserResponse;
 
+import java.util.Map;
+
 /**
  * 认证服务接口
  *
@@ -18,9 +20,10 @@ public interface IAuthService {
      * 用户登录
      *
      * @param request 登录请求
+     * @param clientIp 客户端IP，用于按IP统计登录失败次数
      * @return 登录响应
      */
-    LoginResponse login(LoginRequest request);
+    LoginResponse login(LoginRequest request, String clientIp);
     
     /**
      * 用户注册
@@ -61,24 +64,6 @@ public interface IAuthService {
      */
     void resetPassword(String email, String newPassword);
     
-    /**
-     * 发送验证码
-     *
-     * @param email 邮箱
-     * @param type 验证码类型（注册、重置密码等）
-     */
-    void sendVerificationCode(String email, String type);
-    
-    /**
-     * 验证验证码
-     *
-     * @param email 邮箱
-     * @param code 验证码
-     * @param type 验证码类型
-     * @return 验证结果
-     */
-    boolean verifyCode(String email, String code, String type);
-    
     /**
      * 检查用户名是否存在
      *
@@ -119,22 +104,6 @@ public interface IAuthService {
      */
     boolean validateToken(String token);
     
-    /**
-     * 激活用户账户
-     *
-     * @param email 邮箱
-     * @param activationCode 激活码
-     * @return 激活结果
-     */
-    boolean activateAccount(String email, String activationCode);
-    
-    /**
-     * 发送激活邮件
-     *
-     * @param email 邮箱
-     */
-    void sendActivationEmail(String email);
-    
     /**
      * 锁定用户账户
      *
@@ -165,6 +134,14 @@ public interface IAuthService {
      */
     void recordLoginFailure(String username);
     
+    /**
+     * 记录登录失败次数，同时按昵称和客户端IP统计
+     *
+     * @param username 用户名
+     * @param clientIp 客户端IP，为空时只按昵称统计
+     */
+    void recordLoginFailure(String username, String clientIp);
+    
     /**
      * 清除登录失败记录
      *
@@ -179,4 +156,20 @@ public interface IAuthService {
      * @return 失败次数
      */
     int getLoginFailureCount(String username);
-}
\ No newline at end of file
+    
+    /**
+     * 检查昵称或客户端IP在统计窗口内的登录失败次数是否已达上限
+     *
+     * @param username 用户名
+     * @param clientIp 客户端IP，可为空
+     * @return 达到上限返回true，否则返回false
+     */
+    boolean isLoginBlocked(String username, String clientIp);
+    
+    /**
+     * 获取登录失败计数器统计
+     *
+     * @return 按昵称和按IP计数器的跟踪数量及上限
+     */
+    Map<String, Object> getLoginFailureStatistics();
+}
@@ -86,6 +86,14 @@ public interface ICategoryService {
      */
     List<CategoryResponse> getCategoryTree();
     
+    /**
+     * 获取分类名称（从分类缓存读取）
+     *
+     * @param categoryId 分类ID
+     * @return 分类名称，分类不存在时返回null
+     */
+    String getCategoryName(Integer categoryId);
+    
     /**
      * 检查分类名称是否存在
      *
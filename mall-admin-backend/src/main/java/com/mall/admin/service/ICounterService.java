@@ -0,0 +1,44 @@
+package com.mall.admin.service;
+
+import com.mall.admin.common.CounterType;
+
+/**
+ * 计数器服务接口
+ * 浏览量、点赞数等高频计数先在内存中累加，定时批量写入数据库
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface ICounterService {
+    
+    /**
+     * 计数加一
+     *
+     * @param type 计数器类型
+     * @param id 实体ID
+     */
+    void increment(CounterType type, Integer id);
+    
+    /**
+     * 计数加上增量，增量可以为负
+     *
+     * @param type 计数器类型
+     * @param id 实体ID
+     * @param delta 增量
+     */
+    void add(CounterType type, Integer id, long delta);
+    
+    /**
+     * 获取尚未写入数据库的增量，读取计数时加到数据库中的值上
+     *
+     * @param type 计数器类型
+     * @param id 实体ID
+     * @return 增量
+     */
+    long getPending(CounterType type, Integer id);
+    
+    /**
+     * 立即把内存中的增量写入数据库
+     */
+    void flush();
+}
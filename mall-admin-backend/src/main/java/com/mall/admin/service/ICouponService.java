@@ -3,6 +3,7 @@ package com.mall.admin.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.dto.request.CouponRequest;
+import com.mall.admin.dto.response.BatchOperationResponse;
 import com.mall.admin.dto.response.CouponResponse;
 import com.mall.admin.entity.Coupon;
 
@@ -64,8 +65,9 @@ public interface ICouponService extends IService<Coupon> {
      * 批量删除优惠卷
      *
      * @param couponIds 优惠卷ID列表
+     * @return 删除成功和被拒绝的优惠卷ID
      */
-    void deleteCoupons(List<Integer> couponIds);
+    BatchOperationResponse deleteCoupons(List<Integer> couponIds);
     
     /**
      * 更新优惠卷状态
@@ -80,8 +82,9 @@ public interface ICouponService extends IService<Coupon> {
      *
      * @param couponIds 优惠卷ID列表
      * @param status 状态
+     * @return 更新成功和被拒绝的优惠卷ID
      */
-    void updateCouponStatus(List<Integer> couponIds, Integer status);
+    BatchOperationResponse updateCouponStatus(List<Integer> couponIds, Integer status);
     
     /**
      * 获取所有启用的优惠卷
@@ -0,0 +1,84 @@
+package com.mall.admin.service;
+
+import com.mall.admin.entity.OrderItem;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存服务接口
+ * 下单时预占库存，支付后确认，取消或支付超时后释放
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface IInventoryService {
+    
+    /**
+     * 为订单的全部商品预占库存，任一商品库存不足时整体失败
+     *
+     * @param orderId 订单ID
+     * @param items 订单商品列表
+     */
+    void reserveStock(Integer orderId, List<OrderItem> items);
+    
+    /**
+     * 扣减商品库存，促销商品在开启热点库存时使用内存计数
+     *
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @return 库存不足或商品不存在时返回false
+     */
+    boolean deductStock(Integer productId, Integer quantity);
+    
+    /**
+     * 按差值调整使用内存计数的促销商品库存
+     *
+     * @param productId 商品ID
+     * @param delta 库存变化量，正数增加，负数减少
+     * @return 商品未使用内存计数时返回false，由调用方直接更新数据库
+     */
+    boolean adjustHotStock(Integer productId, int delta);
+    
+    /**
+     * 把使用内存计数的促销商品可售库存设置为指定数量，按当前内存中的可售库存计算差值
+     *
+     * @param productId 商品ID
+     * @param quantity 目标库存
+     * @return 商品未使用内存计数时返回false，由调用方直接更新数据库
+     */
+    boolean setHotStock(Integer productId, int quantity);
+    
+    /**
+     * 释放订单的库存预占并归还库存
+     *
+     * @param orderId 订单ID
+     */
+    void releaseReservation(Integer orderId);
+    
+    /**
+     * 释放多个订单的库存预占，各商品合并数量后按商品ID升序归还
+     *
+     * @param orderIds 订单ID列表，调用方需控制单次数量
+     */
+    void releaseReservations(Collection<Integer> orderIds);
+    
+    /**
+     * 确认订单的库存预占（订单已支付，不再因超时释放）
+     *
+     * @param orderId 订单ID
+     */
+    void confirmReservation(Integer orderId);
+    
+    /**
+     * 确认多个订单的库存预占
+     *
+     * @param orderIds 订单ID列表，调用方需控制单次数量
+     */
+    void confirmReservations(Collection<Integer> orderIds);
+    
+    /**
+     * 取消支付超时的订单并释放其库存预占
+     */
+    void releaseExpiredReservations();
+}
@@ -3,6 +3,7 @@ package com.mall.admin.service;
 import com.mall.admin.entity.Order;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.dto.request.OrderRequest;
+import com.mall.admin.dto.response.BatchOperationResponse;
 import com.mall.admin.dto.response.OrderResponse;
 
 import java.util.List;
@@ -24,9 +25,12 @@ public interface IOrderService {
      * @param keyword 搜索关键词
      * @param status 订单状态
      * @param userId 用户ID
+     * @param withItems 是否返回订单项明细，false时只返回订单项数量
+     * @param after 分页游标，不为空时按(创建时间, 订单ID)游标翻页并忽略页码，空字符串表示第一页
+     * @param exactTotal 是否精确统计总数，false时总数取自短时缓存或估算
      * @return 订单列表
      */
-    PageResult<OrderResponse> getOrderList(Integer page, Integer size, String keyword, Integer status, Integer userId);
+    PageResult<OrderResponse> getOrderList(Integer page, Integer size, String keyword, Integer status, Integer userId, Boolean withItems, String after, Boolean exactTotal);
     
     /**
      * 根据ID获取订单详情
@@ -103,17 +107,19 @@ public interface IOrderService {
      * 根据用户ID获取订单列表
      *
      * @param userId 用户ID
+     * @param withItems 是否返回订单项明细，false时只返回订单项数量
      * @return 订单列表
      */
-    List<OrderResponse> getOrdersByUserId(Integer userId);
+    List<OrderResponse> getOrdersByUserId(Integer userId, Boolean withItems);
     
     /**
      * 根据订单状态获取订单列表
      *
      * @param status 订单状态
+     * @param withItems 是否返回订单项明细，false时只返回订单项数量
      * @return 订单列表
      */
-    List<OrderResponse> getOrdersByStatus(Integer status);
+    List<OrderResponse> getOrdersByStatus(Integer status, Boolean withItems);
     
     /**
      * 获取订单统计信息
@@ -127,15 +133,17 @@ public interface IOrderService {
      *
      * @param startDate 开始日期
      * @param endDate 结束日期
+     * @param groupBy 分组维度（day、week、month、status），为空时只返回合计
      * @return 销售统计
      */
-    Map<String, Object> getSalesStatistics(String startDate, String endDate);
+    Map<String, Object> getSalesStatistics(String startDate, String endDate, String groupBy);
     
     /**
-     * 批量更新订单状态
+     * 批量更新订单状态，仅当订单当前状态允许变更为目标状态时才更新
      *
      * @param ids 订单ID列表
      * @param status 新状态
+     * @return 更新成功和被拒绝的订单ID
      */
-    void batchUpdateStatus(List<Integer> ids, Integer status);
+    BatchOperationResponse batchUpdateStatus(List<Integer> ids, Integer status);
 }
\ No newline at end of file
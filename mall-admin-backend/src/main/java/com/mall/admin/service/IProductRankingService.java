@@ -0,0 +1,60 @@
+package com.mall.admin.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品排行榜服务接口
+ * 在内存中按销量维护热门商品排行、按评分和销量维护推荐商品排行，全站和各分类各一份
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface IProductRankingService {
+    
+    /**
+     * 排行榜是否已完成初次加载，未就绪时调用方应回退到数据库查询
+     *
+     * @return 就绪返回true
+     */
+    boolean isReady();
+    
+    /**
+     * 获取热门商品ID：上架且标记为热门的商品，按销量降序
+     *
+     * @param categoryId 分类ID，为空表示全部分类
+     * @param limit 数量
+     * @return 商品ID
+     */
+    List<Integer> getHotProductIds(Integer categoryId, int limit);
+    
+    /**
+     * 获取推荐商品ID：上架商品，按平均评分降序，评分相同按销量降序
+     *
+     * @param categoryId 分类ID，为空表示全部分类
+     * @param limit 数量
+     * @return 商品ID
+     */
+    List<Integer> getRecommendedProductIds(Integer categoryId, int limit);
+    
+    /**
+     * 从数据库重新读取商品并更新排行，已删除的商品从排行中移除
+     * 在事务中调用时于事务提交后执行
+     *
+     * @param productIds 商品ID列表
+     */
+    void refreshProducts(Collection<Integer> productIds);
+    
+    /**
+     * 全量重新加载排行榜
+     */
+    void reload();
+    
+    /**
+     * 获取排行榜统计信息
+     *
+     * @return 商品数、热门商品数、分类数、是否就绪、最近一次加载耗时
+     */
+    Map<String, Object> getStatistics();
+}
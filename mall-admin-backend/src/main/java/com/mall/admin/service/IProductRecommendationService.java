@@ -0,0 +1,51 @@
+package com.mall.admin.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品关联推荐服务接口
+ * 根据已收货和已完成订单中商品的共同购买关系，推荐"购买了该商品的顾客还买了"以及用户个性化推荐
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface IProductRecommendationService {
+    
+    /**
+     * 共现矩阵是否已完成初次构建，未就绪时调用方应使用其他推荐方式
+     *
+     * @return 就绪返回true
+     */
+    boolean isReady();
+    
+    /**
+     * 获取与指定商品经常一起购买的商品ID
+     *
+     * @param productId 商品ID
+     * @param limit 数量
+     * @return 按关联度降序排列的商品ID，不包含该商品本身
+     */
+    List<Integer> getAlsoBoughtProductIds(Integer productId, int limit);
+    
+    /**
+     * 根据用户最近购买过的商品推荐其他商品
+     *
+     * @param userId 用户ID
+     * @param limit 数量
+     * @return 按关联度降序排列的商品ID，不包含用户最近购买过的商品
+     */
+    List<Integer> getPersonalizedProductIds(Integer userId, int limit);
+    
+    /**
+     * 全量重新构建共现矩阵
+     */
+    void rebuild();
+    
+    /**
+     * 获取共现矩阵统计信息
+     *
+     * @return 订单数、商品数、商品对数、是否就绪、最近一次构建耗时
+     */
+    Map<String, Object> getStatistics();
+}
@@ -171,4 +171,11 @@ public interface IProductReviewService {
      * @param ids 评价ID列表
      */
     void batchDeleteReviews(List<Integer> ids);
+    
+    /**
+     * 点赞评价，点赞数先在内存中累加，定时批量写入数据库
+     *
+     * @param id 评价ID
+     */
+    void likeReview(Integer id);
 }
\ No newline at end of file
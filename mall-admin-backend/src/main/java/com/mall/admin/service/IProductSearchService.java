@@ -0,0 +1,94 @@
+package com.mall.admin.service;
+
+import com.mall.admin.common.FacetedPageResult;
+import com.mall.admin.common.PageResult;
+import com.mall.admin.dto.request.ProductQueryDTO;
+import com.mall.admin.dto.response.SearchSuggestionResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品搜索服务接口
+ * 基于内存倒排索引检索商品名称、编码、品牌、材质、颜色和描述，替代LIKE模糊查询；
+ * 基于分面位图索引按分类、品牌、材质、颜色、价格、状态等属性筛选商品并统计分面
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface IProductSearchService {
+    
+    /**
+     * 索引是否已完成初次构建，未就绪时调用方应回退到数据库查询
+     *
+     * @return 就绪返回true
+     */
+    boolean isReady();
+    
+    /**
+     * 按相关度检索商品ID
+     *
+     * @param keyword 关键词
+     * @param onSaleOnly 是否只返回上架商品
+     * @return 按相关度降序排列的商品ID，最多mall.search.max-hits个
+     */
+    List<Integer> searchIds(String keyword, boolean onSaleOnly);
+    
+    /**
+     * 按相关度分页检索商品ID
+     *
+     * @param keyword 关键词
+     * @param onSaleOnly 是否只返回上架商品
+     * @param pageNum 页码
+     * @param pageSize 每页大小
+     * @return 商品ID分页结果
+     */
+    PageResult<Integer> search(String keyword, boolean onSaleOnly, long pageNum, long pageSize);
+    
+    /**
+     * 查询条件是否都能由索引处理，索引未就绪或包含名称模糊、编码、创建时间、库存预警条件时返回false
+     *
+     * @param query 查询参数
+     * @return 可以调用filter时返回true
+     */
+    boolean canFilter(ProductQueryDTO query);
+    
+    /**
+     * 按属性筛选商品，同时统计各属性的分面计数
+     * 某个属性的计数不受该属性自身筛选条件的影响，便于切换取值
+     *
+     * @param query 查询参数
+     * @return 按商品ID排序的分页结果及分面计数，传入游标时按游标翻页并返回nextCursor
+     */
+    FacetedPageResult<Integer> filter(ProductQueryDTO query);
+    
+    /**
+     * 搜索框输入联想，匹配上架商品名称、品牌和分类名称的前缀，按销量排序
+     *
+     * @param prefix 已输入的前缀
+     * @param limit 最多返回的数量
+     * @return 联想词列表
+     */
+    List<SearchSuggestionResponse> suggest(String prefix, int limit);
+    
+    /**
+     * 从数据库重新读取商品并更新索引，已删除的商品从索引中移除
+     * 在事务中调用时于事务提交后执行
+     *
+     * @param productIds 商品ID列表
+     */
+    void refreshProducts(Collection<Integer> productIds);
+    
+    /**
+     * 全量重建索引
+     */
+    void rebuild();
+    
+    /**
+     * 获取索引统计信息
+     *
+     * @return 商品数、词项数、是否就绪、最近一次重建耗时
+     */
+    Map<String, Object> getStatistics();
+}
@@ -74,17 +74,37 @@ public interface IProductService {
      * 获取热门商品
      *
      * @param limit 限制数量
+     * @param categoryId 分类ID，为空表示全部分类
      * @return 热门商品列表
      */
-    List<ProductResponse> getHotProducts(Integer limit);
+    List<ProductResponse> getHotProducts(Integer limit, Integer categoryId);
     
     /**
      * 获取推荐商品
      *
      * @param limit 限制数量
+     * @param categoryId 分类ID，为空表示全部分类
      * @return 推荐商品列表
      */
-    List<ProductResponse> getRecommendedProducts(Integer limit);
+    List<ProductResponse> getRecommendedProducts(Integer limit, Integer categoryId);
+    
+    /**
+     * 获取经常与指定商品一起购买的商品，关联商品不足时用同分类的推荐商品补足
+     *
+     * @param productId 商品ID
+     * @param limit 限制数量
+     * @return 商品列表
+     */
+    List<ProductResponse> getAlsoBoughtProducts(Integer productId, Integer limit);
+    
+    /**
+     * 根据用户购买记录获取个性化推荐商品，推荐结果不足时用推荐商品补足
+     *
+     * @param userId 用户ID
+     * @param limit 限制数量
+     * @return 商品列表
+     */
+    List<ProductResponse> getPersonalizedProducts(Integer userId, Integer limit);
     
     /**
      * 根据分类ID获取商品
@@ -102,6 +122,16 @@ public interface IProductService {
      */
     List<ProductResponse> searchProducts(String keyword);
     
+    /**
+     * 分页搜索商品，按相关度排序
+     *
+     * @param keyword 搜索关键词
+     * @param pageNum 页码
+     * @param pageSize 每页大小
+     * @return 商品分页结果
+     */
+    PageResult<ProductResponse> searchProducts(String keyword, Integer pageNum, Integer pageSize);
+    
     /**
      * 更新商品库存
      *
@@ -118,4 +148,11 @@ public interface IProductService {
      * @return 存在返回true，否则返回false
      */
     boolean existsByProductCode(String productCode);
+    
+    /**
+     * 记录一次商品浏览，浏览量在内存中累加后定时写库
+     *
+     * @param productId 商品ID
+     */
+    void recordView(Integer productId);
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.mall.admin.service;
+
+import com.mall.admin.entity.SalesDailyRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 销售汇总服务接口
+ * 已结束的日期从汇总表读取，尚未汇总的日期（通常只有今天）实时查询订单表
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface ISalesRollupService {
+    
+    /**
+     * 重新汇总指定日期的数据
+     *
+     * @param statDate 统计日期
+     */
+    void rollupDay(LocalDate statDate);
+    
+    /**
+     * 汇总所有尚未汇总的已结束日期，并重算昨天的数据
+     */
+    void rollupPendingDays();
+    
+    /**
+     * 获取累计汇总（订单总数、总销售额、商品总件数）
+     *
+     * @return 累计汇总
+     */
+    SalesDailyRollup getTotals();
+    
+    /**
+     * 获取日期区间内每天的汇总，没有订单的日期不返回
+     *
+     * @param startDate 开始日期（包含）
+     * @param endDate 结束日期（包含）
+     * @return 按日期升序的每日汇总
+     */
+    List<SalesDailyRollup> getDailyTotals(LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * 获取各分类的累计汇总
+     *
+     * @return 各分类累计汇总
+     */
+    List<SalesDailyRollup> getCategoryTotals();
+}
@@ -0,0 +1,37 @@
+package com.mall.admin.service;
+
+import com.mall.admin.util.JwtPrincipal;
+
+/**
+ * 令牌吊销服务接口
+ * 支持吊销单个令牌（登出、刷新）和吊销用户此前签发的全部令牌（锁定账户）
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+public interface ITokenRevocationService {
+    
+    /**
+     * 吊销单个令牌
+     *
+     * @param principal 令牌解析出的认证主体
+     * @param reason 吊销原因
+     */
+    void revokeToken(JwtPrincipal principal, String reason);
+    
+    /**
+     * 吊销用户已签发的全部令牌：递增用户的令牌版本，此前签发的令牌因版本过低失效
+     *
+     * @param userId 用户ID
+     * @param reason 吊销原因
+     */
+    void revokeUser(Integer userId, String reason);
+    
+    /**
+     * 判断令牌是否已被吊销
+     *
+     * @param principal 令牌解析出的认证主体
+     * @return 已吊销返回true
+     */
+    boolean isRevoked(JwtPrincipal principal);
+}
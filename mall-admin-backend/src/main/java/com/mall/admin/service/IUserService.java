@@ -8,6 +8,7 @@ import com.mall.admin.dto.request.UserRequest;
 import com.mall.admin.dto.response.UserResponse;
 import com.mall.admin.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -26,9 +27,11 @@ public interface IUserService extends IService<User> {
      * @param size     每页大小
      * @param keyword  搜索关键词（用户名、手机号、邮箱）
      * @param status   用户状态
+     * @param after    分页游标，不为空时按(注册时间, 用户ID)游标翻页并忽略页码，空字符串表示第一页
+     * @param exactTotal 是否精确统计总数，false时总数取自短时缓存或估算
      * @return 分页结果
      */
-    PageResult<UserResponse> getUserList(Integer page, Integer size, String keyword, Integer status);
+    PageResult<UserResponse> getUserList(Integer page, Integer size, String keyword, Integer status, String after, Boolean exactTotal);
     
     /**
      * 根据ID获取用户详情
@@ -148,4 +151,22 @@ public interface IUserService extends IService<User> {
      * @return 存在返回true，否则返回false
      */
     boolean existsByPhone(String phone);
-}
\ No newline at end of file
+    
+    /**
+     * 登录成功后按当前配置升级密码哈希
+     * 旧版SHA-256哈希或迭代次数与配置不一致时重新加密，失败时仅记录日志
+     *
+     * @param user 用户
+     * @param rawPassword 已校验通过的原始密码
+     */
+    void upgradePasswordHash(User user, String rawPassword);
+    
+    /**
+     * 记录用户登录时间
+     * 登录时间先保存在内存中，由定时任务批量写入数据库，登录请求本身不产生写操作
+     *
+     * @param userId 用户ID
+     * @param loginTime 登录时间
+     */
+    void recordLogin(Integer userId, LocalDateTime loginTime);
+}
@@ -3,12 +3,14 @@ package com.mall.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.mall.admin.common.CounterType;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.dto.request.ArticleRequest;
 import com.mall.admin.dto.response.ArticleResponse;
 import com.mall.admin.entity.Article;
 import com.mall.admin.mapper.ArticleMapper;
 import com.mall.admin.service.ArticleService;
+import com.mall.admin.service.ICounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -31,6 +33,7 @@ import java.util.stream.Collectors;
 public class ArticleServiceImpl implements ArticleService {
 
     private final ArticleMapper articleMapper;
+    private final ICounterService counterService;
 
     @Override
     public PageResult<ArticleResponse> getArticleList(Integer page, Integer size, String title, String category, Integer status) {
@@ -195,7 +198,8 @@ public class ArticleServiceImpl implements ArticleService {
             throw new IllegalArgumentException("文章ID不能为空");
         }
         
-        articleMapper.incrementViewCount(articleId);
+        // 先在内存中累加，定时批量写库，热门文章不会在同一行锁上排队
+        counterService.increment(CounterType.ARTICLE_VIEW, articleId);
     }
 
     /**
@@ -205,6 +209,12 @@ public class ArticleServiceImpl implements ArticleService {
         ArticleResponse response = new ArticleResponse();
         BeanUtils.copyProperties(article, response);
         
+        // 加上尚未写库的浏览量
+        long pendingViews = counterService.getPending(CounterType.ARTICLE_VIEW, article.getArticleId());
+        if (pendingViews != 0) {
+            response.setViewCount((article.getViewCount() != null ? article.getViewCount() : 0) + (int) pendingViews);
+        }
+        
         // 设置状态名称
         response.setStatusName(getStatusName(article.getStatus()));
         
@@ -0,0 +1,297 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.cache.SlidingWindowCounter;
+import com.mall.admin.common.exception.AuthException;
+import com.mall.admin.common.exception.BusinessException;
+import com.mall.admin.dto.UserRegisterRequest;
+import com.mall.admin.dto.request.ChangePasswordRequest;
+import com.mall.admin.dto.request.LoginRequest;
+import com.mall.admin.dto.response.LoginResponse;
+import com.mall.admin.dto.response.UserResponse;
+import com.mall.admin.entity.User;
+import com.mall.admin.service.IAuthService;
+import com.mall.admin.service.ITokenRevocationService;
+import com.mall.admin.service.IUserService;
+import com.mall.admin.util.JwtPrincipal;
+import com.mall.admin.util.JwtUtil;
+import com.mall.admin.util.PasswordHasher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 认证服务实现类
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthServiceImpl implements IAuthService {
+    
+    private static final String TOKEN_TYPE = "Bearer";
+    private static final String DEFAULT_ROLE = "USER";
+    
+    private final IUserService userService;
+    private final JwtUtil jwtUtil;
+    private final PasswordHasher passwordHasher;
+    private final ITokenRevocationService revocationService;
+    
+    /**
+     * 统计窗口内同一昵称允许的登录失败次数
+     */
+    @Value("${mall.auth.login-failure.max-failures:5}")
+    private int maxFailures;
+    
+    /**
+     * 统计窗口内同一IP允许的登录失败次数
+     */
+    @Value("${mall.auth.login-failure.ip-max-failures:20}")
+    private int ipMaxFailures;
+    
+    /**
+     * 登录失败统计窗口（分钟）
+     */
+    @Value("${mall.auth.login-failure.window-minutes:15}")
+    private int failureWindowMinutes;
+    
+    /**
+     * 最多跟踪的昵称或IP数
+     */
+    @Value("${mall.auth.login-failure.max-keys:100000}")
+    private int failureMaxKeys;
+    
+    /**
+     * 按昵称统计的登录失败次数
+     */
+    private SlidingWindowCounter<String> usernameFailures;
+    
+    /**
+     * 按客户端IP统计的登录失败次数
+     */
+    private SlidingWindowCounter<String> ipFailures;
+    
+    @PostConstruct
+    public void initFailureCounters() {
+        long windowMillis = failureWindowMinutes * 60_000L;
+        // 每个桶一分钟
+        usernameFailures = new SlidingWindowCounter<>(windowMillis, failureWindowMinutes, failureMaxKeys);
+        ipFailures = new SlidingWindowCounter<>(windowMillis, failureWindowMinutes, failureMaxKeys);
+    }
+    
+    @Override
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        if (isLoginBlocked(request.getNickname(), clientIp)) {
+            throw new BusinessException("登录失败次数过多，请稍后再试");
+        }
+        
+        User user = userService.findByNickname(request.getNickname());
+        if (user == null || !passwordHasher.matches(request.getPassword(), user.getPassword())) {
+            recordLoginFailure(request.getNickname(), clientIp);
+            throw new BusinessException("昵称或密码错误");
+        }
+        if (user.getStatus() == 0) {
+            throw new BusinessException("账户已被禁用");
+        }
+        clearLoginFailures(request.getNickname());
+        userService.upgradePasswordHash(user, request.getPassword());
+        
+        userService.recordLogin(user.getUserId(), LocalDateTime.now());
+        
+        String token = jwtUtil.generateToken(user.getUserId(), user.getNickname(), DEFAULT_ROLE, user.getTokenVersion());
+        return buildLoginResponse(token, userService.getUserById(user.getUserId()));
+    }
+    
+    @Override
+    public UserResponse register(UserRegisterRequest request) {
+        Integer userId = userService.register(request, null).getUserId();
+        return userService.getUserById(userId);
+    }
+    
+    @Override
+    public void logout(String token) {
+        JwtPrincipal principal = jwtUtil.verify(token);
+        if (principal == null || revocationService.isRevoked(principal)) {
+            // 令牌已经无效，无需处理
+            return;
+        }
+        revocationService.revokeToken(principal, "用户登出");
+        log.info("用户登出，用户ID: {}", principal.getUserId());
+    }
+    
+    @Override
+    public LoginResponse refreshToken(String refreshToken) {
+        JwtPrincipal principal = requireValidToken(refreshToken);
+        
+        UserResponse user = userService.getUserById(principal.getUserId());
+        if (user.getStatus() == null || user.getStatus() == 0) {
+            throw new AuthException(401, "账户已被禁用");
+        }
+        
+        String token = jwtUtil.generateToken(principal.getUserId(), principal.getUsername(), principal.getRole(),
+                principal.getTokenVersion());
+        // 旧令牌刷新后立即作废
+        revocationService.revokeToken(principal, "令牌刷新");
+        return buildLoginResponse(token, user);
+    }
+    
+    @Override
+    public void changePassword(Integer userId, ChangePasswordRequest request) {
+        if (!StringUtils.hasText(request.getNewPassword()) || !request.getNewPassword().equals(request.getConfirmPassword())) {
+            throw new BusinessException("两次输入的新密码不一致");
+        }
+        
+        User user = userService.getById(userId);
+        if (user == null) {
+            throw new BusinessException("用户不存在");
+        }
+        if (!passwordHasher.matches(request.getOldPassword(), user.getPassword())) {
+            throw new BusinessException("原密码错误");
+        }
+        
+        userService.resetPassword(userId, request.getNewPassword());
+        revocationService.revokeUser(userId, "修改密码");
+    }
+    
+    @Override
+    public void resetPassword(String email, String newPassword) {
+        User user = userService.findByEmail(email);
+        if (user == null) {
+            throw new BusinessException("用户不存在");
+        }
+        
+        userService.resetPassword(user.getUserId(), newPassword);
+        revocationService.revokeUser(user.getUserId(), "重置密码");
+    }
+    
+    @Override
+    public boolean checkUsernameExists(String username) {
+        return userService.existsByNickname(username);
+    }
+    
+    @Override
+    public boolean checkEmailExists(String email) {
+        return userService.existsByEmail(email);
+    }
+    
+    @Override
+    public boolean checkPhoneExists(String phone) {
+        return userService.existsByPhone(phone);
+    }
+    
+    @Override
+    public UserResponse getUserByToken(String token) {
+        return userService.getUserById(requireValidToken(token).getUserId());
+    }
+    
+    @Override
+    public boolean validateToken(String token) {
+        JwtPrincipal principal = jwtUtil.verify(token);
+        return principal != null && !revocationService.isRevoked(principal);
+    }
+    
+    @Override
+    public void lockAccount(Integer userId, String reason) {
+        userService.updateUserStatus(userId, 0);
+        revocationService.revokeUser(userId, StringUtils.hasText(reason) ? reason : "锁定账户");
+        log.info("账户已锁定，用户ID: {}, 原因: {}", userId, reason);
+    }
+    
+    @Override
+    public void unlockAccount(Integer userId) {
+        userService.updateUserStatus(userId, 1);
+        log.info("账户已解锁，用户ID: {}", userId);
+    }
+    
+    @Override
+    public boolean isAccountLocked(Integer userId) {
+        User user = userService.getById(userId);
+        if (user == null) {
+            return false;
+        }
+        return user.getStatus() == 0 || getLoginFailureCount(user.getNickname()) >= maxFailures;
+    }
+    
+    @Override
+    public void recordLoginFailure(String username) {
+        recordLoginFailure(username, null);
+    }
+    
+    @Override
+    public void recordLoginFailure(String username, String clientIp) {
+        int failures = StringUtils.hasText(username) ? usernameFailures.increment(username) : 0;
+        int ipFailureCount = StringUtils.hasText(clientIp) ? ipFailures.increment(clientIp) : 0;
+        if (failures == maxFailures || ipFailureCount == ipMaxFailures) {
+            log.warn("登录失败次数达到上限，昵称: {}, IP: {}, 昵称失败次数: {}, IP失败次数: {}",
+                    username, clientIp, failures, ipFailureCount);
+        }
+    }
+    
+    @Override
+    public void clearLoginFailures(String username) {
+        // 只清除昵称计数，IP计数不因某个账号登录成功而清零
+        if (StringUtils.hasText(username)) {
+            usernameFailures.reset(username);
+        }
+    }
+    
+    @Override
+    public int getLoginFailureCount(String username) {
+        return StringUtils.hasText(username) ? usernameFailures.count(username) : 0;
+    }
+    
+    @Override
+    public boolean isLoginBlocked(String username, String clientIp) {
+        if (StringUtils.hasText(username) && usernameFailures.count(username) >= maxFailures) {
+            return true;
+        }
+        return StringUtils.hasText(clientIp) && ipFailures.count(clientIp) >= ipMaxFailures;
+    }
+    
+    @Override
+    public Map<String, Object> getLoginFailureStatistics() {
+        return Map.of("username", usernameFailures.getStatistics(), "ip", ipFailures.getStatistics());
+    }
+    
+    /**
+     * 清理窗口内没有登录失败的昵称和IP
+     */
+    @Scheduled(fixedDelayString = "${mall.auth.login-failure.evict-interval-ms:60000}")
+    public void evictIdleFailures() {
+        usernameFailures.evictIdle();
+        ipFailures.evictIdle();
+    }
+    
+    /**
+     * 验证令牌并确认未被吊销
+     */
+    private JwtPrincipal requireValidToken(String token) {
+        JwtPrincipal principal = jwtUtil.verify(token);
+        if (principal == null || revocationService.isRevoked(principal)) {
+            throw new AuthException(401, "认证令牌无效或已过期");
+        }
+        return principal;
+    }
+    
+    /**
+     * 构建登录响应，当前令牌同时用作刷新令牌
+     */
+    private LoginResponse buildLoginResponse(String token, UserResponse user) {
+        LoginResponse response = new LoginResponse();
+        response.setAccessToken(token);
+        response.setRefreshToken(token);
+        response.setTokenType(TOKEN_TYPE);
+        response.setExpiresIn(jwtUtil.getTokenLifetimeMillis() / 1000);
+        response.setUser(user);
+        response.setLoginTime(LocalDateTime.now());
+        return response;
+    }
+}
@@ -10,15 +10,24 @@ import com.mall.admin.dto.request.CategoryRequest;
 import com.mall.admin.dto.response.CategoryResponse;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.common.exception.BusinessException;
+import com.mall.admin.event.CategoryChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +42,28 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements ICategoryService {
     
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * 顶级分类的父ID
+     */
+    private static final Integer TOP_PARENT_ID = 0;
+    
+    /**
+     * 分类缓存快照，变更提交后整体替换
+     */
+    private final AtomicReference<CategorySnapshot> snapshotRef = new AtomicReference<>();
+    
+    /**
+     * 是否有线程正在按过期时间重建快照
+     */
+    private final AtomicBoolean expiredRefreshing = new AtomicBoolean();
+    
+    /**
+     * 分类缓存快照有效期，其他实例修改的分类最迟在该时间后可见
+     */
+    @Value("${mall.category.cache-ttl-ms:60000}")
+    private long cacheTtlMillis;
     
     @Override
     public PageResult<CategoryResponse> getCategoryList(Integer page, Integer size, String keyword, Integer parentId) {
@@ -96,6 +127,7 @@ public class CategoryServiceImpl implements ICategoryService {
             throw new BusinessException("分类创建失败");
         }
         
+        eventPublisher.publishEvent(new CategoryChangedEvent(List.of(category.getCategoryId())));
         log.info("分类创建成功，分类ID: {}", category.getCategoryId());
     }
     
@@ -126,6 +158,7 @@ public class CategoryServiceImpl implements ICategoryService {
             throw new BusinessException("分类更新失败");
         }
         
+        eventPublisher.publishEvent(new CategoryChangedEvent(List.of(id)));
         log.info("分类更新成功，分类ID: {}", id);
     }
     
@@ -154,6 +187,7 @@ public class CategoryServiceImpl implements ICategoryService {
             throw new BusinessException("分类删除失败");
         }
         
+        eventPublisher.publishEvent(new CategoryChangedEvent(List.of(id)));
         log.info("分类删除成功，分类ID: {}", id);
     }
     
@@ -161,14 +195,7 @@ public class CategoryServiceImpl implements ICategoryService {
     public List<CategoryResponse> getTopCategories() {
         log.info("获取所有顶级分类");
         
-        LambdaQueryWrapper<Category> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.isNull(Category::getParentId)
-                   .or()
-                   .eq(Category::getParentId, 0);
-        queryWrapper.eq(Category::getIsActive, 1);
-        queryWrapper.orderByAsc(Category::getSortOrder);
-        
-        List<Category> categories = categoryMapper.selectList(queryWrapper);
+        List<Category> categories = getSnapshot().getChildren(TOP_PARENT_ID);
         return categories.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
@@ -178,12 +205,7 @@ public class CategoryServiceImpl implements ICategoryService {
     public List<CategoryResponse> getCategoriesByParentId(Integer parentId) {
         log.info("根据父分类ID获取子分类，父分类ID: {}", parentId);
         
-        LambdaQueryWrapper<Category> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Category::getParentId, parentId);
-        queryWrapper.eq(Category::getIsActive, 1);
-        queryWrapper.orderByAsc(Category::getSortOrder);
-        
-        List<Category> categories = categoryMapper.selectList(queryWrapper);
+        List<Category> categories = getSnapshot().getChildren(normalizeParentId(parentId));
         return categories.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
@@ -208,18 +230,26 @@ public class CategoryServiceImpl implements ICategoryService {
     public List<CategoryResponse> getCategoryTree() {
         log.info("获取分类树结构");
         
-        // 获取所有启用的分类
-        LambdaQueryWrapper<Category> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Category::getIsActive, 1);
-        queryWrapper.orderByAsc(Category::getSortOrder);
-        
-        List<Category> allCategories = categoryMapper.selectList(queryWrapper);
-        List<CategoryResponse> categoryResponses = allCategories.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        
-        // 构建树结构
-        return buildCategoryTree(categoryResponses, null);
+        // 每次按快照中的父子索引生成新的树，调用方修改返回的节点不影响快照
+        return buildCategoryTree(getSnapshot().childrenMap, TOP_PARENT_ID);
+    }
+    
+    @Override
+    public String getCategoryName(Integer categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        Category category = getSnapshot().getCategory(categoryId);
+        return category != null ? category.getCategoryName() : null;
+    }
+    
+    /**
+     * 分类变更事务提交后重建缓存快照
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        log.info("分类发生变更，重建分类缓存，分类ID列表: {}", event.getCategoryIds());
+        refreshSnapshot();
     }
     
     @Override
@@ -269,6 +299,7 @@ public class CategoryServiceImpl implements ICategoryService {
             throw new BusinessException("批量更新分类状态失败");
         }
         
+        eventPublisher.publishEvent(new CategoryChangedEvent(List.copyOf(ids)));
         log.info("批量更新分类状态成功，更新数量: {}", result);
     }
     
@@ -324,23 +355,96 @@ public class CategoryServiceImpl implements ICategoryService {
         return "CAT_" + timestamp + "_" + random;
     }
     
+    /**
+     * 获取分类缓存快照，首次访问时加载；过期后由一个请求线程重建，其他线程在此期间继续使用旧快照
+     */
+    private CategorySnapshot getSnapshot() {
+        CategorySnapshot snapshot = snapshotRef.get();
+        if (snapshot == null) {
+            return refreshSnapshot();
+        }
+        if (System.currentTimeMillis() - snapshot.loadedAt >= cacheTtlMillis && expiredRefreshing.compareAndSet(false, true)) {
+            try {
+                snapshot = refreshSnapshot();
+            } finally {
+                expiredRefreshing.set(false);
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * 从数据库重建分类缓存快照并原子替换
+     * 串行执行，保证后提交的变更不会被较早的快照覆盖
+     */
+    private synchronized CategorySnapshot refreshSnapshot() {
+        LambdaQueryWrapper<Category> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.orderByAsc(Category::getSortOrder);
+        List<Category> allCategories = categoryMapper.selectList(queryWrapper);
+        
+        // 建立ID索引和父ID到启用子分类的索引（保持sort_order顺序）
+        Map<Integer, Category> categoryMap = new HashMap<>();
+        Map<Integer, List<Category>> childrenMap = new HashMap<>();
+        for (Category category : allCategories) {
+            categoryMap.put(category.getCategoryId(), category);
+            if (category.getIsActive() != null && category.getIsActive() == 1) {
+                childrenMap.computeIfAbsent(normalizeParentId(category.getParentId()), key -> new ArrayList<>())
+                        .add(category);
+            }
+        }
+        
+        Map<Integer, List<Category>> immutableChildrenMap = new HashMap<>();
+        childrenMap.forEach((parentId, children) -> immutableChildrenMap.put(parentId, List.copyOf(children)));
+        
+        CategorySnapshot snapshot = new CategorySnapshot(Map.copyOf(categoryMap), Map.copyOf(immutableChildrenMap));
+        snapshotRef.set(snapshot);
+        
+        log.info("分类缓存已重建，分类总数: {}", categoryMap.size());
+        return snapshot;
+    }
+    
     /**
      * 构建分类树结构
+     * 通过父ID索引直接取子节点，每个分类只访问一次
      */
-    private List<CategoryResponse> buildCategoryTree(List<CategoryResponse> categories, Integer parentId) {
-        return categories.stream()
-                .filter(category -> {
-                    if (parentId == null) {
-                        return category.getParentId() == null || category.getParentId() == 0;
-                    } else {
-                        return parentId.equals(category.getParentId());
-                    }
-                })
-                .map(category -> {
-                    List<CategoryResponse> children = buildCategoryTree(categories, category.getCategoryId());
-                    category.setChildren(children);
-                    return category;
-                })
-                .collect(Collectors.toList());
+    private List<CategoryResponse> buildCategoryTree(Map<Integer, List<Category>> childrenMap, Integer parentId) {
+        List<Category> children = childrenMap.getOrDefault(parentId, List.of());
+        List<CategoryResponse> nodes = new ArrayList<>(children.size());
+        for (Category category : children) {
+            CategoryResponse node = convertToResponse(category);
+            node.setChildren(buildCategoryTree(childrenMap, category.getCategoryId()));
+            nodes.add(node);
+        }
+        return nodes;
+    }
+    
+    /**
+     * 统一父分类ID，null视为顶级分类
+     */
+    private Integer normalizeParentId(Integer parentId) {
+        return parentId == null ? TOP_PARENT_ID : parentId;
+    }
+    
+    /**
+     * 分类缓存快照，索引均为不可变集合；其中的分类实体只在服务内部读取，不直接返回给调用方
+     */
+    private static final class CategorySnapshot {
+        
+        private final Map<Integer, Category> categoryMap;
+        private final Map<Integer, List<Category>> childrenMap;
+        private final long loadedAt = System.currentTimeMillis();
+        
+        CategorySnapshot(Map<Integer, Category> categoryMap, Map<Integer, List<Category>> childrenMap) {
+            this.categoryMap = categoryMap;
+            this.childrenMap = childrenMap;
+        }
+        
+        Category getCategory(Integer categoryId) {
+            return categoryMap.get(categoryId);
+        }
+        
+        List<Category> getChildren(Integer parentId) {
+            return childrenMap.getOrDefault(parentId, List.of());
+        }
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.mall.admin.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.dto.request.CouponRequest;
+import com.mall.admin.dto.response.BatchOperationResponse;
 import com.mall.admin.dto.response.CouponResponse;
 import com.mall.admin.entity.Coupon;
 import com.mall.admin.mapper.CouponMapper;
@@ -16,9 +18,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +45,9 @@ public class CouponServiceImpl extends ServiceImpl<CouponMapper, Coupon> impleme
     // 优惠卷状态映射
     private static final Map<Integer, String> COUPON_STATUS_MAP = new HashMap<>();
     
+    // 批量操作每批处理的ID数量
+    private static final int BATCH_CHUNK_SIZE = 500;
+    
     static {
         COUPON_TYPE_MAP.put(1, "满减");
         COUPON_TYPE_MAP.put(2, "折扣");
@@ -201,26 +209,60 @@ public class CouponServiceImpl extends ServiceImpl<CouponMapper, Coupon> impleme
     
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void deleteCoupons(List<Integer> couponIds) {
-        log.info("批量删除优惠卷，数量: {}", couponIds.size());
-        
+    public BatchOperationResponse deleteCoupons(List<Integer> couponIds) {
         if (couponIds == null || couponIds.isEmpty()) {
             throw new IllegalArgumentException("优惠卷ID列表不能为空");
         }
+        log.info("批量删除优惠卷，数量: {}", couponIds.size());
         
-        // 检查所有优惠卷是否都可以删除
-        for (Integer couponId : couponIds) {
-            Coupon coupon = this.getById(couponId);
-            if (coupon == null) {
-                throw new RuntimeException("优惠卷不存在，ID: " + couponId);
+        BatchOperationResponse response = new BatchOperationResponse();
+        List<Integer> distinctIds = distinctIds(couponIds);
+        
+        for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+            
+            Map<Integer, Coupon> couponMap = this.listByIds(chunk).stream()
+                    .collect(Collectors.toMap(Coupon::getCouponId, coupon -> coupon));
+            
+            List<Integer> accepted = new ArrayList<>(chunk.size());
+            for (Integer couponId : chunk) {
+                Coupon coupon = couponMap.get(couponId);
+                if (coupon == null) {
+                    response.reject(couponId, "优惠卷不存在");
+                } else if (coupon.getUsedQuantity() > 0) {
+                    response.reject(couponId, "优惠卷已有用户使用，无法删除");
+                } else {
+                    accepted.add(couponId);
+                }
+            }
+            if (accepted.isEmpty()) {
+                continue;
             }
-            if (coupon.getUsedQuantity() > 0) {
-                throw new RuntimeException("优惠卷已有用户使用，无法删除，名称: " + coupon.getCouponName());
+            
+            // 删除条件带上未使用约束，校验之后被领用的优惠卷不会被误删
+            int deleted = this.baseMapper.delete(new LambdaQueryWrapper<Coupon>()
+                    .in(Coupon::getCouponId, accepted)
+                    .eq(Coupon::getUsedQuantity, 0));
+            if (deleted == accepted.size()) {
+                response.getUpdatedIds().addAll(accepted);
+                continue;
+            }
+            
+            // 存在并发领用时，仍然存在的优惠卷即为未删除的
+            Set<Integer> remaining = this.listByIds(accepted).stream()
+                    .map(Coupon::getCouponId)
+                    .collect(Collectors.toSet());
+            for (Integer couponId : accepted) {
+                if (remaining.contains(couponId)) {
+                    response.reject(couponId, "优惠卷已有用户使用，无法删除");
+                } else {
+                    response.getUpdatedIds().add(couponId);
+                }
             }
         }
         
-        this.removeByIds(couponIds);
-        log.info("批量删除优惠卷成功，数量: {}", couponIds.size());
+        log.info("批量删除优惠卷完成，成功: {}, 拒绝: {}", response.getUpdatedCount(), response.getRejectedCount());
+        return response;
     }
     
     @Override
@@ -249,21 +291,50 @@ public class CouponServiceImpl extends ServiceImpl<CouponMapper, Coupon> impleme
     
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void updateCouponStatus(List<Integer> couponIds, Integer status) {
-        log.info("批量更新优惠卷状态，数量: {}, 状态: {}", couponIds.size(), status);
-        
+    public BatchOperationResponse updateCouponStatus(List<Integer> couponIds, Integer status) {
         if (couponIds == null || couponIds.isEmpty()) {
             throw new IllegalArgumentException("优惠卷ID列表不能为空");
         }
         if (status == null || (status != 0 && status != 1)) {
             throw new IllegalArgumentException("状态值无效");
         }
+        log.info("批量更新优惠卷状态，数量: {}, 状态: {}", couponIds.size(), status);
         
-        for (Integer couponId : couponIds) {
-            updateCouponStatus(couponId, status);
+        BatchOperationResponse response = new BatchOperationResponse();
+        List<Integer> distinctIds = distinctIds(couponIds);
+        
+        for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+            
+            Set<Integer> existingIds = this.list(new LambdaQueryWrapper<Coupon>()
+                            .select(Coupon::getCouponId)
+                            .in(Coupon::getCouponId, chunk))
+                    .stream()
+                    .map(Coupon::getCouponId)
+                    .collect(Collectors.toSet());
+            
+            List<Integer> accepted = new ArrayList<>(chunk.size());
+            for (Integer couponId : chunk) {
+                if (existingIds.contains(couponId)) {
+                    accepted.add(couponId);
+                } else {
+                    response.reject(couponId, "优惠卷不存在");
+                }
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            
+            // 已处于目标状态的优惠卷不再重复写入
+            this.baseMapper.update(null, new LambdaUpdateWrapper<Coupon>()
+                    .set(Coupon::getStatus, status)
+                    .in(Coupon::getCouponId, accepted)
+                    .ne(Coupon::getStatus, status));
+            response.getUpdatedIds().addAll(accepted);
         }
         
-        log.info("批量更新优惠卷状态成功，数量: {}", couponIds.size());
+        log.info("批量更新优惠卷状态完成，成功: {}, 拒绝: {}", response.getUpdatedCount(), response.getRejectedCount());
+        return response;
     }
     
     @Override
@@ -314,6 +385,16 @@ public class CouponServiceImpl extends ServiceImpl<CouponMapper, Coupon> impleme
         return response;
     }
     
+    /**
+     * 过滤空值并去重，保持原有顺序
+     */
+    private List<Integer> distinctIds(List<Integer> ids) {
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+    
     /**
      * 验证优惠卷请求参数
      */
@@ -3,8 +3,11 @@ package com.mall.admin.service.impl;
 import com.mall.admin.dto.DashboardOverviewDTO;
 import com.mall.admin.dto.SalesTrendDTO;
 import com.mall.admin.dto.CategoryStatsDTO;
+import com.mall.admin.entity.SalesDailyRollup;
 import com.mall.admin.mapper.*;
+import com.mall.admin.service.ICategoryService;
 import com.mall.admin.service.IDashboardService;
+import com.mall.admin.service.ISalesRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,8 +15,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class DashboardServiceImpl implements IDashboardService {
@@ -22,13 +28,13 @@ public class DashboardServiceImpl implements IDashboardService {
     private UserMapper userMapper;
 
     @Autowired
-    private OrderMapper orderMapper;
+    private ProductMapper productMapper;
 
     @Autowired
-    private ProductMapper productMapper;
+    private ISalesRollupService salesRollupService;
 
     @Autowired
-    private CategoryMapper categoryMapper;
+    private ICategoryService categoryService;
 
     @Override
     public DashboardOverviewDTO getOverview() {
@@ -36,11 +42,22 @@ public class DashboardServiceImpl implements IDashboardService {
         
         // 获取统计数据
         overview.setTotalUsers(userMapper.selectTotalUsers());
-        overview.setTotalOrders(orderMapper.selectTotalOrders());
         overview.setTotalProducts(productMapper.selectTotalProducts());
-        overview.setTotalSales(orderMapper.selectTotalSales());
-        overview.setTodayOrders(orderMapper.selectTodayOrders());
-        overview.setTodaySales(orderMapper.selectTodaySales());
+        
+        // 订单统计：已结束的日期读汇总表，今天实时查询
+        SalesDailyRollup totals = salesRollupService.getTotals();
+        overview.setTotalOrders(totals.getOrderCount());
+        overview.setTotalSales(totals.getSalesAmount());
+        
+        LocalDate today = LocalDate.now();
+        List<SalesDailyRollup> todayStats = salesRollupService.getDailyTotals(today, today);
+        if (todayStats.isEmpty()) {
+            overview.setTodayOrders(0L);
+            overview.setTodaySales(BigDecimal.ZERO);
+        } else {
+            overview.setTodayOrders(todayStats.get(0).getOrderCount());
+            overview.setTodaySales(todayStats.get(0).getSalesAmount());
+        }
         
         // 获取销售趋势数据（默认7天）
         overview.setSalesTrend(getSalesTrend(7));
@@ -53,18 +70,24 @@ public class DashboardServiceImpl implements IDashboardService {
 
     @Override
     public List<SalesTrendDTO> getSalesTrend(Integer days) {
+        if (days == null || days <= 0) {
+            days = 7;
+        }
+        
         List<SalesTrendDTO> trendList = new ArrayList<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         
-        // 生成模拟数据
-        Random random = new Random();
+        LocalDate today = LocalDate.now();
+        Map<LocalDate, SalesDailyRollup> dailyMap = salesRollupService.getDailyTotals(today.minusDays(days - 1), today).stream()
+                .collect(Collectors.toMap(SalesDailyRollup::getStatDate, Function.identity()));
+        
         for (int i = days - 1; i >= 0; i--) {
             SalesTrendDTO trend = new SalesTrendDTO();
-            LocalDate date = LocalDate.now().minusDays(i);
+            LocalDate date = today.minusDays(i);
             trend.setDate(date.format(formatter));
-            // 模拟销售额数据
-            BigDecimal amount = new BigDecimal(5000 + random.nextInt(10000));
-            trend.setAmount(amount);
+            // 没有订单的日期销售额为0
+            SalesDailyRollup daily = dailyMap.get(date);
+            trend.setAmount(daily != null && daily.getSalesAmount() != null ? daily.getSalesAmount() : BigDecimal.ZERO);
             trendList.add(trend);
         }
         
@@ -73,20 +96,26 @@ public class DashboardServiceImpl implements IDashboardService {
 
     @Override
     public List<CategoryStatsDTO> getCategoryStats() {
-        List<CategoryStatsDTO> statsList = new ArrayList<>();
+        List<SalesDailyRollup> categoryTotals = salesRollupService.getCategoryTotals();
+        long totalOrderCount = categoryTotals.stream()
+                .mapToLong(rollup -> rollup.getOrderCount() != null ? rollup.getOrderCount() : 0L)
+                .sum();
         
-        // 模拟分类统计数据
-        String[] categoryNames = {"客厅", "卧室", "餐厅", "书房", "儿童房"};
-        Random random = new Random();
-        
-        for (String categoryName : categoryNames) {
+        List<CategoryStatsDTO> statsList = new ArrayList<>();
+        for (SalesDailyRollup rollup : categoryTotals) {
+            long orderCount = rollup.getOrderCount() != null ? rollup.getOrderCount() : 0L;
+            String categoryName = categoryService.getCategoryName(rollup.getCategoryId());
+            
             CategoryStatsDTO stats = new CategoryStatsDTO();
-            stats.setCategoryName(categoryName);
-            stats.setOrderCount((long) (100 + random.nextInt(200)));
-            stats.setPercentage(20.0 + random.nextDouble() * 30);
+            stats.setCategoryName(categoryName != null ? categoryName : "未知分类");
+            stats.setOrderCount(orderCount);
+            stats.setPercentage(totalOrderCount > 0
+                    ? Math.round(orderCount * 10000.0 / totalOrderCount) / 100.0
+                    : 0.0);
             statsList.add(stats);
         }
         
+        statsList.sort(Comparator.comparing(CategoryStatsDTO::getOrderCount).reversed());
         return statsList;
     }
-}
\ No newline at end of file
+}
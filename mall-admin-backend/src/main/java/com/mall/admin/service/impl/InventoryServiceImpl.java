@@ -0,0 +1,542 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.exception.BusinessException;
+import com.mall.admin.entity.InventoryReservation;
+import com.mall.admin.entity.Order;
+import com.mall.admin.entity.OrderItem;
+import com.mall.admin.event.OrderStatusChangedEvent;
+import com.mall.admin.mapper.InventoryReservationMapper;
+import com.mall.admin.mapper.OrderMapper;
+import com.mall.admin.mapper.ProductMapper;
+import com.mall.admin.service.IInventoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 库存服务实现类
+ * <p>
+ * 预占时按商品ID升序逐个执行带库存校验的扣减，所有事务以相同顺序加行锁，避免多商品订单之间死锁；
+ * 扣减放在下单事务的最后一步，热门商品的行锁只持有到提交为止。
+ * 释放和确认由订单状态变更事件驱动，与订单状态更新处于同一事务；批量变更订单状态时按批一次锁定全部预占，
+ * 合并各订单的商品数量后按商品ID升序归还。
+ * <p>
+ * 开启热点库存后，促销期内的商品改用内存计数无锁扣减，不再竞争products行锁；
+ * 事务提交后的净扣减量由后台任务定期写回stock_quantity，促销结束后同步完毕即移出内存。
+ * 载入库存和移出前最后一次同步只需一条语句，期间的扣减和归还短暂等待状态确定，不直接失败。
+ * 内存计数只在单实例部署下有效。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements IInventoryService {
+    
+    /**
+     * 待付款订单状态
+     */
+    private static final Integer ORDER_STATUS_PENDING = 1;
+    
+    /**
+     * 已取消订单状态
+     */
+    private static final Integer ORDER_STATUS_CANCELLED = 6;
+    
+    /**
+     * 每次超时扫描处理的订单数量
+     */
+    private static final int EXPIRED_SCAN_LIMIT = 200;
+    
+    /**
+     * 等待促销商品库存状态确定时的轮询间隔
+     */
+    private static final long SETTLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private final InventoryReservationMapper reservationMapper;
+    private final ProductMapper productMapper;
+    private final OrderMapper orderMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 待付款订单的支付超时时间（分钟）
+     */
+    @Value("${mall.inventory.payment-timeout-minutes:30}")
+    private long paymentTimeoutMinutes;
+    
+    /**
+     * 是否对促销商品启用内存库存计数
+     */
+    @Value("${mall.inventory.hot-stock.enabled:false}")
+    private boolean hotStockEnabled;
+    
+    /**
+     * 促销商品载入或移出内存计数期间，库存变更最长等待时间（毫秒）
+     */
+    @Value("${mall.inventory.hot-stock.settle-wait-ms:200}")
+    private long settleWaitMillis;
+    
+    /**
+     * 促销商品的内存库存计数，按商品ID索引
+     */
+    private final Map<Integer, HotStock> hotStocks = new ConcurrentHashMap<>();
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void reserveStock(Integer orderId, List<OrderItem> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        
+        // 同一商品合并数量，TreeMap保证按商品ID升序加锁
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BusinessException("订单商品或数量无效");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expireTime = now.plusMinutes(paymentTimeoutMinutes);
+        List<InventoryReservation> reservations = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            InventoryReservation reservation = new InventoryReservation();
+            reservation.setOrderId(orderId);
+            reservation.setProductId(entry.getKey());
+            reservation.setQuantity(entry.getValue());
+            reservation.setStatus(InventoryReservation.STATUS_RESERVED);
+            reservation.setExpireTime(expireTime);
+            reservation.setCreateTime(now);
+            reservations.add(reservation);
+        }
+        reservationMapper.insertBatch(reservations);
+        
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (!deductStock(entry.getKey(), entry.getValue())) {
+                throw new BusinessException("商品不存在或库存不足，商品ID: " + entry.getKey());
+            }
+        }
+        
+        log.info("库存预占成功，订单ID: {}, 商品种类: {}", orderId, quantities.size());
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void releaseReservation(Integer orderId) {
+        releaseReservations(List.of(orderId));
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void releaseReservations(Collection<Integer> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return;
+        }
+        
+        List<InventoryReservation> reserved =
+                reservationMapper.selectByOrderIdsForUpdate(orderIds, InventoryReservation.STATUS_RESERVED);
+        if (reserved.isEmpty()) {
+            return;
+        }
+        reservationMapper.updateStatusByOrderIds(orderIds, InventoryReservation.STATUS_RESERVED, InventoryReservation.STATUS_RELEASED);
+        
+        // 各订单同一商品合并数量，与预占相同按商品ID升序归还，避免与下单事务交叉加锁
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (InventoryReservation reservation : reserved) {
+            quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            restoreStock(entry.getKey(), entry.getValue());
+        }
+        
+        log.info("库存预占已释放，订单数: {}, 商品种类: {}", orderIds.size(), quantities.size());
+    }
+    
+    @Override
+    public boolean deductStock(Integer productId, Integer quantity) {
+        return changeStock(productId, hot -> {
+            if (!hot.tryDeduct(quantity)) {
+                hot.inflight.decrementAndGet();
+                return false;
+            }
+            afterCompletion(committed -> {
+                if (committed) {
+                    hot.pending.addAndGet(quantity);
+                } else {
+                    hot.available.addAndGet(quantity);
+                }
+                hot.inflight.decrementAndGet();
+            });
+            return true;
+        }, () -> productMapper.updateStock(productId, quantity) > 0);
+    }
+    
+    @Override
+    public boolean adjustHotStock(Integer productId, int delta) {
+        return changeStock(productId, hot -> applyHotStockDelta(hot, available -> delta), () -> false);
+    }
+    
+    @Override
+    public boolean setHotStock(Integer productId, int quantity) {
+        // 以内存中的可售库存为准，数据库中的库存还包含尚未同步的扣减
+        return changeStock(productId, hot -> applyHotStockDelta(hot, available -> quantity - available), () -> false);
+    }
+    
+    /**
+     * 归还商品库存，促销商品归还到内存计数，由后台任务同步到数据库
+     */
+    private void restoreStock(Integer productId, Integer quantity) {
+        changeStock(productId, hot -> applyHotStockDelta(hot, available -> quantity),
+                () -> productMapper.restoreStock(productId, quantity) > 0);
+    }
+    
+    /**
+     * 按商品内存计数的状态执行库存变更
+     * <p>
+     * 未使用内存计数时直接执行数据库操作；等待载入时执行数据库操作并登记在途，载入要等在途事务结束，
+     * 读到的库存因此已包含该变更；计数中或促销结束尚未移除时在内存中执行。
+     * 正在载入或移出前最后一次同步时短暂等待，超过等待时间仍未确定才提示稍后重试。
+     *
+     * @param memoryChange 内存中的变更，调用时已登记在途，由其负责在事务结束后或失败时注销
+     * @param databaseChange 数据库中的变更
+     */
+    private <T> T changeStock(Integer productId, Function<HotStock, T> memoryChange, Supplier<T> databaseChange) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settleWaitMillis);
+        while (true) {
+            HotStock hot = hotStocks.get(productId);
+            if (hot == null) {
+                return databaseChange.get();
+            }
+            
+            // 先登记在途再读状态，与刷新任务的“先改状态再读在途”配合，保证状态切换时不漏计
+            hot.inflight.incrementAndGet();
+            int state = hot.state;
+            if (state == HotStock.ACTIVE || state == HotStock.RETIRING) {
+                return memoryChange.apply(hot);
+            }
+            if (state == HotStock.PENDING_LOAD) {
+                return changeDatabaseInflight(hot, databaseChange);
+            }
+            hot.inflight.decrementAndGet();
+            if (System.nanoTime() - deadline >= 0) {
+                throw new BusinessException("商品库存同步中，请稍后重试");
+            }
+            LockSupport.parkNanos(SETTLE_POLL_NANOS);
+        }
+    }
+    
+    /**
+     * 执行数据库中的库存变更，在途登记保持到事务结束；没有事务时语句执行完即注销
+     */
+    private <T> T changeDatabaseInflight(HotStock hot, Supplier<T> databaseChange) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return databaseChange.get();
+            } finally {
+                hot.inflight.decrementAndGet();
+            }
+        }
+        afterCompletion(committed -> hot.inflight.decrementAndGet());
+        return databaseChange.get();
+    }
+    
+    /**
+     * 按当前可售库存计算差值并调整；减少的部分立即从可售库存中扣除，回滚时归还，
+     * 增加的部分在提交后才可售。调用时已登记在途
+     */
+    private boolean applyHotStockDelta(HotStock hot, IntUnaryOperator deltaOf) {
+        int current;
+        int delta;
+        do {
+            current = hot.available.get();
+            delta = deltaOf.applyAsInt(current);
+            if (delta >= 0) {
+                break;
+            }
+            if (current < -delta) {
+                hot.inflight.decrementAndGet();
+                throw new BusinessException("可售库存不足，无法减少库存");
+            }
+        } while (!hot.available.compareAndSet(current, current + delta));
+        
+        int applied = delta;
+        afterCompletion(committed -> {
+            if (applied < 0) {
+                if (committed) {
+                    hot.pending.addAndGet(-applied);
+                } else {
+                    hot.available.addAndGet(-applied);
+                }
+            } else if (committed) {
+                hot.available.addAndGet(applied);
+                hot.pending.addAndGet(-applied);
+            }
+            hot.inflight.decrementAndGet();
+        });
+        return true;
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void confirmReservation(Integer orderId) {
+        confirmReservations(List.of(orderId));
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void confirmReservations(Collection<Integer> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return;
+        }
+        int confirmed = reservationMapper.updateStatusByOrderIds(
+                orderIds, InventoryReservation.STATUS_RESERVED, InventoryReservation.STATUS_CONFIRMED);
+        if (confirmed > 0) {
+            log.info("库存预占已确认，订单数: {}, 预占记录数: {}", orderIds.size(), confirmed);
+        }
+    }
+    
+    /**
+     * 订单取消时释放库存，离开待付款状态时确认预占
+     * 在订单状态更新的同一事务内同步执行，任一步失败时一起回滚；批量变更由发布方整批处理，不经过此事件
+     */
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (ORDER_STATUS_CANCELLED.equals(event.getNewStatus())) {
+            releaseReservation(event.getOrderId());
+        } else if (ORDER_STATUS_PENDING.equals(event.getOldStatus()) && event.getNewStatus() != null) {
+            confirmReservation(event.getOrderId());
+        }
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${mall.inventory.timeout-check-interval-ms:60000}")
+    public void releaseExpiredReservations() {
+        List<Integer> orderIds;
+        int processed;
+        do {
+            orderIds = reservationMapper.selectExpiredOrderIds(LocalDateTime.now(), EXPIRED_SCAN_LIMIT);
+            processed = 0;
+            for (Integer orderId : orderIds) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> releaseExpiredOrder(orderId));
+                    processed++;
+                } catch (Exception e) {
+                    log.error("释放超时库存预占失败，订单ID: {}", orderId, e);
+                }
+            }
+            // 本轮全部失败时留到下次调度，避免反复扫描同一批订单
+        } while (orderIds.size() == EXPIRED_SCAN_LIMIT && processed > 0);
+    }
+    
+    /**
+     * 把促销商品已提交的库存变化同步到products.stock_quantity
+     */
+    @Scheduled(fixedDelayString = "${mall.inventory.hot-stock.flush-interval-ms:1000}")
+    public void flushHotStock() {
+        for (HotStock hot : hotStocks.values()) {
+            flush(hot);
+        }
+    }
+    
+    /**
+     * 根据当前促销商品刷新内存计数：新促销商品载入库存，促销结束的商品同步后移除
+     */
+    @Scheduled(fixedDelayString = "${mall.inventory.hot-stock.refresh-interval-ms:10000}")
+    public void refreshHotStock() {
+        if (!hotStockEnabled) {
+            return;
+        }
+        
+        Set<Integer> promotionIds = new HashSet<>(productMapper.selectActivePromotionIds(LocalDateTime.now()));
+        for (Integer productId : promotionIds) {
+            hotStocks.computeIfAbsent(productId, HotStock::new);
+        }
+        
+        for (HotStock hot : hotStocks.values()) {
+            if (!promotionIds.contains(hot.productId) && hot.state == HotStock.ACTIVE) {
+                hot.state = HotStock.RETIRING;
+            }
+            
+            if (hot.state == HotStock.PENDING_LOAD) {
+                // 没有走数据库扣减的在途事务时才载入库存，否则下一轮再试
+                hot.state = HotStock.LOADING;
+                if (hot.inflight.get() > 0) {
+                    hot.state = HotStock.PENDING_LOAD;
+                    continue;
+                }
+                Integer stock = productMapper.selectStockQuantity(hot.productId);
+                hot.available.set(stock != null ? stock : 0);
+                hot.state = HotStock.ACTIVE;
+                log.info("促销商品库存已载入内存计数，商品ID: {}, 库存: {}", hot.productId, hot.available.get());
+            } else if (hot.state == HotStock.RETIRING) {
+                // 同样先改状态再读在途：没有在途事务时，之后的变更都会等待，同步剩余扣减后移除
+                hot.state = HotStock.DRAINING;
+                if (hot.inflight.get() > 0 || !flush(hot)) {
+                    hot.state = HotStock.RETIRING;
+                    continue;
+                }
+                hotStocks.remove(hot.productId);
+                log.info("促销商品库存已同步并移出内存计数，商品ID: {}", hot.productId);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flushHotStock();
+    }
+    
+    /**
+     * 同步单个商品的待写入库存变化，失败时保留到下次同步
+     */
+    private boolean flush(HotStock hot) {
+        int delta = hot.pending.getAndSet(0);
+        if (delta == 0) {
+            return true;
+        }
+        try {
+            productMapper.adjustStock(hot.productId, -delta);
+            return true;
+        } catch (Exception e) {
+            hot.pending.addAndGet(delta);
+            log.error("同步促销商品库存失败，商品ID: {}, 待扣减: {}", hot.productId, delta, e);
+            return false;
+        }
+    }
+    
+    /**
+     * 在当前事务结束后执行回调，参数表示是否已提交；没有事务时立即按已提交执行
+     */
+    private void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+    
+    /**
+     * 处理单个预占超时的订单：仍待付款则取消，已取消则释放，其他状态说明已支付则确认
+     */
+    private void releaseExpiredOrder(Integer orderId) {
+        List<Order> locked = orderMapper.selectStatusForUpdate(List.of(orderId));
+        if (locked.isEmpty()) {
+            releaseReservation(orderId);
+            return;
+        }
+        
+        Order order = locked.get(0);
+        if (ORDER_STATUS_PENDING.equals(order.getOrderStatus())) {
+            orderMapper.batchUpdateStatus(List.of(orderId), Set.of(ORDER_STATUS_PENDING), ORDER_STATUS_CANCELLED, LocalDateTime.now());
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                    orderId, order.getCreateTime(), order.getOrderStatus(), ORDER_STATUS_CANCELLED, order.getActualAmount()));
+            log.info("订单支付超时已取消，订单ID: {}", orderId);
+        } else if (ORDER_STATUS_CANCELLED.equals(order.getOrderStatus())) {
+            releaseReservation(orderId);
+        } else {
+            confirmReservation(orderId);
+        }
+    }
+    
+    /**
+     * 促销商品的内存库存计数
+     */
+    private static final class HotStock {
+        
+        /**
+         * 等待载入，期间仍走数据库扣减
+         */
+        static final int PENDING_LOAD = 0;
+        
+        /**
+         * 正在载入，期间的库存变更等待载入完成
+         */
+        static final int LOADING = 1;
+        
+        /**
+         * 使用内存计数扣减
+         */
+        static final int ACTIVE = 2;
+        
+        /**
+         * 促销结束，仍使用内存计数，等待在途事务完成后同步并移除
+         */
+        static final int RETIRING = 3;
+        
+        /**
+         * 正在同步剩余扣减，完成后移除
+         */
+        static final int DRAINING = 4;
+        
+        private final Integer productId;
+        
+        /**
+         * 可售库存
+         */
+        private final AtomicInteger available = new AtomicInteger();
+        
+        /**
+         * 已提交但尚未同步到数据库的净扣减量
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        
+        /**
+         * 使用该计数且尚未结束的事务数
+         */
+        private final AtomicInteger inflight = new AtomicInteger();
+        
+        private volatile int state = PENDING_LOAD;
+        
+        HotStock(Integer productId) {
+            this.productId = productId;
+        }
+        
+        /**
+         * 无锁扣减，可售库存不足时返回false
+         */
+        boolean tryDeduct(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+    }
+}
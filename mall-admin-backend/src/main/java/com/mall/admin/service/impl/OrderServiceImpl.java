@@ -1,34 +1,46 @@
 package com.mall.admin.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.mall.admin.entity.Order;
 import com.mall.admin.entity.OrderItem;
 import com.mall.admin.mapper.OrderMapper;
 import com.mall.admin.mapper.OrderItemMapper;
+import com.mall.admin.service.IInventoryService;
 import com.mall.admin.service.IOrderService;
 import com.mall.admin.dto.request.OrderRequest;
+import com.mall.admin.dto.response.BatchOperationResponse;
 import com.mall.admin.dto.response.OrderResponse;
 import com.mall.admin.dto.response.OrderItemResponse;
 import com.mall.admin.dto.response.UserResponse;
 import com.mall.admin.dto.response.UserAddressResponse;
 import com.mall.admin.dto.response.CouponResponse;
+import com.mall.admin.common.PageCursor;
 import com.mall.admin.common.PageResult;
+import com.mall.admin.common.cache.CachedValue;
 import com.mall.admin.common.exception.BusinessException;
+import com.mall.admin.event.OrderStatusBatchChangedEvent;
+import com.mall.admin.event.OrderStatusChangedEvent;
+import com.mall.admin.util.PageQueryHelper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -44,10 +56,49 @@ public class OrderServiceImpl implements IOrderService {
     
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
+    private final IInventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageQueryHelper pageQueryHelper;
+    
+    /**
+     * 统计结果缓存时间（秒）
+     */
+    @Value("${mall.statistics.cache-ttl-seconds:10}")
+    private long statisticsCacheTtlSeconds;
+    
+    /**
+     * 订单统计缓存，管理后台轮询时避免每次都扫描订单表
+     */
+    private CachedValue<Map<String, Object>> orderStatisticsCache;
+    
+    @PostConstruct
+    public void initStatisticsCache() {
+        orderStatisticsCache = new CachedValue<>(this::loadOrderStatistics, statisticsCacheTtlSeconds * 1000);
+    }
+    
+    /**
+     * 销售统计支持的分组维度
+     */
+    private static final Set<String> SALES_GROUP_BY = Set.of("day", "week", "month", "status");
+    
+    /**
+     * 批量操作每批处理的记录数，避免IN列表或VALUES列表过长
+     */
+    private static final int BATCH_CHUNK_SIZE = 500;
+    
+    /**
+     * 批量更新时各目标状态允许的原状态
+     */
+    private static final Map<Integer, Set<Integer>> ALLOWED_FROM_STATUS = Map.of(
+            2, Set.of(1),
+            3, Set.of(2),
+            4, Set.of(3),
+            5, Set.of(3, 4),
+            6, Set.of(1));
     
     @Override
-    public PageResult<OrderResponse> getOrderList(Integer page, Integer size, String keyword, Integer status, Integer userId) {
-        log.info("获取订单列表，页码: {}, 大小: {}, 关键词: {}, 状态: {}, 用户ID: {}", page, size, keyword, status, userId);
+    public PageResult<OrderResponse> getOrderList(Integer page, Integer size, String keyword, Integer status, Integer userId, Boolean withItems, String after, Boolean exactTotal) {
+        log.info("获取订单列表，页码: {}, 大小: {}, 关键词: {}, 状态: {}, 用户ID: {}, 返回明细: {}, 游标: {}, 精确总数: {}", page, size, keyword, status, userId, withItems, after, exactTotal);
         
         // 构建查询条件
         LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
@@ -69,19 +120,29 @@ public class OrderServiceImpl implements IOrderService {
         // 用户ID
         queryWrapper.eq(userId != null, Order::getUserId, userId);
         
-        // 排序
-        queryWrapper.orderByDesc(Order::getCreateTime);
+        // 游标分页：从上一页最后一个订单之后读取，不统计总数
+        if (after != null) {
+            int pageSize = size != null ? size : 10;
+            PageCursor.seekByTimeDesc(queryWrapper, PageCursor.decode(after), Order::getCreateTime, Order::getOrderId, pageSize);
+            List<Order> orders = orderMapper.selectList(queryWrapper);
+            String nextCursor = null;
+            if (orders.size() > pageSize) {
+                orders = orders.subList(0, pageSize);
+                Order last = orders.get(pageSize - 1);
+                nextCursor = PageCursor.of(last.getCreateTime(), last.getOrderId()).encode();
+            }
+            return PageResult.ofCursor(convertToResponseList(orders, withItems), (long) pageSize, nextCursor);
+        }
         
-        // 分页查询
-        IPage<Order> pageInfo = new Page<>(page != null ? page : 1, size != null ? size : 10);
-        IPage<Order> result = orderMapper.selectPage(pageInfo, queryWrapper);
+        // 排序，创建时间相同时按订单ID保证顺序稳定
+        queryWrapper.orderByDesc(Order::getCreateTime).orderByDesc(Order::getOrderId);
         
-        // 转换为响应对象
-        List<OrderResponse> responseList = result.getRecords().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        // 分页查询，总数默认取自短时缓存
+        PageResult<Order> result = pageQueryHelper.selectPage(orderMapper, Order.class, queryWrapper,
+                page != null ? page : 1, size != null ? size : 10, Boolean.TRUE.equals(exactTotal));
         
-        return new PageResult<>(responseList, result.getTotal(), result.getCurrent(), result.getSize());
+        // 转换为响应对象
+        return result.withRecords(convertToResponseList(result.getRecords(), withItems));
     }
     
     @Override
@@ -131,12 +192,17 @@ public class OrderServiceImpl implements IOrderService {
             throw new BusinessException("订单创建失败");
         }
         
-        // 创建订单商品项
+        // 创建订单商品项，按批多行插入
         if (request.getOrderItems() != null && !request.getOrderItems().isEmpty()) {
-            for (OrderRequest.OrderItemRequest itemRequest : request.getOrderItems()) {
-                OrderItem orderItem = convertToOrderItem(itemRequest, order.getOrderId());
-                orderItemMapper.insert(orderItem);
+            List<OrderItem> orderItems = request.getOrderItems().stream()
+                    .map(itemRequest -> convertToOrderItem(itemRequest, order.getOrderId()))
+                    .collect(Collectors.toList());
+            for (int from = 0; from < orderItems.size(); from += BATCH_CHUNK_SIZE) {
+                orderItemMapper.insertBatch(orderItems.subList(from, Math.min(from + BATCH_CHUNK_SIZE, orderItems.size())));
             }
+            
+            // 最后预占库存，缩短热门商品行锁的持有时间
+            inventoryService.reserveStock(order.getOrderId(), orderItems);
         }
         
         log.info("订单创建成功，订单号: {}", orderNo);
@@ -180,11 +246,13 @@ public class OrderServiceImpl implements IOrderService {
             throw new BusinessException("只有待付款订单才能取消");
         }
         
+        Integer oldStatus = order.getOrderStatus();
         order.setOrderStatus(6); // 已取消
         order.setCancelTime(LocalDateTime.now());
         order.setRemark(order.getRemark() + " 取消原因: " + reason);
         
         orderMapper.updateById(order);
+        publishStatusChanged(order, oldStatus);
         
         log.info("订单取消成功，订单ID: {}", id);
     }
@@ -219,11 +287,13 @@ public class OrderServiceImpl implements IOrderService {
             throw new BusinessException("只有已付款订单才能发货");
         }
         
+        Integer oldStatus = order.getOrderStatus();
         order.setOrderStatus(3); // 已发货
         order.setShipTime(LocalDateTime.now());
         // 这里可以添加物流信息字段，如果需要的话
         
         orderMapper.updateById(order);
+        publishStatusChanged(order, oldStatus);
         
         log.info("订单发货成功，订单ID: {}", id);
     }
@@ -253,18 +323,20 @@ public class OrderServiceImpl implements IOrderService {
             throw new BusinessException("订单不存在");
         }
         
+        Integer oldStatus = order.getOrderStatus();
         order.setOrderStatus(status);
         
         int result = orderMapper.updateById(order);
         if (result <= 0) {
             throw new BusinessException("订单状态更新失败");
         }
+        publishStatusChanged(order, oldStatus);
         
         log.info("订单状态更新成功，订单ID: {}", id);
     }
     
     @Override
-    public List<OrderResponse> getOrdersByUserId(Integer userId) {
+    public List<OrderResponse> getOrdersByUserId(Integer userId, Boolean withItems) {
         log.info("根据用户ID获取订单列表，用户ID: {}", userId);
         
         LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
@@ -272,13 +344,11 @@ public class OrderServiceImpl implements IOrderService {
         queryWrapper.orderByDesc(Order::getCreateTime);
         
         List<Order> orders = orderMapper.selectList(queryWrapper);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponseList(orders, withItems);
     }
     
     @Override
-    public List<OrderResponse> getOrdersByStatus(Integer status) {
+    public List<OrderResponse> getOrdersByStatus(Integer status, Boolean withItems) {
         log.info("根据订单状态获取订单列表，状态: {}", status);
         
         LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
@@ -286,93 +356,209 @@ public class OrderServiceImpl implements IOrderService {
         queryWrapper.orderByDesc(Order::getCreateTime);
         
         List<Order> orders = orderMapper.selectList(queryWrapper);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponseList(orders, withItems);
     }
     
     @Override
     public Map<String, Object> getOrderStatistics() {
         log.info("获取订单统计信息");
+        return new HashMap<>(orderStatisticsCache.get());
+    }
+    
+    /**
+     * 一次聚合查询统计总订单数、各状态订单数和今日订单数
+     */
+    private Map<String, Object> loadOrderStatistics() {
+        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
+        Map<String, Object> row = orderMapper.selectOrderStatistics(todayStart);
         
         Map<String, Object> statistics = new HashMap<>();
-        
-        // 总订单数
-        Long totalOrders = orderMapper.selectCount(null);
-        statistics.put("totalOrders", totalOrders);
-        
-        // 各状态订单数
+        statistics.put("totalOrders", toLong(row, "totalOrders"));
         for (int status = 1; status <= 6; status++) {
-            LambdaQueryWrapper<Order> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(Order::getOrderStatus, status);
-            Long count = orderMapper.selectCount(wrapper);
-            statistics.put("status" + status + "Count", count);
+            String key = "status" + status + "Count";
+            statistics.put(key, toLong(row, key));
         }
-        
-        // 今日订单数
-        LambdaQueryWrapper<Order> todayWrapper = new LambdaQueryWrapper<>();
-        todayWrapper.ge(Order::getCreateTime, LocalDateTime.now().withHour(0).withMinute(0).withSecond(0));
-        Long todayOrders = orderMapper.selectCount(todayWrapper);
-        statistics.put("todayOrders", todayOrders);
-        
-        return statistics;
+        statistics.put("todayOrders", toLong(row, "todayOrders"));
+        return Map.copyOf(statistics);
     }
     
     @Override
-    public Map<String, Object> getSalesStatistics(String startDate, String endDate) {
-        log.info("获取销售统计，开始日期: {}, 结束日期: {}", startDate, endDate);
+    public Map<String, Object> getSalesStatistics(String startDate, String endDate, String groupBy) {
+        log.info("获取销售统计，开始日期: {}, 结束日期: {}, 分组维度: {}", startDate, endDate, groupBy);
         
         Map<String, Object> statistics = new HashMap<>();
         
-        LambdaQueryWrapper<Order> queryWrapper = new LambdaQueryWrapper<>();
-        
         // 解析日期
-        if (StringUtils.hasText(startDate)) {
-            LocalDateTime start = LocalDateTime.parse(startDate + " 00:00:00", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            queryWrapper.ge(Order::getCreateTime, start);
+        LocalDateTime start = parseStartDate(startDate);
+        LocalDateTime end = parseEndDate(endDate);
+        
+        // 只统计有效订单（非取消状态），在数据库中聚合
+        if (!StringUtils.hasText(groupBy)) {
+            Map<String, Object> summary = orderMapper.selectSalesSummary(start, end);
+            statistics.put("totalSales", summary.get("totalSales"));
+            statistics.put("orderCount", ((Number) summary.get("orderCount")).intValue());
+            return statistics;
         }
         
-        if (StringUtils.hasText(endDate)) {
-            LocalDateTime end = LocalDateTime.parse(endDate + " 23:59:59", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            queryWrapper.le(Order::getCreateTime, end);
+        if (!SALES_GROUP_BY.contains(groupBy)) {
+            throw new BusinessException("不支持的分组维度: " + groupBy);
         }
         
-        // 只统计有效订单（非取消状态）
-        queryWrapper.ne(Order::getOrderStatus, 6);
-        
-        List<Order> orders = orderMapper.selectList(queryWrapper);
-        
-        // 计算销售金额
-        BigDecimal totalSales = orders.stream()
-                .map(Order::getActualAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 分组明细和合计在同一次查询中得到
+        List<Map<String, Object>> breakdown = orderMapper.selectSalesGroupBy(start, end, groupBy);
+        BigDecimal totalSales = BigDecimal.ZERO;
+        int orderCount = 0;
+        for (Map<String, Object> row : breakdown) {
+            totalSales = totalSales.add((BigDecimal) row.get("totalSales"));
+            orderCount += ((Number) row.get("orderCount")).intValue();
+        }
         
         statistics.put("totalSales", totalSales);
-        statistics.put("orderCount", orders.size());
+        statistics.put("orderCount", orderCount);
+        statistics.put("groupBy", groupBy);
+        statistics.put("breakdown", breakdown);
         
         return statistics;
     }
     
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void batchUpdateStatus(List<Integer> ids, Integer status) {
-        log.info("批量更新订单状态，订单ID列表: {}, 新状态: {}", ids, status);
+    public BatchOperationResponse batchUpdateStatus(List<Integer> ids, Integer status) {
+        log.info("批量更新订单状态，订单数量: {}, 新状态: {}", ids == null ? 0 : ids.size(), status);
         
         if (ids == null || ids.isEmpty()) {
             throw new BusinessException("订单ID列表不能为空");
         }
+        Set<Integer> fromStatuses = ALLOWED_FROM_STATUS.get(status);
+        if (fromStatuses == null) {
+            throw new BusinessException("不支持批量更新为该状态");
+        }
         
-        for (Integer id : ids) {
-            updateOrderStatus(id, status);
+        BatchOperationResponse response = new BatchOperationResponse();
+        List<Integer> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderStatusChangedEvent> changes = new ArrayList<>();
+        
+        for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+            
+            // 一次查询锁定本批订单，后续UPDATE命中的行与校验结果一致
+            Map<Integer, Order> orderMap = orderMapper.selectStatusForUpdate(chunk).stream()
+                    .collect(Collectors.toMap(Order::getOrderId, order -> order));
+            
+            List<Order> accepted = new ArrayList<>(chunk.size());
+            for (Integer id : chunk) {
+                Order order = orderMap.get(id);
+                if (order == null) {
+                    response.reject(id, "订单不存在");
+                } else if (!fromStatuses.contains(order.getOrderStatus())) {
+                    response.reject(id, "当前状态[" + getOrderStatusName(order.getOrderStatus()) + "]不允许变更为["
+                            + getOrderStatusName(status) + "]");
+                } else {
+                    accepted.add(order);
+                }
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            
+            List<Integer> acceptedIds = accepted.stream()
+                    .map(Order::getOrderId)
+                    .collect(Collectors.toList());
+            int updated = orderMapper.batchUpdateStatus(acceptedIds, fromStatuses, status, now);
+            if (updated != acceptedIds.size()) {
+                throw new BusinessException("订单状态批量更新失败，请重试");
+            }
+            
+            // 本批离开待付款状态的订单一次释放或确认库存预占
+            List<Integer> pendingIds = accepted.stream()
+                    .filter(order -> Integer.valueOf(1).equals(order.getOrderStatus()))
+                    .map(Order::getOrderId)
+                    .collect(Collectors.toList());
+            if (Integer.valueOf(6).equals(status)) {
+                inventoryService.releaseReservations(pendingIds);
+            } else {
+                inventoryService.confirmReservations(pendingIds);
+            }
+            
+            for (Order order : accepted) {
+                Integer oldStatus = order.getOrderStatus();
+                order.setOrderStatus(status);
+                changes.add(new OrderStatusChangedEvent(order.getOrderId(), order.getCreateTime(),
+                        oldStatus, status, order.getActualAmount()));
+                response.getUpdatedIds().add(order.getOrderId());
+            }
         }
         
-        log.info("批量更新订单状态成功，更新数量: {}", ids.size());
+        // 整批发布一次，监听方对全部订单一次读取和写入派生数据
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new OrderStatusBatchChangedEvent(changes));
+        }
+        
+        log.info("批量更新订单状态完成，成功: {}, 拒绝: {}", response.getUpdatedCount(), response.getRejectedCount());
+        return response;
     }
     
     /**
-     * 将Order实体转换为OrderResponse
+     * 将Order实体转换为OrderResponse（包含订单项明细）
      */
     private OrderResponse convertToResponse(Order order) {
+        return convertToResponseList(List.of(order), true).get(0);
+    }
+    
+    /**
+     * 批量将Order实体转换为OrderResponse
+     * withItems为true时用一次IN查询取回本页全部订单项并按订单ID分组，
+     * 为false时只用一次GROUP BY查询返回各订单的订单项数量
+     */
+    private List<OrderResponse> convertToResponseList(List<Order> orders, Boolean withItems) {
+        if (orders == null || orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Integer> orderIds = orders.stream()
+                .map(Order::getOrderId)
+                .collect(Collectors.toList());
+        
+        List<OrderResponse> responseList = new ArrayList<>(orders.size());
+        if (Boolean.FALSE.equals(withItems)) {
+            Map<Integer, Integer> itemCountMap = new HashMap<>();
+            for (Map<String, Object> row : orderItemMapper.countByOrderIds(orderIds)) {
+                itemCountMap.put(((Number) row.get("orderId")).intValue(), ((Number) row.get("itemCount")).intValue());
+            }
+            for (Order order : orders) {
+                OrderResponse response = buildResponse(order);
+                response.setItemCount(itemCountMap.getOrDefault(order.getOrderId(), 0));
+                responseList.add(response);
+            }
+            return responseList;
+        }
+        
+        // 获取订单商品项
+        LambdaQueryWrapper<OrderItem> itemWrapper = new LambdaQueryWrapper<>();
+        itemWrapper.in(OrderItem::getOrderId, orderIds);
+        Map<Integer, List<OrderItem>> itemMap = orderItemMapper.selectList(itemWrapper).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        
+        for (Order order : orders) {
+            OrderResponse response = buildResponse(order);
+            List<OrderItemResponse> itemResponses = itemMap.getOrDefault(order.getOrderId(), List.of()).stream()
+                    .map(this::convertToOrderItemResponse)
+                    .collect(Collectors.toList());
+            response.setOrderItems(itemResponses);
+            response.setItemCount(itemResponses.size());
+            responseList.add(response);
+        }
+        return responseList;
+    }
+    
+    /**
+     * 映射订单基础字段（不涉及订单项）
+     */
+    private OrderResponse buildResponse(Order order) {
         OrderResponse response = new OrderResponse();
         
         // 基础字段映射
@@ -438,16 +624,6 @@ public class OrderServiceImpl implements IOrderService {
             response.setUpdateTime(order.getCreateTime());
         }
         
-        // 获取订单商品项
-        LambdaQueryWrapper<OrderItem> itemWrapper = new LambdaQueryWrapper<>();
-        itemWrapper.eq(OrderItem::getOrderId, order.getOrderId());
-        List<OrderItem> orderItems = orderItemMapper.selectList(itemWrapper);
-        
-        List<OrderItemResponse> itemResponses = orderItems.stream()
-                .map(this::convertToOrderItemResponse)
-                .collect(Collectors.toList());
-        response.setOrderItems(itemResponses);
-        
         return response;
     }
     
@@ -523,6 +699,45 @@ public class OrderServiceImpl implements IOrderService {
         return response;
     }
     
+    /**
+     * 读取聚合结果中的计数，SUM在空表上返回NULL
+     */
+    private Long toLong(Map<String, Object> row, String key) {
+        Object value = row != null ? row.get(key) : null;
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+    
+    /**
+     * 解析统计开始日期（当天零点，包含）
+     */
+    private LocalDateTime parseStartDate(String startDate) {
+        if (!StringUtils.hasText(startDate)) {
+            return null;
+        }
+        return LocalDate.parse(startDate, DateTimeFormatter.ofPattern("yyyy-MM-dd")).atStartOfDay();
+    }
+    
+    /**
+     * 解析统计结束日期（次日零点，不包含）
+     */
+    private LocalDateTime parseEndDate(String endDate) {
+        if (!StringUtils.hasText(endDate)) {
+            return null;
+        }
+        return LocalDate.parse(endDate, DateTimeFormatter.ofPattern("yyyy-MM-dd")).plusDays(1).atStartOfDay();
+    }
+    
+    /**
+     * 发布订单状态变更事件
+     */
+    private void publishStatusChanged(Order order, Integer oldStatus) {
+        if (oldStatus != null && oldStatus.equals(order.getOrderStatus())) {
+            return;
+        }
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getOrderId(), order.getCreateTime(), oldStatus, order.getOrderStatus(), order.getActualAmount()));
+    }
+    
     /**
      * 生成订单号
      */
@@ -0,0 +1,274 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.cache.ScoreRanking;
+import com.mall.admin.entity.Product;
+import com.mall.admin.mapper.ProductMapper;
+import com.mall.admin.service.IProductRankingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 商品排行榜服务实现类
+ * <p>
+ * 首页每次加载都要取热门和推荐商品，原来每次对全表排序后取前N条。
+ * 这里启动后在后台按主键分批读取商品的分类、销量和评分，放入按分数排序的跳表，读取前K名只需顺序遍历K个条目；
+ * 商品的增删改在事务提交后增量更新对应条目，销量和评分由订单、评价等其他途径写库，
+ * 按固定间隔全量重新加载一次进行修正。重新加载期间发生变更的商品在替换后重新读取一次。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductRankingServiceImpl implements IProductRankingService {
+    
+    /**
+     * 全量加载时每批读取的商品数
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+    
+    private static final Integer STATUS_ON_SALE = 1;
+    private static final Integer HOT = 1;
+    
+    private final ProductMapper productMapper;
+    
+    private volatile RankingSnapshot snapshot = new RankingSnapshot();
+    private volatile boolean ready;
+    private volatile boolean reloading;
+    private volatile long lastReloadMillis;
+    
+    /**
+     * 重新加载期间发生变更的商品ID
+     */
+    private final Set<Integer> changedDuringReload = ConcurrentHashMap.newKeySet();
+    
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @Override
+    public List<Integer> getHotProductIds(Integer categoryId, int limit) {
+        Rankings rankings = snapshot.rankings(categoryId);
+        return rankings != null ? rankings.hot.top(limit) : List.of();
+    }
+    
+    @Override
+    public List<Integer> getRecommendedProductIds(Integer categoryId, int limit) {
+        Rankings rankings = snapshot.rankings(categoryId);
+        return rankings != null ? rankings.recommended.top(limit) : List.of();
+    }
+    
+    @Override
+    public void refreshProducts(Collection<Integer> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> ids = new HashSet<>(productIds);
+        afterCommit(() -> {
+            if (reloading) {
+                changedDuringReload.addAll(ids);
+            }
+            try {
+                reload(snapshot, ids);
+            } catch (Exception e) {
+                // 下次全量加载时修正
+                log.error("商品排行榜增量更新失败，商品ID: {}", ids, e);
+            }
+        });
+    }
+    
+    @Override
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        reloading = true;
+        changedDuringReload.clear();
+        try {
+            RankingSnapshot reloaded = new RankingSnapshot();
+            Integer afterId = 0;
+            List<Product> batch;
+            do {
+                batch = productMapper.selectRankingFieldsAfter(afterId, LOAD_BATCH_SIZE);
+                for (Product product : batch) {
+                    reloaded.put(product);
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getProductId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            
+            snapshot = reloaded;
+            ready = true;
+        } finally {
+            reloading = false;
+        }
+        
+        if (!changedDuringReload.isEmpty()) {
+            Set<Integer> changed = new HashSet<>(changedDuringReload);
+            changedDuringReload.removeAll(changed);
+            reload(snapshot, changed);
+        }
+        lastReloadMillis = System.currentTimeMillis() - start;
+        log.debug("商品排行榜加载完成，上架商品数: {}, 耗时: {}ms", snapshot.all.recommended.size(), lastReloadMillis);
+    }
+    
+    @Override
+    public Map<String, Object> getStatistics() {
+        RankingSnapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("ready", ready);
+        statistics.put("products", current.all.recommended.size());
+        statistics.put("hotProducts", current.all.hot.size());
+        statistics.put("categories", current.byCategory.size());
+        statistics.put("lastReloadMillis", lastReloadMillis);
+        return statistics;
+    }
+    
+    /**
+     * 应用启动后在后台线程加载排行榜，加载完成前回退到数据库查询
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::safeReload, "product-ranking-reload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 定时全量重新加载，修正订单、评价等途径写入的销量和评分
+     */
+    @Scheduled(fixedDelayString = "${mall.ranking.reload-interval-ms:300000}",
+            initialDelayString = "${mall.ranking.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        safeReload();
+    }
+    
+    private void safeReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("商品排行榜加载失败", e);
+        }
+    }
+    
+    /**
+     * 从数据库读取商品更新排行，不存在的商品从排行中移除
+     */
+    private void reload(RankingSnapshot target, Set<Integer> productIds) {
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productMapper.selectBatchIds(productIds)) {
+            products.put(product.getProductId(), product);
+        }
+        for (Integer productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null) {
+                target.remove(productId);
+            } else {
+                target.put(product);
+            }
+        }
+    }
+    
+    /**
+     * 在当前事务提交后执行；没有事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * 全站及各分类的排行榜，全量加载时整体替换
+     */
+    private static final class RankingSnapshot {
+        
+        private final Rankings all = new Rankings();
+        private final Map<Integer, Rankings> byCategory = new ConcurrentHashMap<>();
+        
+        /**
+         * 商品当前所在分类，分类变更时从原分类的排行中移除
+         */
+        private final Map<Integer, Integer> productCategories = new ConcurrentHashMap<>();
+        
+        Rankings rankings(Integer categoryId) {
+            return categoryId == null ? all : byCategory.get(categoryId);
+        }
+        
+        synchronized void put(Product product) {
+            int productId = product.getProductId();
+            if (!STATUS_ON_SALE.equals(product.getStatus())) {
+                remove(productId);
+                return;
+            }
+            Integer categoryId = product.getCategoryId();
+            Integer previousCategoryId = categoryId != null
+                    ? productCategories.put(productId, categoryId)
+                    : productCategories.remove(productId);
+            if (previousCategoryId != null && !previousCategoryId.equals(categoryId)) {
+                byCategory.get(previousCategoryId).remove(productId);
+            }
+            all.put(product);
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, k -> new Rankings()).put(product);
+            }
+        }
+        
+        synchronized void remove(Integer productId) {
+            all.remove(productId);
+            Integer categoryId = productCategories.remove(productId);
+            if (categoryId != null) {
+                byCategory.get(categoryId).remove(productId);
+            }
+        }
+    }
+    
+    /**
+     * 热门和推荐两个排行
+     */
+    private static final class Rankings {
+        
+        private final ScoreRanking hot = new ScoreRanking();
+        private final ScoreRanking recommended = new ScoreRanking();
+        
+        void put(Product product) {
+            int productId = product.getProductId();
+            double sales = product.getSalesCount() != null ? product.getSalesCount() : 0;
+            double rating = product.getRatingAverage() != null ? product.getRatingAverage().doubleValue() : 0;
+            if (HOT.equals(product.getIsHot())) {
+                hot.update(productId, sales, 0);
+            } else {
+                hot.remove(productId);
+            }
+            recommended.update(productId, rating, sales);
+        }
+        
+        void remove(int productId) {
+            hot.remove(productId);
+            recommended.remove(productId);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.recommend.CoOccurrenceMatrix;
+import com.mall.admin.common.search.CompressedBitmap;
+import com.mall.admin.entity.Order;
+import com.mall.admin.entity.OrderItem;
+import com.mall.admin.event.OrderStatusBatchChangedEvent;
+import com.mall.admin.event.OrderStatusChangedEvent;
+import com.mall.admin.mapper.OrderItemMapper;
+import com.mall.admin.mapper.OrderMapper;
+import com.mall.admin.service.IProductRecommendationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 商品关联推荐服务实现类
+ * <p>
+ * 启动后在后台按订单ID分批读取已收货和已完成的订单，把每个订单的商品作为一个购物篮加入共现矩阵，
+ * 同时用压缩位图记录已计入的订单。此后订单进入或离开这两个状态时，在事务提交后对照位图增量加入或撤销该订单，
+ * 同一事务中变更的订单一起读取商品并一次写入矩阵，不需要定期重算整个矩阵。
+ * 重新构建期间发生变更的订单在替换后按数据库中的最新状态重新核对一次。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductRecommendationServiceImpl implements IProductRecommendationService {
+    
+    /**
+     * 全量构建时每批读取的订单数
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+    
+    /**
+     * 计入共现矩阵的订单状态：已收货、已完成
+     */
+    private static final Set<Integer> PURCHASED_STATUSES = Set.of(4, 5);
+    
+    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
+    
+    /**
+     * 商品种类超过该数量的订单不计入，这类订单产生的商品对数量按平方增长且关联性弱
+     */
+    @Value("${mall.recommendation.max-basket-size:50}")
+    private int maxBasketSize;
+    
+    /**
+     * 共同购买次数低于该值的商品对不参与推荐
+     */
+    @Value("${mall.recommendation.min-co-count:1}")
+    private int minCoCount;
+    
+    /**
+     * 个性化推荐时参考的用户最近购买商品数
+     */
+    @Value("${mall.recommendation.user-history-size:20}")
+    private int userHistorySize;
+    
+    private volatile RecommendationSnapshot snapshot = new RecommendationSnapshot();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private volatile long lastRebuildMillis;
+    
+    /**
+     * 重新构建期间状态发生变化的订单ID
+     */
+    private final Set<Integer> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @Override
+    public List<Integer> getAlsoBoughtProductIds(Integer productId, int limit) {
+        if (productId == null) {
+            return List.of();
+        }
+        return snapshot.matrix.similar(productId, limit, minCoCount);
+    }
+    
+    @Override
+    public List<Integer> getPersonalizedProductIds(Integer userId, int limit) {
+        if (userId == null) {
+            return List.of();
+        }
+        List<Integer> purchased = orderItemMapper.getUserPurchasedProducts(userId, userHistorySize);
+        return snapshot.matrix.recommend(purchased, limit, minCoCount);
+    }
+    
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            RecommendationSnapshot rebuilt = new RecommendationSnapshot();
+            Integer afterId = 0;
+            List<Integer> orderIds;
+            do {
+                orderIds = orderMapper.selectIdsByStatusAfter(PURCHASED_STATUSES, afterId, LOAD_BATCH_SIZE);
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                Map<Integer, List<Integer>> baskets = new HashMap<>();
+                for (OrderItem item : orderItemMapper.selectProductIdsByOrderIds(orderIds)) {
+                    baskets.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(item.getProductId());
+                }
+                for (Integer orderId : orderIds) {
+                    List<Integer> basket = baskets.get(orderId);
+                    rebuilt.sync(orderId, true, () -> toBasket(basket));
+                }
+                afterId = orderIds.get(orderIds.size() - 1);
+            } while (orderIds.size() == LOAD_BATCH_SIZE);
+            
+            snapshot = rebuilt;
+            ready = true;
+        } finally {
+            rebuilding = false;
+        }
+        
+        if (!changedDuringRebuild.isEmpty()) {
+            Set<Integer> changed = new HashSet<>(changedDuringRebuild);
+            changedDuringRebuild.removeAll(changed);
+            Map<Integer, Boolean> purchasedByOrder = new HashMap<>();
+            for (Integer orderId : changed) {
+                purchasedByOrder.put(orderId, false);
+            }
+            for (Order order : orderMapper.selectBatchIds(changed)) {
+                purchasedByOrder.put(order.getOrderId(), isPurchased(order.getOrderStatus()));
+            }
+            sync(snapshot, purchasedByOrder);
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("商品共现矩阵构建完成，订单数: {}, 商品数: {}, 耗时: {}ms",
+                snapshot.orderCount(), snapshot.matrix.itemCount(), lastRebuildMillis);
+    }
+    
+    @Override
+    public Map<String, Object> getStatistics() {
+        RecommendationSnapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("ready", ready);
+        statistics.put("orders", current.orderCount());
+        statistics.put("products", current.matrix.itemCount());
+        statistics.put("pairs", current.matrix.pairCount());
+        statistics.put("lastRebuildMillis", lastRebuildMillis);
+        return statistics;
+    }
+    
+    /**
+     * 订单进入或离开已收货、已完成状态时记录到当前事务，事务提交后与同一事务中的其他订单一起加入或撤销购物篮；
+     * 没有事务时立即处理
+     */
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        collectChanges(List.of(event));
+    }
+    
+    /**
+     * 批量变更的订单同样记录到当前事务，事务提交后一次读取全部订单的商品
+     */
+    @EventListener
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        collectChanges(event.getChanges());
+    }
+    
+    private void collectChanges(List<OrderStatusChangedEvent> events) {
+        Map<Integer, Boolean> purchasedByOrder = new LinkedHashMap<>();
+        for (OrderStatusChangedEvent event : events) {
+            boolean purchased = isPurchased(event.getNewStatus());
+            if (isPurchased(event.getOldStatus()) != purchased) {
+                purchasedByOrder.put(event.getOrderId(), purchased);
+            }
+        }
+        if (purchasedByOrder.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyChanges(purchasedByOrder);
+            return;
+        }
+        pendingChanges().purchasedByOrder.putAll(purchasedByOrder);
+    }
+    
+    /**
+     * 应用启动后在后台线程构建共现矩阵，构建完成前调用方使用其他推荐方式
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::safeRebuild, "product-recommendation-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 定时全量重新构建，默认不启用；订单状态被直接改库时可配置该任务进行修正
+     */
+    @Scheduled(cron = "${mall.recommendation.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        safeRebuild();
+    }
+    
+    private void safeRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("商品共现矩阵构建失败", e);
+        }
+    }
+    
+    /**
+     * 当前事务中已注册的待同步订单，首次调用时注册
+     */
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending) {
+                return pending;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+    
+    private void applyChanges(Map<Integer, Boolean> purchasedByOrder) {
+        if (rebuilding) {
+            changedDuringRebuild.addAll(purchasedByOrder.keySet());
+        }
+        try {
+            sync(snapshot, purchasedByOrder);
+        } catch (Exception e) {
+            // 下次全量构建时修正
+            log.error("增量更新商品共现矩阵失败，订单ID: {}", purchasedByOrder.keySet(), e);
+        }
+    }
+    
+    /**
+     * 使订单在矩阵中的计入状态与其是否已购买一致，需要变更的订单一次读取商品
+     */
+    private void sync(RecommendationSnapshot target, Map<Integer, Boolean> purchasedByOrder) {
+        target.sync(purchasedByOrder, orderIds -> {
+            Map<Integer, List<Integer>> productIds = new HashMap<>();
+            for (OrderItem item : orderItemMapper.selectProductIdsByOrderIds(orderIds)) {
+                productIds.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(item.getProductId());
+            }
+            Map<Integer, int[]> baskets = new HashMap<>();
+            for (Integer orderId : orderIds) {
+                baskets.put(orderId, toBasket(productIds.get(orderId)));
+            }
+            return baskets;
+        });
+    }
+    
+    /**
+     * 转换为购物篮，商品种类过多的订单返回null表示不计入
+     */
+    private int[] toBasket(List<Integer> productIds) {
+        if (productIds == null) {
+            return new int[0];
+        }
+        int[] basket = productIds.stream()
+                .filter(id -> id != null && id > 0)
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .toArray();
+        return basket.length <= maxBasketSize ? basket : null;
+    }
+    
+    private static boolean isPurchased(Integer status) {
+        return status != null && PURCHASED_STATUSES.contains(status);
+    }
+    
+    /**
+     * 一个事务中计入状态发生变化的订单及其最终是否已购买，事务提交后批量同步
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        
+        private final Map<Integer, Boolean> purchasedByOrder = new LinkedHashMap<>();
+        
+        @Override
+        public void afterCommit() {
+            applyChanges(purchasedByOrder);
+        }
+    }
+    
+    /**
+     * 共现矩阵及已计入的订单，全量构建时整体替换
+     */
+    private static final class RecommendationSnapshot {
+        
+        private final CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        
+        /**
+         * 已计入矩阵的订单ID，撤销时只处理确实计入过的订单，重复的事件不会重复计数
+         */
+        private final CompressedBitmap orders = new CompressedBitmap();
+        
+        synchronized void sync(int orderId, boolean purchased, Supplier<int[]> basketLoader) {
+            boolean counted = orders.contains(orderId);
+            if (purchased == counted) {
+                return;
+            }
+            int[] basket = basketLoader.get();
+            if (basket == null) {
+                return;
+            }
+            if (purchased) {
+                matrix.add(basket);
+                orders.add(orderId);
+            } else {
+                matrix.remove(basket);
+                orders.remove(orderId);
+            }
+        }
+        
+        /**
+         * 批量同步多个订单，只为计入状态需要变化的订单读取购物篮，矩阵只获取一次写锁
+         */
+        synchronized void sync(Map<Integer, Boolean> purchasedByOrder,
+                               Function<Collection<Integer>, Map<Integer, int[]>> basketLoader) {
+            List<Integer> changed = new ArrayList<>();
+            purchasedByOrder.forEach((orderId, purchased) -> {
+                if (purchased != orders.contains(orderId)) {
+                    changed.add(orderId);
+                }
+            });
+            if (changed.isEmpty()) {
+                return;
+            }
+            Map<Integer, int[]> baskets = basketLoader.apply(changed);
+            List<int[]> added = new ArrayList<>();
+            List<int[]> removed = new ArrayList<>();
+            for (Integer orderId : changed) {
+                int[] basket = baskets.get(orderId);
+                if (basket == null) {
+                    continue;
+                }
+                if (purchasedByOrder.get(orderId)) {
+                    added.add(basket);
+                    orders.add(orderId);
+                } else {
+                    removed.add(basket);
+                    orders.remove(orderId);
+                }
+            }
+            matrix.update(added, removed);
+        }
+        
+        synchronized int orderCount() {
+            return orders.cardinality();
+        }
+    }
+}
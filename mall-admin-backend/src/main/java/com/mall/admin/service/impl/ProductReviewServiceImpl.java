@@ -0,0 +1,404 @@
+package com.mall.admin.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.mall.admin.common.CounterType;
+import com.mall.admin.common.PageResult;
+import com.mall.admin.common.exception.BusinessException;
+import com.mall.admin.dto.request.ProductReviewRequest;
+import com.mall.admin.dto.response.ProductReviewResponse;
+import com.mall.admin.entity.Product;
+import com.mall.admin.entity.ProductReview;
+import com.mall.admin.mapper.ProductMapper;
+import com.mall.admin.mapper.ProductReviewMapper;
+import com.mall.admin.service.ICounterService;
+import com.mall.admin.service.IProductRankingService;
+import com.mall.admin.service.IProductReviewService;
+import com.mall.admin.util.PageQueryHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 商品评价服务实现类
+ * <p>
+ * 商品表上保存1-5星各自的评价数量，评价新增、删除或修改评分时在同一事务内用一条UPDATE调整对应星级，
+ * 并由分布重算评价数量和平均评分。平均评分、评价数量、各星级数量和好中差评统计都只需读取商品的一行，
+ * 不再对评价表分别执行AVG和COUNT；好评、中评、差评列表在对应数量为0时直接返回空列表。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductReviewServiceImpl implements IProductReviewService {
+    
+    private static final Integer AUDIT_PENDING = 0;
+    
+    private final ProductReviewMapper productReviewMapper;
+    private final ProductMapper productMapper;
+    private final IProductRankingService productRankingService;
+    private final ICounterService counterService;
+    private final PageQueryHelper pageQueryHelper;
+    
+    @Override
+    public PageResult<ProductReviewResponse> getReviewList(Integer page, Integer size, Integer productId, Integer userId, Integer rating) {
+        log.info("获取商品评价列表，页码: {}, 大小: {}, 商品ID: {}, 用户ID: {}, 评分: {}", page, size, productId, userId, rating);
+        
+        LambdaQueryWrapper<ProductReview> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(productId != null, ProductReview::getProductId, productId)
+                   .eq(userId != null, ProductReview::getUserId, userId)
+                   .eq(rating != null, ProductReview::getRating, rating)
+                   .orderByDesc(ProductReview::getCreateTime)
+                   .orderByDesc(ProductReview::getReviewId);
+        
+        PageResult<ProductReview> reviewPage = pageQueryHelper.selectPage(productReviewMapper, ProductReview.class, queryWrapper,
+                page != null ? page : 1, size != null ? size : 10, false);
+        return reviewPage.withRecords(convertToResponseList(reviewPage.getRecords()));
+    }
+    
+    @Override
+    public ProductReviewResponse getReviewById(Integer id) {
+        return convertToResponse(getReviewOrThrow(id));
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void createReview(ProductReviewRequest request) {
+        log.info("创建商品评价，用户ID: {}, 商品ID: {}, 评分: {}", request.getUserId(), request.getProductId(), request.getRating());
+        
+        if (productMapper.selectById(request.getProductId()) == null) {
+            throw new BusinessException("商品不存在");
+        }
+        if (existsByUserIdAndProductId(request.getUserId(), request.getProductId())) {
+            throw new BusinessException("已评价过该商品");
+        }
+        
+        ProductReview review = new ProductReview();
+        review.setUserId(request.getUserId());
+        review.setProductId(request.getProductId());
+        review.setOrderId(request.getOrderId());
+        review.setRating(request.getRating());
+        review.setReviewContent(request.getContent());
+        review.setReviewImages(request.getImages());
+        review.setIsAnonymous(request.getIsAnonymous() != null ? request.getIsAnonymous() : 0);
+        review.setAuditStatus(AUDIT_PENDING);
+        review.setLikeCount(0);
+        review.setIsTop(0);
+        
+        int result = productReviewMapper.insert(review);
+        if (result <= 0) {
+            throw new BusinessException("创建评价失败");
+        }
+        addRating(review.getProductId(), review.getRating(), 1);
+        
+        log.info("商品评价创建成功，评价ID: {}", review.getReviewId());
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void updateReview(Integer id, ProductReviewRequest request) {
+        log.info("更新商品评价，评价ID: {}", id);
+        
+        // 加锁读取原评分，并发修改或删除同一评价时依次执行，不会按同一个旧评分重复调整评价分布
+        ProductReview existing = getReviewForUpdateOrThrow(id);
+        
+        ProductReview review = new ProductReview();
+        review.setReviewId(id);
+        review.setRating(request.getRating());
+        review.setReviewContent(request.getContent());
+        review.setReviewImages(request.getImages());
+        review.setIsAnonymous(request.getIsAnonymous());
+        
+        int result = productReviewMapper.updateById(review);
+        if (result <= 0) {
+            throw new BusinessException("更新评价失败");
+        }
+        if (request.getRating() != null && !request.getRating().equals(existing.getRating())) {
+            addRating(existing.getProductId(), existing.getRating(), -1);
+            addRating(existing.getProductId(), request.getRating(), 1);
+        }
+        
+        log.info("商品评价更新成功，评价ID: {}", id);
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteReview(Integer id) {
+        log.info("删除商品评价，评价ID: {}", id);
+        
+        ProductReview review = getReviewForUpdateOrThrow(id);
+        // 加锁后评分不会被并发修改，并发删除同一评价时只有一个事务能删除成功，只调整一次评价分布
+        if (productReviewMapper.deleteById(id) > 0) {
+            addRating(review.getProductId(), review.getRating(), -1);
+        }
+        
+        log.info("商品评价删除成功，评价ID: {}", id);
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getReviewsByProductId(Integer productId) {
+        return selectReviews(new LambdaQueryWrapper<ProductReview>()
+                .eq(ProductReview::getProductId, productId));
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getReviewsByUserId(Integer userId) {
+        return selectReviews(new LambdaQueryWrapper<ProductReview>()
+                .eq(ProductReview::getUserId, userId));
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getReviewsByProductIdAndRating(Integer productId, Integer rating) {
+        if (countByProductIdAndRating(productId, rating) == 0) {
+            return new ArrayList<>();
+        }
+        return selectReviews(new LambdaQueryWrapper<ProductReview>()
+                .eq(ProductReview::getProductId, productId)
+                .eq(ProductReview::getRating, rating));
+    }
+    
+    @Override
+    public Double getAverageRating(Integer productId) {
+        Product product = selectRatingHistogram(productId);
+        return product != null && product.getRatingAverage() != null ? product.getRatingAverage().doubleValue() : 0.0;
+    }
+    
+    @Override
+    public Long countByProductId(Integer productId) {
+        return sum(histogram(selectRatingHistogram(productId)), 1, 5);
+    }
+    
+    @Override
+    public Long countByProductIdAndRating(Integer productId, Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            return 0L;
+        }
+        return histogram(selectRatingHistogram(productId))[rating - 1];
+    }
+    
+    @Override
+    public boolean existsByUserIdAndProductId(Integer userId, Integer productId) {
+        return productReviewMapper.exists(new LambdaQueryWrapper<ProductReview>()
+                .eq(ProductReview::getUserId, userId)
+                .eq(ProductReview::getProductId, productId));
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getReviewsWithImagesByProductId(Integer productId) {
+        return selectReviews(new LambdaQueryWrapper<ProductReview>()
+                .eq(ProductReview::getProductId, productId)
+                .isNotNull(ProductReview::getReviewImages)
+                .ne(ProductReview::getReviewImages, ""));
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getPositiveReviews(Integer productId) {
+        return getReviewsByRatingRange(productId, 4, 5);
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getNeutralReviews(Integer productId) {
+        return getReviewsByRatingRange(productId, 3, 3);
+    }
+    
+    @Override
+    public List<ProductReviewResponse> getNegativeReviews(Integer productId) {
+        return getReviewsByRatingRange(productId, 1, 2);
+    }
+    
+    @Override
+    public List<ProductReviewResponse> searchReviews(String keyword) {
+        if (!StringUtils.hasText(keyword)) {
+            return new ArrayList<>();
+        }
+        return selectReviews(new LambdaQueryWrapper<ProductReview>()
+                .like(ProductReview::getReviewContent, keyword));
+    }
+    
+    @Override
+    public Map<String, Object> getReviewStatistics(Integer productId) {
+        Product product = selectRatingHistogram(productId);
+        long[] histogram = histogram(product);
+        long total = sum(histogram, 1, 5);
+        long positive = sum(histogram, 4, 5);
+        
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int rating = 5; rating >= 1; rating--) {
+            distribution.put(String.valueOf(rating), histogram[rating - 1]);
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("totalCount", total);
+        statistics.put("averageRating", product != null && product.getRatingAverage() != null
+                ? product.getRatingAverage() : BigDecimal.ZERO);
+        statistics.put("ratingDistribution", distribution);
+        statistics.put("positiveCount", positive);
+        statistics.put("neutralCount", sum(histogram, 3, 3));
+        statistics.put("negativeCount", sum(histogram, 1, 2));
+        statistics.put("positiveRate", total > 0
+                ? BigDecimal.valueOf(positive * 100).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        return statistics;
+    }
+    
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void batchDeleteReviews(List<Integer> ids) {
+        log.info("批量删除商品评价，评价ID: {}", ids);
+        
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        for (ProductReview review : productReviewMapper.selectByIdsForUpdate(new HashSet<>(ids))) {
+            if (productReviewMapper.deleteById(review.getReviewId()) > 0) {
+                addRating(review.getProductId(), review.getRating(), -1);
+            }
+        }
+    }
+    
+    @Override
+    public void likeReview(Integer id) {
+        if (id == null || id <= 0) {
+            throw new BusinessException("评价ID不能为空");
+        }
+        counterService.increment(CounterType.REVIEW_LIKE, id);
+    }
+    
+    /**
+     * 调整商品的评价分布，评分变化后刷新推荐排行
+     */
+    private void addRating(Integer productId, Integer rating, int delta) {
+        if (productId == null || rating == null || rating < 1 || rating > 5) {
+            return;
+        }
+        productMapper.addRating(productId, rating, delta);
+        productRankingService.refreshProducts(List.of(productId));
+    }
+    
+    private List<ProductReviewResponse> getReviewsByRatingRange(Integer productId, int minRating, int maxRating) {
+        if (sum(histogram(selectRatingHistogram(productId)), minRating, maxRating) == 0) {
+            return new ArrayList<>();
+        }
+        return selectReviews(new LambdaQueryWrapper<ProductReview>()
+                .eq(ProductReview::getProductId, productId)
+                .between(ProductReview::getRating, minRating, maxRating));
+    }
+    
+    private List<ProductReviewResponse> selectReviews(LambdaQueryWrapper<ProductReview> queryWrapper) {
+        queryWrapper.orderByDesc(ProductReview::getCreateTime);
+        return convertToResponseList(productReviewMapper.selectList(queryWrapper));
+    }
+    
+    /**
+     * 只读取商品的评价分布和平均评分
+     */
+    private Product selectRatingHistogram(Integer productId) {
+        if (productId == null) {
+            return null;
+        }
+        return productMapper.selectOne(new LambdaQueryWrapper<Product>()
+                .select(Product::getProductId, Product::getRatingAverage,
+                        Product::getRating1Count, Product::getRating2Count, Product::getRating3Count,
+                        Product::getRating4Count, Product::getRating5Count)
+                .eq(Product::getProductId, productId));
+    }
+    
+    /**
+     * 1-5星评价数量，下标0对应1星；商品不存在时全部为0
+     */
+    private static long[] histogram(Product product) {
+        long[] histogram = new long[5];
+        if (product != null) {
+            Integer[] counts = {product.getRating1Count(), product.getRating2Count(), product.getRating3Count(),
+                    product.getRating4Count(), product.getRating5Count()};
+            for (int i = 0; i < counts.length; i++) {
+                histogram[i] = counts[i] != null ? counts[i] : 0;
+            }
+        }
+        return histogram;
+    }
+    
+    private static long sum(long[] histogram, int minRating, int maxRating) {
+        long total = 0;
+        for (int rating = minRating; rating <= maxRating; rating++) {
+            total += histogram[rating - 1];
+        }
+        return total;
+    }
+    
+    private ProductReview getReviewOrThrow(Integer id) {
+        ProductReview review = id != null ? productReviewMapper.selectById(id) : null;
+        if (review == null) {
+            throw new BusinessException("评价不存在");
+        }
+        return review;
+    }
+    
+    private ProductReview getReviewForUpdateOrThrow(Integer id) {
+        ProductReview review = id != null ? productReviewMapper.selectByIdForUpdate(id) : null;
+        if (review == null) {
+            throw new BusinessException("评价不存在");
+        }
+        return review;
+    }
+    
+    private List<ProductReviewResponse> convertToResponseList(List<ProductReview> reviews) {
+        return reviews.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    private ProductReviewResponse convertToResponse(ProductReview review) {
+        ProductReviewResponse response = new ProductReviewResponse();
+        response.setReviewId(review.getReviewId());
+        response.setUserId(review.getUserId());
+        response.setProductId(review.getProductId());
+        response.setOrderId(review.getOrderId());
+        response.setOrderItemId(review.getOrderItemId());
+        response.setRating(review.getRating());
+        response.setContent(review.getReviewContent());
+        response.setImages(StringUtils.hasText(review.getReviewImages())
+                ? Arrays.asList(review.getReviewImages().split(","))
+                : new ArrayList<>());
+        response.setIsAnonymous(review.getIsAnonymous());
+        response.setStatus(review.getAuditStatus());
+        response.setStatusName(getAuditStatusName(review.getAuditStatus()));
+        response.setAuditComment(review.getAuditRemark());
+        response.setAuditTime(review.getAuditTime());
+        response.setMerchantReply(review.getMerchantReply());
+        response.setMerchantReplyTime(review.getMerchantReplyTime());
+        response.setIsTop(review.getIsTop());
+        response.setCreateTime(review.getCreateTime());
+        response.setUpdateTime(review.getUpdateTime());
+        
+        // 加上尚未写库的点赞数
+        int likeCount = review.getLikeCount() != null ? review.getLikeCount() : 0;
+        response.setLikeCount(likeCount + (int) counterService.getPending(CounterType.REVIEW_LIKE, review.getReviewId()));
+        return response;
+    }
+    
+    private String getAuditStatusName(Integer status) {
+        if (status == null) return "未知";
+        
+        switch (status) {
+            case 0: return "待审核";
+            case 1: return "已通过";
+            case 2: return "已拒绝";
+            default: return "未知";
+        }
+    }
+}
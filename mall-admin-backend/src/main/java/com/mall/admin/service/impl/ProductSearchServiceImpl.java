@@ -0,0 +1,597 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.FacetedPageResult;
+import com.mall.admin.common.PageCursor;
+import com.mall.admin.common.PageResult;
+import com.mall.admin.common.search.CompressedBitmap;
+import com.mall.admin.common.search.FacetIndex;
+import com.mall.admin.common.search.InvertedIndex;
+import com.mall.admin.common.search.PrefixSuggester;
+import com.mall.admin.dto.request.ProductQueryDTO;
+import com.mall.admin.dto.response.SearchSuggestionResponse;
+import com.mall.admin.entity.Product;
+import com.mall.admin.event.CategoryChangedEvent;
+import com.mall.admin.mapper.ProductMapper;
+import com.mall.admin.service.ICategoryService;
+import com.mall.admin.service.IProductSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * 商品搜索服务实现类
+ * <p>
+ * 启动后在后台线程按主键分批读取商品构建倒排索引，之后由商品的增删改在事务提交后增量更新，
+ * 每天定时全量重建一次，修正直接改库等未经过服务层的变更。
+ * 重建期间发生变更的商品在新索引替换旧索引后重新读取一次，避免被重建时读到的旧数据覆盖。
+ * 搜索联想词由索引中保存的上架商品名称、品牌和分类生成，按销量加权，
+ * 商品或分类变更后由定时任务在后台重建，查询时不访问数据库。
+ * 分类、品牌、材质、颜色、价格区间、状态等属性另建位图索引，与倒排索引一同维护，
+ * 列表筛选转为位图交集，并在同一次查询中给出各属性的分面计数。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchServiceImpl implements IProductSearchService {
+    
+    /**
+     * 全量构建时每批读取的商品数
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+    
+    private static final Integer STATUS_ON_SALE = 1;
+    
+    /**
+     * 各字段权重：名称和编码最高，品牌次之，材质颜色再次，描述最低
+     */
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CODE_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float ATTRIBUTE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    
+    /**
+     * 联想词类型
+     */
+    private static final String SUGGEST_TYPE_PRODUCT = "product";
+    private static final String SUGGEST_TYPE_BRAND = "brand";
+    private static final String SUGGEST_TYPE_CATEGORY = "category";
+    
+    /**
+     * 单次联想最多返回的数量
+     */
+    private static final int MAX_SUGGESTIONS = 20;
+    
+    /**
+     * 分面属性
+     */
+    private static final String FACET_CATEGORY = "categoryId";
+    private static final String FACET_BRAND = "brand";
+    private static final String FACET_MATERIAL = "material";
+    private static final String FACET_COLOR = "color";
+    private static final String FACET_PRICE = "price";
+    private static final String FACET_STATUS = "status";
+    private static final String FACET_HOT = "isHot";
+    private static final String FACET_NEW = "isNew";
+    private static final List<String> FACET_FIELDS = List.of(
+            FACET_CATEGORY, FACET_BRAND, FACET_MATERIAL, FACET_COLOR, FACET_PRICE, FACET_STATUS, FACET_HOT, FACET_NEW);
+    
+    private final ProductMapper productMapper;
+    private final ICategoryService categoryService;
+    
+    /**
+     * 单次检索最多返回的商品数
+     */
+    @Value("${mall.search.max-hits:10000}")
+    private int maxHits;
+    
+    /**
+     * 价格分面的区间分界点，按升序排列
+     */
+    @Value("${mall.search.facet.price-breaks:0,100,300,500,1000,3000}")
+    private BigDecimal[] priceBreaks;
+    
+    /**
+     * 每个分面最多返回的取值数
+     */
+    @Value("${mall.search.facet.max-values:20}")
+    private int facetMaxValues;
+    
+    private volatile SearchSnapshot snapshot = new SearchSnapshot();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private volatile long lastRebuildMillis;
+    
+    private volatile PrefixSuggester suggester = PrefixSuggester.EMPTY;
+    private volatile boolean suggesterDirty;
+    
+    /**
+     * 重建期间发生变更的商品ID
+     */
+    private final Set<Integer> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @Override
+    public List<Integer> searchIds(String keyword, boolean onSaleOnly) {
+        return doSearch(keyword, onSaleOnly, maxHits).getDocIds();
+    }
+    
+    @Override
+    public PageResult<Integer> search(String keyword, boolean onSaleOnly, long pageNum, long pageSize) {
+        long current = Math.max(1, pageNum);
+        long size = Math.max(1, pageSize);
+        long offset = (current - 1) * size;
+        if (offset >= maxHits) {
+            return new PageResult<>(List.of(), 0L, current, size);
+        }
+        
+        InvertedIndex.Hits hits = doSearch(keyword, onSaleOnly, (int) Math.min(offset + size, maxHits));
+        List<Integer> docIds = hits.getDocIds();
+        List<Integer> page = offset >= docIds.size()
+                ? List.of()
+                : new ArrayList<>(docIds.subList((int) offset, docIds.size()));
+        // 超过max-hits的命中不可翻页访问，总数按可访问的数量返回
+        return new PageResult<>(page, (long) Math.min(hits.getTotal(), maxHits), current, size);
+    }
+    
+    @Override
+    public void refreshProducts(Collection<Integer> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> ids = new HashSet<>(productIds);
+        afterCommit(() -> {
+            if (rebuilding) {
+                changedDuringRebuild.addAll(ids);
+            }
+            try {
+                reload(snapshot, ids);
+                suggesterDirty = true;
+            } catch (Exception e) {
+                // 下次全量重建时修正
+                log.error("商品搜索索引增量更新失败，商品ID: {}", ids, e);
+            }
+        });
+    }
+    
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            SearchSnapshot rebuilt = new SearchSnapshot();
+            Integer afterId = 0;
+            List<Product> batch;
+            do {
+                batch = productMapper.selectSearchFieldsAfter(afterId, LOAD_BATCH_SIZE);
+                for (Product product : batch) {
+                    rebuilt.put(product, facetValues(product));
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getProductId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            
+            snapshot = rebuilt;
+            ready = true;
+            suggesterDirty = true;
+        } finally {
+            rebuilding = false;
+        }
+        
+        if (!changedDuringRebuild.isEmpty()) {
+            Set<Integer> changed = new HashSet<>(changedDuringRebuild);
+            changedDuringRebuild.removeAll(changed);
+            reload(snapshot, changed);
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("商品搜索索引重建完成，商品数: {}, 词项数: {}, 耗时: {}ms",
+                snapshot.index.size(), snapshot.index.termCount(), lastRebuildMillis);
+    }
+    
+    @Override
+    public Map<String, Object> getStatistics() {
+        SearchSnapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("ready", ready);
+        statistics.put("products", current.index.size());
+        statistics.put("terms", current.index.termCount());
+        statistics.put("maxHits", maxHits);
+        statistics.put("lastRebuildMillis", lastRebuildMillis);
+        statistics.put("suggestions", suggester.size());
+        return statistics;
+    }
+    
+    @Override
+    public boolean canFilter(ProductQueryDTO query) {
+        // 名称模糊、编码、创建时间和库存预警条件不在位图索引中，需要查询数据库
+        return ready
+                && !StringUtils.hasText(query.getProductName())
+                && !StringUtils.hasText(query.getProductCode())
+                && !StringUtils.hasText(query.getCreateTimeStart())
+                && !StringUtils.hasText(query.getCreateTimeEnd())
+                && query.getStockWarning() == null;
+    }
+    
+    @Override
+    public FacetedPageResult<Integer> filter(ProductQueryDTO query) {
+        SearchSnapshot current = snapshot;
+        Map<String, List<String>> filters = new LinkedHashMap<>();
+        filters.put(FACET_CATEGORY, facetValue(query.getCategoryId()));
+        filters.put(FACET_BRAND, facetValue(query.getBrand()));
+        filters.put(FACET_MATERIAL, facetValue(query.getMaterial()));
+        filters.put(FACET_COLOR, facetValue(query.getColor()));
+        filters.put(FACET_STATUS, facetValue(query.getStatus()));
+        filters.put(FACET_HOT, facetValue(query.getIsHot()));
+        filters.put(FACET_NEW, facetValue(query.getIsNew()));
+        
+        // 关键词和价格范围先转为位图，作为属性筛选的限定范围
+        CompressedBitmap restriction = null;
+        if (StringUtils.hasText(query.getKeyword())) {
+            restriction = current.index.matchAll(query.getKeyword());
+        }
+        if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+            CompressedBitmap priceMatches = current.priceBetween(query.getMinPrice(), query.getMaxPrice());
+            restriction = restriction == null ? priceMatches : CompressedBitmap.and(restriction, priceMatches);
+        }
+        FacetIndex.Result result = current.facets.search(filters, restriction, FACET_FIELDS, facetMaxValues);
+        
+        int[] ids = result.getMatches().toArray();
+        boolean ascending = StringUtils.hasText(query.getOrderBy()) && "asc".equalsIgnoreCase(query.getOrderDirection());
+        long pageNum = query.getPageNum() != null ? Math.max(1, query.getPageNum()) : 1;
+        long size = query.getPageSize() != null ? Math.max(1, query.getPageSize()) : 10;
+        if (query.getAfter() != null) {
+            return filterAfter(ids, ascending, PageCursor.decode(query.getAfter()), size, result.getFacets());
+        }
+        List<Integer> page = new ArrayList<>();
+        for (long i = (pageNum - 1) * size; i < ids.length && page.size() < size; i++) {
+            page.add(ascending ? ids[(int) i] : ids[ids.length - 1 - (int) i]);
+        }
+        return new FacetedPageResult<>(page, (long) ids.length, pageNum, size, result.getFacets());
+    }
+    
+    /**
+     * 游标分页：在按升序排列的命中ID中二分定位游标，从其后取一页
+     */
+    private FacetedPageResult<Integer> filterAfter(int[] ids, boolean ascending, PageCursor cursor, long size,
+                                                   Map<String, Map<String, Integer>> facets) {
+        List<Integer> page = new ArrayList<>();
+        int position;
+        if (ascending) {
+            position = cursor == null ? 0 : insertionPoint(ids, cursor.getId() + 1);
+            while (position < ids.length && page.size() < size) {
+                page.add(ids[position++]);
+            }
+        } else {
+            position = (cursor == null ? ids.length : insertionPoint(ids, cursor.getId())) - 1;
+            while (position >= 0 && page.size() < size) {
+                page.add(ids[position--]);
+            }
+        }
+        boolean hasNext = ascending ? position < ids.length : position >= 0;
+        
+        FacetedPageResult<Integer> result = new FacetedPageResult<>();
+        result.setRecords(page);
+        result.setTotal((long) ids.length);
+        result.setSize(size);
+        result.setFacets(facets);
+        result.setNextCursor(hasNext && !page.isEmpty() ? PageCursor.of(page.get(page.size() - 1)).encode() : null);
+        result.setHasNext(result.getNextCursor() != null);
+        result.setTotalExact(true);
+        return result;
+    }
+    
+    /**
+     * 第一个不小于value的元素下标
+     */
+    private static int insertionPoint(int[] ids, int value) {
+        int index = Arrays.binarySearch(ids, value);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    @Override
+    public List<SearchSuggestionResponse> suggest(String prefix, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return suggester.suggest(prefix, size).stream()
+                .map(suggestion -> new SearchSuggestionResponse(suggestion.getText(), suggestion.getType()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 商品或分类变更后重建联想词
+     */
+    @Scheduled(fixedDelayString = "${mall.search.suggest-refresh-interval-ms:30000}")
+    public void refreshSuggester() {
+        if (!suggesterDirty) {
+            return;
+        }
+        suggesterDirty = false;
+        try {
+            PrefixSuggester.Builder builder = new PrefixSuggester.Builder();
+            for (IndexedProduct product : snapshot.products.values()) {
+                if (!STATUS_ON_SALE.equals(product.status)) {
+                    continue;
+                }
+                builder.add(product.name, SUGGEST_TYPE_PRODUCT, product.salesCount);
+                builder.add(product.brand, SUGGEST_TYPE_BRAND, product.salesCount);
+                builder.add(categoryService.getCategoryName(product.categoryId), SUGGEST_TYPE_CATEGORY, product.salesCount);
+            }
+            suggester = builder.build();
+            log.info("搜索联想词重建完成，联想词数: {}", suggester.size());
+        } catch (Exception e) {
+            suggesterDirty = true;
+            log.error("搜索联想词重建失败", e);
+        }
+    }
+    
+    /**
+     * 分类名称变更后重建联想词
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        suggesterDirty = true;
+    }
+    
+    /**
+     * 应用启动后在后台线程构建索引，构建完成前搜索回退到数据库查询
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::safeRebuild, "product-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 定时全量重建索引
+     */
+    @Scheduled(cron = "${mall.search.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledRebuild() {
+        safeRebuild();
+    }
+    
+    private void safeRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("商品搜索索引重建失败", e);
+        }
+    }
+    
+    private InvertedIndex.Hits doSearch(String keyword, boolean onSaleOnly, int limit) {
+        if (!StringUtils.hasText(keyword)) {
+            return InvertedIndex.Hits.EMPTY;
+        }
+        SearchSnapshot current = snapshot;
+        IntPredicate filter = onSaleOnly ? current::isOnSale : null;
+        return current.index.search(keyword, filter, limit);
+    }
+    
+    /**
+     * 从数据库读取商品写入索引，不存在的商品从索引移除
+     */
+    private void reload(SearchSnapshot target, Set<Integer> productIds) {
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productMapper.selectBatchIds(productIds)) {
+            products.put(product.getProductId(), product);
+        }
+        for (Integer productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null) {
+                target.remove(productId);
+            } else {
+                target.put(product, facetValues(product));
+            }
+        }
+    }
+    
+    /**
+     * 商品的各分面属性取值
+     */
+    private Map<String, List<String>> facetValues(Product product) {
+        Map<String, List<String>> values = new HashMap<>();
+        values.put(FACET_CATEGORY, facetValue(product.getCategoryId()));
+        values.put(FACET_BRAND, facetValue(product.getBrand()));
+        values.put(FACET_MATERIAL, facetValue(product.getMaterial()));
+        values.put(FACET_COLOR, facetValue(product.getColor()));
+        values.put(FACET_PRICE, facetValue(priceRange(product.getCurrentPrice())));
+        values.put(FACET_STATUS, facetValue(product.getStatus()));
+        values.put(FACET_HOT, facetValue(product.getIsHot()));
+        values.put(FACET_NEW, facetValue(product.getIsNew()));
+        return values;
+    }
+    
+    /**
+     * 价格所在区间，如"100-300"，最后一个区间为"3000+"
+     */
+    private String priceRange(BigDecimal price) {
+        if (price == null || priceBreaks.length == 0) {
+            return null;
+        }
+        int index = -1;
+        while (index + 1 < priceBreaks.length && price.compareTo(priceBreaks[index + 1]) >= 0) {
+            index++;
+        }
+        if (index < 0) {
+            return "<" + priceBreaks[0].stripTrailingZeros().toPlainString();
+        }
+        String lower = priceBreaks[index].stripTrailingZeros().toPlainString();
+        return index + 1 < priceBreaks.length
+                ? lower + "-" + priceBreaks[index + 1].stripTrailingZeros().toPlainString()
+                : lower + "+";
+    }
+    
+    private static List<String> facetValue(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? List.of() : List.of(text);
+    }
+    
+    /**
+     * 在当前事务提交后执行；没有事务时立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * 倒排索引、分面位图索引及其对应的商品状态，全量重建时整体替换
+     */
+    private static final class SearchSnapshot {
+        
+        private final InvertedIndex index = new InvertedIndex();
+        private final FacetIndex facets = new FacetIndex();
+        private final Map<Integer, IndexedProduct> products = new ConcurrentHashMap<>();
+        
+        /**
+         * 按现价排序的商品ID，价格区间筛选只遍历区间内的价格
+         */
+        private final TreeMap<BigDecimal, CompressedBitmap> priceIndex = new TreeMap<>();
+        private final ReadWriteLock priceLock = new ReentrantReadWriteLock();
+        
+        void put(Product product, Map<String, List<String>> facetValues) {
+            Map<String, Float> termWeights = new HashMap<>();
+            InvertedIndex.addField(termWeights, product.getProductName(), NAME_WEIGHT);
+            InvertedIndex.addField(termWeights, product.getProductCode(), CODE_WEIGHT);
+            InvertedIndex.addField(termWeights, product.getBrand(), BRAND_WEIGHT);
+            InvertedIndex.addField(termWeights, product.getMaterial(), ATTRIBUTE_WEIGHT);
+            InvertedIndex.addField(termWeights, product.getColor(), ATTRIBUTE_WEIGHT);
+            InvertedIndex.addField(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+            index.put(product.getProductId(), termWeights);
+            facets.put(product.getProductId(), facetValues);
+            
+            IndexedProduct indexed = new IndexedProduct(product);
+            priceLock.writeLock().lock();
+            try {
+                IndexedProduct previous = products.put(product.getProductId(), indexed);
+                removePrice(product.getProductId(), previous);
+                if (indexed.price != null) {
+                    priceIndex.computeIfAbsent(indexed.price, price -> new CompressedBitmap()).add(product.getProductId());
+                }
+            } finally {
+                priceLock.writeLock().unlock();
+            }
+        }
+        
+        void remove(Integer productId) {
+            index.remove(productId);
+            facets.remove(productId);
+            priceLock.writeLock().lock();
+            try {
+                removePrice(productId, products.remove(productId));
+            } finally {
+                priceLock.writeLock().unlock();
+            }
+        }
+        
+        boolean isOnSale(int productId) {
+            IndexedProduct product = products.get(productId);
+            return product != null && STATUS_ON_SALE.equals(product.status);
+        }
+        
+        /**
+         * 现价在[min, max]范围内的商品，边界为空表示不限
+         */
+        CompressedBitmap priceBetween(BigDecimal min, BigDecimal max) {
+            priceLock.readLock().lock();
+            try {
+                Map<BigDecimal, CompressedBitmap> range;
+                if (min != null && max != null) {
+                    range = min.compareTo(max) <= 0 ? priceIndex.subMap(min, true, max, true) : Map.of();
+                } else if (min != null) {
+                    range = priceIndex.tailMap(min, true);
+                } else if (max != null) {
+                    range = priceIndex.headMap(max, true);
+                } else {
+                    range = priceIndex;
+                }
+                CompressedBitmap matches = new CompressedBitmap();
+                for (CompressedBitmap ids : range.values()) {
+                    ids.forEach(matches::add);
+                }
+                return matches;
+            } finally {
+                priceLock.readLock().unlock();
+            }
+        }
+        
+        private void removePrice(Integer productId, IndexedProduct product) {
+            if (product == null || product.price == null) {
+                return;
+            }
+            CompressedBitmap ids = priceIndex.get(product.price);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    priceIndex.remove(product.price);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 索引中保存的商品状态及生成联想词所需的字段
+     */
+    private static final class IndexedProduct {
+        
+        private final Integer status;
+        private final String name;
+        private final String brand;
+        private final Integer categoryId;
+        private final int salesCount;
+        private final BigDecimal price;
+        
+        IndexedProduct(Product product) {
+            this.status = product.getStatus() != null ? product.getStatus() : 0;
+            this.name = product.getProductName();
+            this.brand = product.getBrand();
+            this.categoryId = product.getCategoryId();
+            this.salesCount = product.getSalesCount() != null ? product.getSalesCount() : 0;
+            this.price = product.getCurrentPrice();
+        }
+    }
+}
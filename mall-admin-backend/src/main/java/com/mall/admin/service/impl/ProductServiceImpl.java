@@ -5,14 +5,22 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.mall.admin.entity.Product;
 import com.mall.admin.mapper.ProductMapper;
-import com.mall.admin.mapper.CategoryMapper;
 import com.mall.admin.mapper.ProductImageMapper;
-import com.mall.admin.entity.Category;
 import com.mall.admin.entity.ProductImage;
+import com.mall.admin.service.ICategoryService;
+import com.mall.admin.service.ICounterService;
+import com.mall.admin.service.IInventoryService;
+import com.mall.admin.service.IProductRankingService;
+import com.mall.admin.service.IProductRecommendationService;
+import com.mall.admin.service.IProductSearchService;
 import com.mall.admin.service.IProductService;
+import com.mall.admin.util.PageQueryHelper;
 import com.mall.admin.dto.request.ProductRequest;
 import com.mall.admin.dto.request.ProductQueryDTO;
 import com.mall.admin.dto.response.ProductResponse;
+import com.mall.admin.common.CounterType;
+import com.mall.admin.common.FacetedPageResult;
+import com.mall.admin.common.PageCursor;
 import com.mall.admin.common.PageResult;
 import com.mall.admin.common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +31,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,13 +52,28 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements IProductService {
     
     private final ProductMapper productMapper;
-    private final CategoryMapper categoryMapper;
+    private final ICategoryService categoryService;
     private final ProductImageMapper productImageMapper;
+    private final IInventoryService inventoryService;
+    private final IProductSearchService productSearchService;
+    private final IProductRankingService productRankingService;
+    private final IProductRecommendationService productRecommendationService;
+    private final ICounterService counterService;
+    private final PageQueryHelper pageQueryHelper;
     
     @Override
     public PageResult<ProductResponse> getProductList(ProductQueryDTO queryDTO) {
         log.info("获取商品列表，查询参数: {}", queryDTO);
         
+        // 筛选条件都能由索引处理时，通过位图交集取出当页商品ID并附带分面计数
+        if (productSearchService.canFilter(queryDTO)) {
+            FacetedPageResult<Integer> idPage = productSearchService.filter(queryDTO);
+            FacetedPageResult<ProductResponse> result = new FacetedPageResult<>(convertToResponseList(selectInOrder(idPage.getRecords())),
+                    idPage.getTotal(), idPage.getCurrent(), idPage.getSize(), idPage.getFacets());
+            result.setNextCursor(idPage.getNextCursor());
+            return result;
+        }
+        
         // 构建查询条件
         LambdaQueryWrapper<Product> queryWrapper = new LambdaQueryWrapper<>();
         
@@ -54,14 +83,22 @@ public class ProductServiceImpl implements IProductService {
         // 商品编码精确查询
         queryWrapper.eq(StringUtils.hasText(queryDTO.getProductCode()), Product::getProductCode, queryDTO.getProductCode());
         
-        // 关键词搜索（商品名称或编码）
+        // 关键词搜索：索引就绪时先从倒排索引取出命中的商品ID，否则回退到模糊查询
         if (StringUtils.hasText(queryDTO.getKeyword())) {
-            queryWrapper.and(wrapper -> wrapper
-                .like(Product::getProductName, queryDTO.getKeyword())
-                .or()
-                .like(Product::getProductCode, queryDTO.getKeyword())
-                .or()
-                .like(Product::getDescription, queryDTO.getKeyword()));
+            if (productSearchService.isReady()) {
+                List<Integer> matchedIds = productSearchService.searchIds(queryDTO.getKeyword(), false);
+                if (matchedIds.isEmpty()) {
+                    return new PageResult<>(new ArrayList<>(), 0L, queryDTO.getPageNum().longValue(), queryDTO.getPageSize().longValue());
+                }
+                queryWrapper.in(Product::getProductId, matchedIds);
+            } else {
+                queryWrapper.and(wrapper -> wrapper
+                    .like(Product::getProductName, queryDTO.getKeyword())
+                    .or()
+                    .like(Product::getProductCode, queryDTO.getKeyword())
+                    .or()
+                    .like(Product::getDescription, queryDTO.getKeyword()));
+            }
         }
         
         // 分类ID
@@ -82,9 +119,27 @@ public class ProductServiceImpl implements IProductService {
         // 品牌
         queryWrapper.eq(StringUtils.hasText(queryDTO.getBrand()), Product::getBrand, queryDTO.getBrand());
         
+        // 材质、颜色
+        queryWrapper.eq(StringUtils.hasText(queryDTO.getMaterial()), Product::getMaterial, queryDTO.getMaterial());
+        queryWrapper.eq(StringUtils.hasText(queryDTO.getColor()), Product::getColor, queryDTO.getColor());
+        
         // // 库存预警
         // queryWrapper.le(queryDTO.getStockWarning() != null, Product::getStock, queryDTO.getStockWarning());
         
+        // 游标分页：按商品ID从上一页最后一个商品之后读取，不统计总数
+        if (queryDTO.getAfter() != null) {
+            boolean ascending = StringUtils.hasText(queryDTO.getOrderBy()) && "asc".equalsIgnoreCase(queryDTO.getOrderDirection());
+            int pageSize = queryDTO.getPageSize();
+            PageCursor.seekById(queryWrapper, PageCursor.decode(queryDTO.getAfter()), Product::getProductId, ascending, pageSize);
+            List<Product> products = productMapper.selectList(queryWrapper);
+            String nextCursor = null;
+            if (products.size() > pageSize) {
+                products = products.subList(0, pageSize);
+                nextCursor = PageCursor.of(products.get(pageSize - 1).getProductId()).encode();
+            }
+            return PageResult.ofCursor(convertToResponseList(products), (long) pageSize, nextCursor);
+        }
+        
         // 排序
         if (StringUtils.hasText(queryDTO.getOrderBy())) {
             if ("asc".equalsIgnoreCase(queryDTO.getOrderDirection())) {
@@ -99,16 +154,12 @@ public class ProductServiceImpl implements IProductService {
         // 添加按product_id排序确保结果一致性
         queryWrapper.orderByAsc(Product::getProductId);
         
-        // 分页查询
-        IPage<Product> pageInfo = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
-        IPage<Product> result = productMapper.selectPage(pageInfo, queryWrapper);
+        // 分页查询，总数默认取自短时缓存
+        PageResult<Product> result = pageQueryHelper.selectPage(productMapper, Product.class, queryWrapper,
+                queryDTO.getPageNum(), queryDTO.getPageSize(), Boolean.TRUE.equals(queryDTO.getExactTotal()));
         
         // 转换为响应对象
-        List<ProductResponse> responseList = result.getRecords().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        
-        return new PageResult<>(responseList, result.getTotal(), result.getCurrent(), result.getSize());
+        return result.withRecords(convertToResponseList(result.getRecords()));
     }
     
     @Override
@@ -144,6 +195,8 @@ public class ProductServiceImpl implements IProductService {
             throw new BusinessException("商品创建失败");
         }
         
+        productSearchService.refreshProducts(List.of(product.getProductId()));
+        productRankingService.refreshProducts(List.of(product.getProductId()));
         log.info("商品创建成功，商品ID: {}", product.getProductId());
     }
     
@@ -169,11 +222,18 @@ public class ProductServiceImpl implements IProductService {
         product.setProductId(id);
         product.setUpdateTime(LocalDateTime.now());
         
+        // 使用内存计数的促销商品按内存中的可售库存调整，不直接覆盖数据库中的库存
+        if (product.getStockQuantity() != null && inventoryService.setHotStock(id, product.getStockQuantity())) {
+            product.setStockQuantity(null);
+        }
+        
         int result = productMapper.updateById(product);
         if (result <= 0) {
             throw new BusinessException("商品更新失败");
         }
         
+        productSearchService.refreshProducts(List.of(id));
+        productRankingService.refreshProducts(List.of(id));
         log.info("商品更新成功，商品ID: {}", id);
     }
     
@@ -194,6 +254,8 @@ public class ProductServiceImpl implements IProductService {
             throw new BusinessException("商品删除失败");
         }
         
+        productSearchService.refreshProducts(List.of(id));
+        productRankingService.refreshProducts(List.of(id));
         log.info("商品删除成功，商品ID: {}", id);
     }
         
@@ -226,6 +288,8 @@ public class ProductServiceImpl implements IProductService {
         if (result <= 0) {
             throw new BusinessException("更新商品状态失败");
         }
+        productSearchService.refreshProducts(List.of(id));
+        productRankingService.refreshProducts(List.of(id));
             
         log.info("更新商品状态成功，商品ID: {}, 新状态: {}", id, status);
     }
@@ -252,39 +316,111 @@ public class ProductServiceImpl implements IProductService {
             throw new BusinessException("批量更新商品状态失败");
         }
         
+        productSearchService.refreshProducts(ids);
+        productRankingService.refreshProducts(ids);
         log.info("批量更新商品状态成功，更新数量: {}", result);
     }
     
     @Override
-    public List<ProductResponse> getHotProducts(Integer limit) {
-        log.info("获取热门商品，限制数量: {}", limit);
+    public List<ProductResponse> getHotProducts(Integer limit, Integer categoryId) {
+        log.info("获取热门商品，限制数量: {}, 分类ID: {}", limit, categoryId);
+        
+        int size = limit != null ? limit : 10;
+        if (productRankingService.isReady()) {
+            List<Integer> ids = productRankingService.getHotProductIds(categoryId, size);
+            return convertToResponseList(onSale(selectInOrder(ids)));
+        }
         
         LambdaQueryWrapper<Product> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(Product::getIsHot, 1)
                    .eq(Product::getStatus, 1)
+                   .eq(categoryId != null, Product::getCategoryId, categoryId)
                    .orderByDesc(Product::getSalesCount)
-                   .last("LIMIT " + (limit != null ? limit : 10));
+                   .last("LIMIT " + size);
         
         List<Product> products = productMapper.selectList(queryWrapper);
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponseList(products);
     }
     
     @Override
-    public List<ProductResponse> getRecommendedProducts(Integer limit) {
-        log.info("获取推荐商品，限制数量: {}", limit);
+    public List<ProductResponse> getRecommendedProducts(Integer limit, Integer categoryId) {
+        log.info("获取推荐商品，限制数量: {}, 分类ID: {}", limit, categoryId);
+        
+        int size = limit != null ? limit : 10;
+        if (productRankingService.isReady()) {
+            List<Integer> ids = productRankingService.getRecommendedProductIds(categoryId, size);
+            return convertToResponseList(onSale(selectInOrder(ids)));
+        }
         
         LambdaQueryWrapper<Product> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(Product::getStatus, 1)
+                   .eq(categoryId != null, Product::getCategoryId, categoryId)
                    .orderByDesc(Product::getRatingAverage)
                    .orderByDesc(Product::getSalesCount)
-                   .last("LIMIT " + (limit != null ? limit : 10));
+                   .last("LIMIT " + size);
         
         List<Product> products = productMapper.selectList(queryWrapper);
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponseList(products);
+    }
+    
+    @Override
+    public List<ProductResponse> getAlsoBoughtProducts(Integer productId, Integer limit) {
+        log.info("获取关联购买商品，商品ID: {}, 限制数量: {}", productId, limit);
+        
+        int size = limit != null ? limit : 10;
+        List<Product> products = new ArrayList<>();
+        if (productRecommendationService.isReady()) {
+            products = onSale(selectInOrder(productRecommendationService.getAlsoBoughtProductIds(productId, size)));
+        }
+        if (products.size() < size) {
+            Product product = productMapper.selectById(productId);
+            Integer categoryId = product != null ? product.getCategoryId() : null;
+            fillWithRecommended(products, size, categoryId, Set.of(productId));
+        }
+        return convertToResponseList(products);
+    }
+    
+    @Override
+    public List<ProductResponse> getPersonalizedProducts(Integer userId, Integer limit) {
+        log.info("获取个性化推荐商品，用户ID: {}, 限制数量: {}", userId, limit);
+        
+        int size = limit != null ? limit : 10;
+        List<Product> products = new ArrayList<>();
+        if (productRecommendationService.isReady()) {
+            products = onSale(selectInOrder(productRecommendationService.getPersonalizedProductIds(userId, size)));
+        }
+        if (products.size() < size) {
+            fillWithRecommended(products, size, null, Set.of());
+        }
+        return convertToResponseList(products);
+    }
+    
+    /**
+     * 用推荐商品补足数量，跳过已有和排除的商品
+     */
+    private void fillWithRecommended(List<Product> products, int size, Integer categoryId, Set<Integer> excluded) {
+        Set<Integer> present = new HashSet<>(excluded);
+        products.forEach(product -> present.add(product.getProductId()));
+        int candidates = size + present.size();
+        List<Product> recommended;
+        if (productRankingService.isReady()) {
+            recommended = onSale(selectInOrder(productRankingService.getRecommendedProductIds(categoryId, candidates)));
+        } else {
+            recommended = productMapper.selectList(new LambdaQueryWrapper<Product>()
+                    .eq(Product::getStatus, 1)
+                    .eq(categoryId != null, Product::getCategoryId, categoryId)
+                    .orderByDesc(Product::getRatingAverage)
+                    .orderByDesc(Product::getSalesCount)
+                    .last("LIMIT " + candidates));
+        }
+        for (Product product : recommended) {
+            if (products.size() >= size) {
+                break;
+            }
+            if (present.add(product.getProductId())) {
+                products.add(product);
+            }
+        }
     }
     
     @Override
@@ -297,9 +433,7 @@ public class ProductServiceImpl implements IProductService {
                    .orderByDesc(Product::getCreateTime);
         
         List<Product> products = productMapper.selectList(queryWrapper);
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponseList(products);
     }
     
     @Override
@@ -310,16 +444,70 @@ public class ProductServiceImpl implements IProductService {
             return List.of();
         }
         
+        if (productSearchService.isReady()) {
+            List<Product> products = selectInOrder(productSearchService.searchIds(keyword, true));
+            return convertToResponseList(onSale(products));
+        }
+        
+        List<Product> products = productMapper.selectList(buildKeywordQuery(keyword));
+        return convertToResponseList(products);
+    }
+    
+    @Override
+    public PageResult<ProductResponse> searchProducts(String keyword, Integer pageNum, Integer pageSize) {
+        log.info("分页搜索商品，关键词: {}, 页码: {}, 大小: {}", keyword, pageNum, pageSize);
+        
+        long current = pageNum != null && pageNum > 0 ? pageNum : 1;
+        long size = pageSize != null && pageSize > 0 ? pageSize : 10;
+        if (!StringUtils.hasText(keyword)) {
+            return new PageResult<>(new ArrayList<>(), 0L, current, size);
+        }
+        
+        if (productSearchService.isReady()) {
+            PageResult<Integer> idPage = productSearchService.search(keyword, true, current, size);
+            List<Product> products = onSale(selectInOrder(idPage.getRecords()));
+            return new PageResult<>(convertToResponseList(products), idPage.getTotal(), current, size);
+        }
+        
+        IPage<Product> result = productMapper.selectPage(new Page<>(current, size), buildKeywordQuery(keyword));
+        return new PageResult<>(convertToResponseList(result.getRecords()), result.getTotal(), result.getCurrent(), result.getSize());
+    }
+    
+    /**
+     * 索引未就绪时使用的模糊查询条件
+     */
+    private LambdaQueryWrapper<Product> buildKeywordQuery(String keyword) {
         LambdaQueryWrapper<Product> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.like(Product::getProductName, keyword)
-                   .or().like(Product::getProductCode, keyword)
-                   .or().like(Product::getDescription, keyword)
+        queryWrapper.and(wrapper -> wrapper
+                       .like(Product::getProductName, keyword)
+                       .or().like(Product::getProductCode, keyword)
+                       .or().like(Product::getDescription, keyword))
                    .eq(Product::getStatus, 1)
                    .orderByDesc(Product::getSalesCount);
-        
-        List<Product> products = productMapper.selectList(queryWrapper);
+        return queryWrapper;
+    }
+    
+    /**
+     * 按给定ID顺序查询商品，不存在的商品跳过
+     */
+    private List<Product> selectInOrder(List<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Product> productMap = productMapper.selectBatchIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return productIds.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 过滤掉索引更新前已下架的商品
+     */
+    private List<Product> onSale(List<Product> products) {
         return products.stream()
-                .map(this::convertToResponse)
+                .filter(product -> Integer.valueOf(1).equals(product.getStatus()))
                 .collect(Collectors.toList());
     }
     
@@ -328,9 +516,16 @@ public class ProductServiceImpl implements IProductService {
     public boolean updateStock(Integer productId, Integer quantity) {
         log.info("更新商品库存，商品ID: {}, 数量: {}", productId, quantity);
         
-        // 使用Mapper中的updateStock方法
-        int result = productMapper.updateStock(productId, quantity);
-        return result > 0;
+        // 促销商品在开启热点库存时由内存计数扣减
+        return inventoryService.deductStock(productId, quantity);
+    }
+    
+    @Override
+    public void recordView(Integer productId) {
+        if (productId == null || productId <= 0) {
+            throw new BusinessException("商品ID不能为空");
+        }
+        counterService.increment(CounterType.PRODUCT_VIEW, productId);
     }
     
     @Override
@@ -348,6 +543,49 @@ public class ProductServiceImpl implements IProductService {
      * 将Product实体转换为ProductResponse
      */
     private ProductResponse convertToResponse(Product product) {
+        return convertToResponseList(List.of(product)).get(0);
+    }
+    
+    /**
+     * 批量将Product实体转换为ProductResponse
+     * 分类名称从分类缓存读取，商品图片用一次IN查询取回后在内存中组装，避免逐条查询
+     */
+    private List<ProductResponse> convertToResponseList(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // 收集本页涉及的商品ID
+        List<Integer> productIds = products.stream()
+                .map(Product::getProductId)
+                .collect(Collectors.toList());
+        
+        // 一次查询获取所有商品图片，并按商品ID分组（保持sort_order顺序）
+        LambdaQueryWrapper<ProductImage> imageWrapper = new LambdaQueryWrapper<>();
+        imageWrapper.in(ProductImage::getProductId, productIds)
+                    .orderByAsc(ProductImage::getSortOrder);
+        Map<Integer, List<ProductImage>> imageMap = productImageMapper.selectList(imageWrapper).stream()
+                .collect(Collectors.groupingBy(ProductImage::getProductId));
+        
+        List<ProductResponse> responseList = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductResponse response = buildResponse(product);
+            
+            // 设置分类名称
+            response.setCategoryName(categoryService.getCategoryName(product.getCategoryId()));
+            
+            // 设置商品图片信息
+            fillImages(response, imageMap.get(product.getProductId()));
+            
+            responseList.add(response);
+        }
+        return responseList;
+    }
+    
+    /**
+     * 映射商品基础字段（不涉及关联查询）
+     */
+    private ProductResponse buildResponse(Product product) {
         ProductResponse response = new ProductResponse();
         BeanUtils.copyProperties(product, response);
         
@@ -367,45 +605,39 @@ public class ProductServiceImpl implements IProductService {
         }
         response.setReviewCount(product.getRatingCount());
         
+        // 加上尚未写库的浏览量
+        long pendingViews = counterService.getPending(CounterType.PRODUCT_VIEW, product.getProductId());
+        response.setViewCount((product.getViewCount() != null ? product.getViewCount() : 0) + (int) pendingViews);
+        
         // 映射其他可能缺失的字段
         response.setSpecification(product.getMaterial() + "|" + product.getColor() + "|" + product.getSize());
         if (product.getWeight() != null) {
             response.setWeight(product.getWeight().intValue());
         }
         
-        // 设置分类名称
-        if (product.getCategoryId() != null) {
-            Category category = categoryMapper.selectById(product.getCategoryId());
-            if (category != null) {
-                response.setCategoryName(category.getCategoryName());
-            }
-        }
-        
-        // 设置商品图片信息
-        List<ProductImage> productImages = productImageMapper.selectByProductId(product.getProductId());
-        if (productImages != null && !productImages.isEmpty()) {
-            // 设置图片URL列表
-            List<String> imageUrls = productImages.stream()
-                    .map(ProductImage::getImageUrl)
-                    .collect(Collectors.toList());
-            response.setImages(imageUrls);
-            
-            // 设置主图
-            ProductImage mainImage = productImages.stream()
-                    .filter(img -> img.getIsMain() != null && img.getIsMain() == 1)
-                    .findFirst()
-                    .orElse(productImages.get(0)); // 如果没有主图，使用第一张图片
-            response.setMainImage(mainImage.getImageUrl());
+        return response;
+    }
+    
+    /**
+     * 设置商品图片URL列表和主图
+     */
+    private void fillImages(ProductResponse response, List<ProductImage> productImages) {
+        if (productImages == null || productImages.isEmpty()) {
+            return;
         }
         
-        // // 如果没有图片，但Product实体中有imageUrl字段，使用它作为主图
-        // if ((response.getImages() == null || response.getImages().isEmpty()) && 
-        //     product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
-        //     response.setMainImage(product.getImageUrl());
-        //     response.setImages(List.of(product.getImageUrl()));
-        // }
-        
-        return response;
+        // 设置图片URL列表
+        List<String> imageUrls = productImages.stream()
+                .map(ProductImage::getImageUrl)
+                .collect(Collectors.toList());
+        response.setImages(imageUrls);
+        
+        // 设置主图
+        ProductImage mainImage = productImages.stream()
+                .filter(img -> img.getIsMain() != null && img.getIsMain() == 1)
+                .findFirst()
+                .orElse(productImages.get(0)); // 如果没有主图，使用第一张图片
+        response.setMainImage(mainImage.getImageUrl());
     }
     
     /**
@@ -0,0 +1,413 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.entity.OrderItem;
+import com.mall.admin.entity.Product;
+import com.mall.admin.entity.SalesDailyRollup;
+import com.mall.admin.event.OrderStatusBatchChangedEvent;
+import com.mall.admin.event.OrderStatusChangedEvent;
+import com.mall.admin.mapper.OrderItemMapper;
+import com.mall.admin.mapper.OrderMapper;
+import com.mall.admin.mapper.ProductMapper;
+import com.mall.admin.mapper.SalesDailyRollupMapper;
+import com.mall.admin.service.ISalesRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 销售汇总服务实现类
+ * <p>
+ * 每天凌晨把前一天的订单汇总到sales_daily_rollup；已汇总日期的订单
+ * 进入或离开已完成状态时，通过订单状态变更事件增量修正对应日期的销售额，批量变更的订单按日期合并后一次写入。
+ * 汇总某天与增量修正互斥执行；状态变更与该日期的汇总交错时无法确定汇总是否已读到变更，
+ * 直接重算该日期。每晚重算最近几天，吸收跨零点的订单变更。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupServiceImpl implements ISalesRollupService {
+    
+    /**
+     * 已完成订单状态
+     */
+    private static final Integer ORDER_STATUS_COMPLETED = 5;
+    
+    /**
+     * 没有任何汇总数据时实时查询的起始日期
+     */
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1970, 1, 1);
+    
+    private final SalesDailyRollupMapper rollupMapper;
+    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 每晚重算的最近天数（含昨天）
+     */
+    @Value("${mall.rollup.recompute-days:3}")
+    private int recomputeDays;
+    
+    /**
+     * 汇总某天与增量修正共用的锁
+     */
+    private final Object rollupLock = new Object();
+    
+    /**
+     * 已开始的汇总次数，只在持有锁时修改
+     */
+    private volatile long rollupStarted;
+    
+    /**
+     * 正在汇总的日期
+     */
+    private volatile LocalDate rollingDate;
+    
+    /**
+     * 最后一个已汇总的日期（缓存）
+     */
+    private volatile LocalDate lastRolledDate;
+    private volatile boolean lastRolledDateLoaded;
+    
+    @Override
+    public void rollupDay(LocalDate statDate) {
+        synchronized (rollupLock) {
+            rollupStarted++;
+            rollingDate = statDate;
+            try {
+                rollup(statDate);
+            } finally {
+                rollingDate = null;
+            }
+        }
+    }
+    
+    /**
+     * 汇总一天的数据，替换该日期已有的汇总
+     */
+    private void rollup(LocalDate statDate) {
+        LocalDateTime start = statDate.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        
+        List<SalesDailyRollup> dailySummary = orderMapper.selectDailySummary(start, end);
+        List<SalesDailyRollup> categorySummary = orderMapper.selectCategorySummary(start, end);
+        
+        SalesDailyRollup total = dailySummary.isEmpty() ? emptyRollup(statDate, SalesDailyRollup.ALL_CATEGORIES) : dailySummary.get(0);
+        total.setStatDate(statDate);
+        total.setCategoryId(SalesDailyRollup.ALL_CATEGORIES);
+        total.setItemQuantity(categorySummary.stream()
+                .mapToLong(rollup -> rollup.getItemQuantity() != null ? rollup.getItemQuantity() : 0L)
+                .sum());
+        
+        List<SalesDailyRollup> rows = new ArrayList<>(categorySummary.size() + 1);
+        rows.add(total);
+        for (SalesDailyRollup rollup : categorySummary) {
+            if (rollup.getCategoryId() != null) {
+                rollup.setStatDate(statDate);
+                rows.add(rollup);
+            }
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupMapper.deleteByStatDate(statDate);
+            rollupMapper.upsertBatch(rows);
+        });
+        
+        if (lastRolledDate == null || statDate.isAfter(lastRolledDate)) {
+            lastRolledDate = statDate;
+            lastRolledDateLoaded = true;
+        }
+        log.info("销售数据汇总完成，日期: {}, 订单数: {}, 分类数: {}", statDate, total.getOrderCount(), categorySummary.size());
+    }
+    
+    @Override
+    @Scheduled(cron = "0 5 0 * * ?")
+    public synchronized void rollupPendingDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate last = rollupMapper.selectLastStatDate();
+        
+        LocalDate from;
+        if (last == null) {
+            LocalDateTime minCreateTime = orderMapper.selectMinCreateTime();
+            if (minCreateTime == null) {
+                return;
+            }
+            from = minCreateTime.toLocalDate();
+        } else {
+            // 重算最近几天，吸收跨零点的订单变更
+            LocalDate recomputeFrom = yesterday.minusDays(Math.max(recomputeDays, 1) - 1);
+            from = last.plusDays(1).isAfter(recomputeFrom) ? recomputeFrom : last.plusDays(1);
+        }
+        
+        for (LocalDate date = from; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            rollupDay(date);
+        }
+    }
+    
+    /**
+     * 应用启动后补齐缺失的汇总数据
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rollupPendingDays();
+        } catch (Exception e) {
+            log.error("启动时补齐销售汇总失败", e);
+        }
+    }
+    
+    /**
+     * 已汇总日期的订单进入或离开已完成状态时，增量修正该日销售额
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        applyChanges(List.of(event));
+    }
+    
+    /**
+     * 批量变更的订单一次读取订单商品，按日期、分类合并增量后一次写入
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        applyChanges(event.getChanges());
+    }
+    
+    private void applyChanges(List<OrderStatusChangedEvent> events) {
+        // 订单已提交，此后开始的汇总一定能读到本次变更；先读正在汇总的日期，再读最后汇总日期
+        long startedBefore = rollupStarted;
+        LocalDate rollingBefore = rollingDate;
+        
+        List<OrderStatusChangedEvent> changes = new ArrayList<>();
+        for (OrderStatusChangedEvent event : events) {
+            boolean wasCompleted = ORDER_STATUS_COMPLETED.equals(event.getOldStatus());
+            boolean isCompleted = ORDER_STATUS_COMPLETED.equals(event.getNewStatus());
+            if (wasCompleted == isCompleted || event.getCreateTime() == null) {
+                continue;
+            }
+            // 尚未汇总的日期由实时查询覆盖
+            LocalDate statDate = event.getCreateTime().toLocalDate();
+            if (statDate.equals(rollingBefore) || isRolled(statDate)) {
+                changes.add(event);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        
+        try {
+            List<SalesDailyRollup> deltas = getSalesDeltas(changes);
+            
+            synchronized (rollupLock) {
+                boolean interleaved = rollupStarted != startedBefore;
+                List<SalesDailyRollup> applicable = new ArrayList<>(deltas.size());
+                Set<LocalDate> recomputeDates = new TreeSet<>();
+                for (SalesDailyRollup delta : deltas) {
+                    LocalDate statDate = delta.getStatDate();
+                    if (!isRolled(statDate)) {
+                        continue;
+                    }
+                    if (interleaved || statDate.equals(rollingBefore)) {
+                        // 汇总与本次变更交错执行，无法确定汇总是否已包含本次变更，重算该日期
+                        recomputeDates.add(statDate);
+                    } else {
+                        applicable.add(delta);
+                    }
+                }
+                if (!applicable.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> rollupMapper.addSalesAmountBatch(applicable));
+                }
+                recomputeDates.forEach(this::rollupDay);
+            }
+        } catch (Exception e) {
+            log.error("增量更新销售汇总失败，订单ID: {}", changes.stream()
+                    .map(OrderStatusChangedEvent::getOrderId)
+                    .collect(Collectors.toList()), e);
+        }
+    }
+    
+    @Override
+    public SalesDailyRollup getTotals() {
+        LocalDate last = getLastRolledDate();
+        SalesDailyRollup totals = last != null ? rollupMapper.selectTotals(last) : null;
+        if (totals == null) {
+            totals = emptyRollup(null, SalesDailyRollup.ALL_CATEGORIES);
+        }
+        
+        for (SalesDailyRollup live : orderMapper.selectDailySummary(getLiveStart().atStartOfDay(), tomorrowStart())) {
+            merge(totals, live);
+        }
+        return totals;
+    }
+    
+    @Override
+    public List<SalesDailyRollup> getDailyTotals(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, SalesDailyRollup> result = new TreeMap<>();
+        LocalDate last = getLastRolledDate();
+        
+        // 已汇总的日期
+        if (last != null && !startDate.isAfter(last)) {
+            LocalDate closedEnd = endDate.isAfter(last) ? last : endDate;
+            for (SalesDailyRollup rollup : rollupMapper.selectDailyTotals(startDate, closedEnd)) {
+                result.put(rollup.getStatDate(), rollup);
+            }
+        }
+        
+        // 尚未汇总的日期
+        LocalDate liveStart = getLiveStart().isAfter(startDate) ? getLiveStart() : startDate;
+        if (!liveStart.isAfter(endDate)) {
+            for (SalesDailyRollup live : orderMapper.selectDailySummary(liveStart.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+                result.put(live.getStatDate(), live);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+    
+    @Override
+    public List<SalesDailyRollup> getCategoryTotals() {
+        Map<Integer, SalesDailyRollup> result = new HashMap<>();
+        LocalDate last = getLastRolledDate();
+        
+        if (last != null) {
+            for (SalesDailyRollup rollup : rollupMapper.selectCategoryTotals(last)) {
+                result.put(rollup.getCategoryId(), rollup);
+            }
+        }
+        
+        for (SalesDailyRollup live : orderMapper.selectCategorySummary(getLiveStart().atStartOfDay(), tomorrowStart())) {
+            if (live.getCategoryId() == null) {
+                continue;
+            }
+            SalesDailyRollup existing = result.get(live.getCategoryId());
+            if (existing == null) {
+                live.setStatDate(null);
+                result.put(live.getCategoryId(), live);
+            } else {
+                merge(existing, live);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+    
+    /**
+     * 获取最后一个已汇总的日期
+     */
+    private LocalDate getLastRolledDate() {
+        if (!lastRolledDateLoaded) {
+            lastRolledDate = rollupMapper.selectLastStatDate();
+            lastRolledDateLoaded = true;
+        }
+        return lastRolledDate;
+    }
+    
+    /**
+     * 日期是否已汇总
+     */
+    private boolean isRolled(LocalDate statDate) {
+        LocalDate last = getLastRolledDate();
+        return last != null && !statDate.isAfter(last);
+    }
+    
+    /**
+     * 需要实时查询的起始日期（最后汇总日期的下一天）
+     */
+    private LocalDate getLiveStart() {
+        LocalDate last = getLastRolledDate();
+        return last != null ? last.plusDays(1) : EARLIEST_DATE;
+    }
+    
+    private LocalDateTime tomorrowStart() {
+        return LocalDate.now().plusDays(1).atStartOfDay();
+    }
+    
+    /**
+     * 计算订单变更带来的销售额增量，按日期、分类合并；每个日期都包含全部分类的汇总行
+     */
+    private List<SalesDailyRollup> getSalesDeltas(List<OrderStatusChangedEvent> changes) {
+        List<Integer> orderIds = changes.stream()
+                .map(OrderStatusChangedEvent::getOrderId)
+                .collect(Collectors.toList());
+        Map<Integer, List<OrderItem>> itemMap = orderItemMapper.selectAmountsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        
+        List<Integer> productIds = itemMap.values().stream()
+                .flatMap(List::stream)
+                .map(OrderItem::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Integer, Integer> productCategoryMap = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productMapper.selectBatchIds(productIds)) {
+                productCategoryMap.put(product.getProductId(), product.getCategoryId());
+            }
+        }
+        
+        Map<LocalDate, Map<Integer, BigDecimal>> dailyDeltas = new TreeMap<>();
+        for (OrderStatusChangedEvent change : changes) {
+            BigDecimal sign = ORDER_STATUS_COMPLETED.equals(change.getNewStatus()) ? BigDecimal.ONE : BigDecimal.ONE.negate();
+            Map<Integer, BigDecimal> categoryDeltas = dailyDeltas.computeIfAbsent(
+                    change.getCreateTime().toLocalDate(), date -> new TreeMap<>());
+            BigDecimal amount = change.getActualAmount() != null ? change.getActualAmount() : BigDecimal.ZERO;
+            categoryDeltas.merge(SalesDailyRollup.ALL_CATEGORIES, amount.multiply(sign), BigDecimal::add);
+            for (OrderItem item : itemMap.getOrDefault(change.getOrderId(), List.of())) {
+                Integer categoryId = productCategoryMap.get(item.getProductId());
+                if (categoryId != null && item.getTotalPrice() != null) {
+                    categoryDeltas.merge(categoryId, item.getTotalPrice().multiply(sign), BigDecimal::add);
+                }
+            }
+        }
+        
+        List<SalesDailyRollup> deltas = new ArrayList<>();
+        dailyDeltas.forEach((statDate, categoryDeltas) -> categoryDeltas.forEach((categoryId, delta) -> {
+            SalesDailyRollup rollup = emptyRollup(statDate, categoryId);
+            rollup.setSalesAmount(delta);
+            deltas.add(rollup);
+        }));
+        return deltas;
+    }
+    
+    /**
+     * 将source的数据累加到target
+     */
+    private void merge(SalesDailyRollup target, SalesDailyRollup source) {
+        target.setOrderCount(nullToZero(target.getOrderCount()) + nullToZero(source.getOrderCount()));
+        target.setItemQuantity(nullToZero(target.getItemQuantity()) + nullToZero(source.getItemQuantity()));
+        target.setSalesAmount((target.getSalesAmount() != null ? target.getSalesAmount() : BigDecimal.ZERO)
+                .add(source.getSalesAmount() != null ? source.getSalesAmount() : BigDecimal.ZERO));
+    }
+    
+    private long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+    
+    private SalesDailyRollup emptyRollup(LocalDate statDate, Integer categoryId) {
+        SalesDailyRollup rollup = new SalesDailyRollup();
+        rollup.setStatDate(statDate);
+        rollup.setCategoryId(categoryId);
+        rollup.setOrderCount(0L);
+        rollup.setSalesAmount(BigDecimal.ZERO);
+        rollup.setItemQuantity(0L);
+        return rollup;
+    }
+}
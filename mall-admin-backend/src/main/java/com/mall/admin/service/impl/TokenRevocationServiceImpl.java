@@ -0,0 +1,224 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.cache.BloomFilter;
+import com.mall.admin.entity.TokenRevocation;
+import com.mall.admin.mapper.TokenRevocationMapper;
+import com.mall.admin.mapper.UserMapper;
+import com.mall.admin.service.ITokenRevocationService;
+import com.mall.admin.util.JwtPrincipal;
+import com.mall.admin.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌吊销服务实现类
+ * <p>
+ * 吊销记录持久化在token_revocations表中，内存中维护两份索引：
+ * 按令牌吊销的摘要放入布隆过滤器，未命中（绝大多数请求）时无需查库，命中时再查库确认；
+ * 按用户吊销时递增用户的令牌版本，记录数量很少，直接以用户ID到最低有效版本的映射保存；
+ * 比较的是签发时写入令牌的版本号，不受签发时间与吊销时间精度不同的影响。
+ * 其他实例写入的记录由定时任务按ID增量加载；并发事务可能在更大的ID可见之后才提交较小的ID，
+ * 因此每次从已加载的最大ID往回重新扫描一段，跳过已加载过的记录。
+ * 记录在相关令牌全部过期后被清理，布隆过滤器随之重建。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements ITokenRevocationService {
+    
+    /**
+     * 每次增量加载的记录数
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+    
+    private final TokenRevocationMapper revocationMapper;
+    private final UserMapper userMapper;
+    private final JwtUtil jwtUtil;
+    
+    /**
+     * 布隆过滤器预计容纳的吊销令牌数
+     */
+    @Value("${mall.auth.revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+    
+    /**
+     * 布隆过滤器误判率
+     */
+    @Value("${mall.auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    /**
+     * 增量加载时从已加载的最大ID往回重新扫描的ID数
+     */
+    @Value("${mall.auth.revocation.rescan-window:1000}")
+    private long rescanWindow;
+    
+    private volatile BloomFilter tokenFilter;
+    private volatile Map<Integer, Integer> userMinVersions;
+    private long lastLoadedId;
+    
+    /**
+     * 重新扫描范围内已加载的记录ID
+     */
+    private Set<Long> loadedIds = new HashSet<>();
+    private volatile boolean loaded;
+    
+    @Override
+    public synchronized void revokeToken(JwtPrincipal principal, String reason) {
+        ensureLoaded();
+        
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setRevokeType(TokenRevocation.TYPE_TOKEN);
+        revocation.setTokenDigest(principal.getTokenDigest());
+        revocation.setUserId(principal.getUserId());
+        revocation.setRevokeTime(LocalDateTime.now());
+        revocation.setExpireTime(principal.getExpiration() != null
+                ? LocalDateTime.ofInstant(principal.getExpiration().toInstant(), ZoneId.systemDefault())
+                : revocation.getRevokeTime().plus(Duration.ofMillis(jwtUtil.getTokenLifetimeMillis())));
+        revocation.setReason(reason);
+        revocationMapper.insert(revocation);
+        
+        loadedIds.add(revocation.getRevocationId());
+        apply(tokenFilter, userMinVersions, revocation);
+        log.info("令牌已吊销，用户ID: {}, 原因: {}", principal.getUserId(), reason);
+    }
+    
+    @Override
+    public synchronized void revokeUser(Integer userId, String reason) {
+        ensureLoaded();
+        
+        userMapper.incrementTokenVersion(userId);
+        Integer tokenVersion = userMapper.selectTokenVersion(userId);
+        if (tokenVersion == null) {
+            return;
+        }
+        
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setRevokeType(TokenRevocation.TYPE_USER);
+        revocation.setUserId(userId);
+        revocation.setTokenVersion(tokenVersion);
+        revocation.setRevokeTime(LocalDateTime.now());
+        revocation.setExpireTime(revocation.getRevokeTime().plus(Duration.ofMillis(jwtUtil.getTokenLifetimeMillis())));
+        revocation.setReason(reason);
+        revocationMapper.insert(revocation);
+        
+        loadedIds.add(revocation.getRevocationId());
+        apply(tokenFilter, userMinVersions, revocation);
+        log.info("用户令牌已全部吊销，用户ID: {}, 令牌版本: {}, 原因: {}", userId, tokenVersion, reason);
+    }
+    
+    @Override
+    public boolean isRevoked(JwtPrincipal principal) {
+        ensureLoaded();
+        
+        Integer minVersion = userMinVersions.get(principal.getUserId());
+        if (minVersion != null && principal.getTokenVersion() < minVersion) {
+            return true;
+        }
+        
+        String digest = principal.getTokenDigest();
+        if (digest == null || !tokenFilter.mightContain(Base64.getDecoder().decode(digest))) {
+            return false;
+        }
+        // 布隆过滤器可能误判，查库确认
+        return revocationMapper.countActiveByDigest(digest, LocalDateTime.now()) > 0;
+    }
+    
+    /**
+     * 增量加载其他实例写入的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${mall.auth.revocation.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            rebuild();
+            return;
+        }
+        long maxId = loadAfter(Math.max(0L, lastLoadedId - rescanWindow), tokenFilter, userMinVersions, loadedIds);
+        lastLoadedId = Math.max(lastLoadedId, maxId);
+        long rescanFrom = lastLoadedId - rescanWindow;
+        loadedIds.removeIf(id -> id <= rescanFrom);
+    }
+    
+    /**
+     * 清理已失效的吊销记录并重建内存索引
+     */
+    @Scheduled(fixedDelayString = "${mall.auth.revocation.prune-interval-ms:3600000}")
+    public synchronized void prune() {
+        int deleted = revocationMapper.deleteExpired(LocalDateTime.now());
+        rebuild();
+        log.info("已清理失效的令牌吊销记录，数量: {}", deleted);
+    }
+    
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+    
+    /**
+     * 从数据库全量加载有效的吊销记录，构建新的索引后整体替换
+     */
+    private synchronized void rebuild() {
+        BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        Map<Integer, Integer> minVersions = new ConcurrentHashMap<>();
+        Set<Long> ids = new HashSet<>();
+        long maxId = loadAfter(0L, filter, minVersions, ids);
+        ids.removeIf(id -> id <= maxId - rescanWindow);
+        
+        tokenFilter = filter;
+        userMinVersions = minVersions;
+        lastLoadedId = maxId;
+        loadedIds = ids;
+        loaded = true;
+    }
+    
+    /**
+     * 分批加载指定ID之后的吊销记录，已在seenIds中的记录跳过
+     *
+     * @return 读到的最大ID，没有记录时为afterId
+     */
+    private long loadAfter(long afterId, BloomFilter filter, Map<Integer, Integer> minVersions, Set<Long> seenIds) {
+        long maxId = afterId;
+        List<TokenRevocation> batch;
+        do {
+            batch = revocationMapper.selectActiveAfter(maxId, LocalDateTime.now(), LOAD_BATCH_SIZE);
+            for (TokenRevocation revocation : batch) {
+                if (seenIds.add(revocation.getRevocationId())) {
+                    apply(filter, minVersions, revocation);
+                }
+                maxId = Math.max(maxId, revocation.getRevocationId());
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return maxId;
+    }
+    
+    private void apply(BloomFilter filter, Map<Integer, Integer> minVersions, TokenRevocation revocation) {
+        if (TokenRevocation.TYPE_USER.equals(revocation.getRevokeType())) {
+            if (revocation.getTokenVersion() != null) {
+                minVersions.merge(revocation.getUserId(), revocation.getTokenVersion(), Math::max);
+            }
+        } else if (revocation.getTokenDigest() != null) {
+            filter.put(Base64.getDecoder().decode(revocation.getTokenDigest()));
+        }
+    }
+}
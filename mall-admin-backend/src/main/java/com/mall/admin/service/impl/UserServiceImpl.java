@@ -1,10 +1,10 @@
 package com.mall.admin.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.mall.admin.common.PageCursor;
 import com.mall.admin.common.PageResult;
+import com.mall.admin.common.cache.CachedValue;
 import com.mall.admin.dto.UserRegisterRequest;
 import com.mall.admin.dto.UserRegisterResponse;
 import com.mall.admin.dto.request.UserRequest;
@@ -12,16 +12,24 @@ import com.mall.admin.dto.response.UserResponse;
 import com.mall.admin.entity.User;
 import com.mall.admin.mapper.UserMapper;
 import com.mall.admin.service.IUserService;
+import com.mall.admin.util.PageQueryHelper;
+import com.mall.admin.util.PasswordHasher;
 import com.mall.admin.util.PasswordUtil;
 import com.mall.admin.common.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +44,34 @@ import java.util.stream.Collectors;
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IUserService {
     
     private final UserMapper userMapper;
+    private final PasswordHasher passwordHasher;
+    private final PageQueryHelper pageQueryHelper;
+    
+    /**
+     * 统计结果缓存时间（秒）
+     */
+    @Value("${mall.statistics.cache-ttl-seconds:10}")
+    private long statisticsCacheTtlSeconds;
+    
+    /**
+     * 用户统计缓存，管理后台轮询时避免每次都扫描用户表
+     */
+    private CachedValue<Map<String, Object>> userStatisticsCache;
+    
+    /**
+     * 每次批量写入最后登录时间的用户数
+     */
+    private static final int LOGIN_FLUSH_BATCH_SIZE = 500;
+    
+    /**
+     * 尚未写入数据库的最后登录时间，同一用户只保留最新一次
+     */
+    private final Map<Integer, LocalDateTime> pendingLoginTimes = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void initStatisticsCache() {
+        userStatisticsCache = new CachedValue<>(this::loadUserStatistics, statisticsCacheTtlSeconds * 1000);
+    }
     
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -122,7 +158,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         User user = new User();
         // 根据User实体类的实际字段设置
         user.setNickname(StringUtils.hasText(request.getNickname()) ? request.getNickname() : request.getNickname());
-        user.setPassword(PasswordUtil.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setPhone(request.getPhone());
         user.setGender(request.getGender() != null ? request.getGender() : 0);
@@ -179,13 +215,12 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     }
     
     @Override
-    public PageResult<UserResponse> getUserList(Integer page, Integer size, String keyword, Integer status) {
-        log.info("获取用户列表，页码: {}, 大小: {}, 关键词: {}, 状态: {}", page, size, keyword, status);
+    public PageResult<UserResponse> getUserList(Integer page, Integer size, String keyword, Integer status, String after, Boolean exactTotal) {
+        log.info("获取用户列表，页码: {}, 大小: {}, 关键词: {}, 状态: {}, 游标: {}, 精确总数: {}", page, size, keyword, status, after, exactTotal);
         
+        // 游标在查询前解析，格式错误直接返回原因
+        PageCursor cursor = PageCursor.decode(after);
         try {
-            // 构建分页对象
-            Page<User> pageObj = new Page<>(page, size);
-            
             // 构建查询条件
             LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
             
@@ -203,23 +238,35 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
                 queryWrapper.eq(User::getStatus, status);
             }
             
-            // 按注册时间倒序
-            queryWrapper.orderByDesc(User::getRegisterTime);
+            // 游标分页：从上一页最后一个用户之后读取，不统计总数
+            if (after != null) {
+                PageCursor.seekByTimeDesc(queryWrapper, cursor, User::getRegisterTime, User::getUserId, size);
+                List<User> users = userMapper.selectList(queryWrapper);
+                String nextCursor = null;
+                if (users.size() > size) {
+                    users = users.subList(0, size);
+                    User last = users.get(size - 1);
+                    nextCursor = PageCursor.of(last.getRegisterTime(), last.getUserId()).encode();
+                }
+                List<UserResponse> userResponses = users.stream()
+                    .map(this::convertToUserResponse)
+                    .collect(Collectors.toList());
+                return PageResult.ofCursor(userResponses, (long) size, nextCursor);
+            }
+            
+            // 按注册时间倒序，注册时间相同时按用户ID保证顺序稳定
+            queryWrapper.orderByDesc(User::getRegisterTime).orderByDesc(User::getUserId);
             
-            // 执行分页查询
-            IPage<User> userPage = userMapper.selectPage(pageObj, queryWrapper);
+            // 执行分页查询，总数默认取自短时缓存
+            PageResult<User> userPage = pageQueryHelper.selectPage(userMapper, User.class, queryWrapper,
+                page, size, Boolean.TRUE.equals(exactTotal));
             
             // 转换为响应DTO
             List<UserResponse> userResponses = userPage.getRecords().stream()
                 .map(this::convertToUserResponse)
                 .collect(Collectors.toList());
             
-            return new PageResult<>(
-                userResponses,
-                userPage.getTotal(),
-                userPage.getCurrent(),
-                userPage.getSize()
-            );
+            return userPage.withRecords(userResponses);
                 
         } catch (Exception e) {
             log.error("获取用户列表失败", e);
@@ -457,7 +504,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             }
             
             // 更新密码
-            user.setPassword(PasswordUtil.encode(newPassword));
+            user.setPassword(passwordHasher.encode(newPassword));
             int result = userMapper.updateById(user);
             if (result <= 0) {
                 throw new BusinessException("重置密码失败");
@@ -478,47 +525,31 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         log.info("获取用户统计信息");
         
         try {
-            Map<String, Object> statistics = new HashMap<>();
-            
-            // 总用户数
-            Long totalUsers = userMapper.selectCount(null);
-            statistics.put("totalUsers", totalUsers);
-            
-            // 正常用户数
-            LambdaQueryWrapper<User> activeWrapper = new LambdaQueryWrapper<>();
-            activeWrapper.eq(User::getStatus, 1);
-            Long activeUsers = userMapper.selectCount(activeWrapper);
-            statistics.put("activeUsers", activeUsers);
-            
-            // 禁用用户数
-            LambdaQueryWrapper<User> disabledWrapper = new LambdaQueryWrapper<>();
-            disabledWrapper.eq(User::getStatus, 0);
-            Long disabledUsers = userMapper.selectCount(disabledWrapper);
-            statistics.put("disabledUsers", disabledUsers);
-            
-            // 今日新增用户数
-            LocalDateTime today = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-            LambdaQueryWrapper<User> todayWrapper = new LambdaQueryWrapper<>();
-            todayWrapper.ge(User::getRegisterTime, today);
-            Long todayNewUsers = userMapper.selectCount(todayWrapper);
-            statistics.put("todayNewUsers", todayNewUsers);
-            
-            // 本月新增用户数
-            LocalDateTime thisMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-            LambdaQueryWrapper<User> monthWrapper = new LambdaQueryWrapper<>();
-            monthWrapper.ge(User::getRegisterTime, thisMonth);
-            Long monthNewUsers = userMapper.selectCount(monthWrapper);
-            statistics.put("monthNewUsers", monthNewUsers);
-            
-            log.info("用户统计信息获取成功: {}", statistics);
-            return statistics;
-            
+            return new HashMap<>(userStatisticsCache.get());
         } catch (Exception e) {
             log.error("获取用户统计信息失败", e);
             throw new BusinessException("获取用户统计信息失败：" + e.getMessage());
         }
     }
     
+    /**
+     * 一次聚合查询统计总用户数、正常/禁用用户数和今日/本月新增用户数
+     */
+    private Map<String, Object> loadUserStatistics() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        LocalDateTime thisMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        Map<String, Object> row = userMapper.selectUserStatistics(today, thisMonth);
+        
+        Map<String, Object> statistics = new HashMap<>();
+        for (String key : List.of("totalUsers", "activeUsers", "disabledUsers", "todayNewUsers", "monthNewUsers")) {
+            Object value = row != null ? row.get(key) : null;
+            statistics.put(key, value != null ? ((Number) value).longValue() : 0L);
+        }
+        
+        log.info("用户统计信息获取成功: {}", statistics);
+        return Map.copyOf(statistics);
+    }
+    
     /**
      * 转换User实体为UserResponse
      */
@@ -535,7 +566,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         response.setEmail(user.getEmail());
         response.setBirthday(user.getBirthday());
         response.setRegisterTime(user.getRegisterTime());
-        response.setLastLoginTime(user.getLastLoginTime());
+        // 尚未写入数据库的登录时间优先
+        response.setLastLoginTime(pendingLoginTimes.getOrDefault(user.getUserId(), user.getLastLoginTime()));
         response.setStatus(user.getStatus());
         response.setStatusName(getStatusName(user.getStatus()));
         
@@ -563,7 +595,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         
         // 如果有密码，进行加密
         if (StringUtils.hasText(request.getPassword())) {
-            user.setPassword(PasswordUtil.encode(request.getPassword()));
+            user.setPassword(passwordHasher.encode(request.getPassword()));
         }
         
         return user;
@@ -667,4 +699,79 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             default: return "未知";
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    public void upgradePasswordHash(User user, String rawPassword) {
+        if (user == null || !passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        
+        try {
+            String upgraded = passwordHasher.encode(rawPassword);
+            // 以旧哈希为条件更新，避免覆盖并发修改的密码
+            boolean updated = lambdaUpdate()
+                    .set(User::getPassword, upgraded)
+                    .eq(User::getUserId, user.getUserId())
+                    .eq(User::getPassword, user.getPassword())
+                    .update();
+            if (updated) {
+                user.setPassword(upgraded);
+                log.info("用户密码哈希已升级，用户ID: {}", user.getUserId());
+            }
+        } catch (Exception e) {
+            // 升级失败不影响本次登录，下次登录时重试
+            log.warn("用户密码哈希升级失败，用户ID: {}, 错误: {}", user.getUserId(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void recordLogin(Integer userId, LocalDateTime loginTime) {
+        if (userId == null || loginTime == null) {
+            return;
+        }
+        pendingLoginTimes.merge(userId, loginTime, (oldTime, newTime) -> newTime.isAfter(oldTime) ? newTime : oldTime);
+    }
+    
+    /**
+     * 把内存中的最后登录时间批量写入数据库，失败的批次保留到下次写入
+     */
+    @Scheduled(fixedDelayString = "${mall.auth.login-time.flush-interval-ms:5000}")
+    public void flushLoginTimes() {
+        if (pendingLoginTimes.isEmpty()) {
+            return;
+        }
+        
+        List<User> batch = new ArrayList<>(LOGIN_FLUSH_BATCH_SIZE);
+        for (Map.Entry<Integer, LocalDateTime> entry : pendingLoginTimes.entrySet()) {
+            User user = new User();
+            user.setUserId(entry.getKey());
+            user.setLastLoginTime(entry.getValue());
+            batch.add(user);
+            if (batch.size() == LOGIN_FLUSH_BATCH_SIZE) {
+                flushLoginBatch(batch);
+                batch = new ArrayList<>(LOGIN_FLUSH_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushLoginBatch(batch);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flushLoginTimes();
+    }
+    
+    private void flushLoginBatch(List<User> batch) {
+        try {
+            userMapper.batchUpdateLastLoginTime(batch);
+        } catch (Exception e) {
+            log.error("批量写入最后登录时间失败，用户数: {}", batch.size(), e);
+            return;
+        }
+        // 写入期间又有新登录的用户保留最新时间，下次再写
+        for (User user : batch) {
+            pendingLoginTimes.remove(user.getUserId(), user.getLastLoginTime());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mall.admin.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 客户端IP解析器
+ * <p>
+ * X-Forwarded-For、X-Real-IP等请求头可以由客户端任意伪造，直接信任时每次请求换一个IP即可绕过按IP的限流。
+ * 这里默认只使用TCP连接的对端地址；只有当对端地址在配置的可信代理列表中时才读取转发头，
+ * 并从X-Forwarded-For的最右侧向左跳过可信代理，取第一个非可信代理的地址作为客户端IP。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    /**
+     * 可信代理地址列表（如Nginx、负载均衡所在主机）
+     */
+    @Value("${mall.auth.trusted-proxies:}")
+    private String[] trustedProxyConfig;
+
+    private Set<String> trustedProxies;
+
+    @PostConstruct
+    public void init() {
+        trustedProxies = new HashSet<>();
+        for (String proxy : trustedProxyConfig) {
+            if (StringUtils.hasText(proxy)) {
+                trustedProxies.add(proxy.trim());
+            }
+        }
+        log.info("客户端IP解析器初始化完成，可信代理: {}", trustedProxies);
+    }
+
+    /**
+     * 解析客户端IP
+     *
+     * @param request HTTP请求
+     * @return 客户端IP
+     */
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        // 每个代理都把上一跳地址追加到末尾，从右往左第一个非可信代理即真实客户端
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(xForwardedFor)) {
+            String[] hops = xForwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (StringUtils.hasText(hop) && !"unknown".equalsIgnoreCase(hop) && !trustedProxies.contains(hop)) {
+                    return hop;
+                }
+            }
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (StringUtils.hasText(xRealIp) && !"unknown".equalsIgnoreCase(xRealIp)) {
+            return xRealIp.trim();
+        }
+
+        return remoteAddr;
+    }
+}
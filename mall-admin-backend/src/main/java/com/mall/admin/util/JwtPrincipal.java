@@ -0,0 +1,50 @@
+package com.mall.admin.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * JWT认证主体
+ * 令牌验签并解析后的不可变用户信息
+ */
+@Getter
+@RequiredArgsConstructor
+public final class JwtPrincipal {
+
+    /**
+     * 用户ID
+     */
+    private final Integer userId;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 用户角色
+     */
+    private final String role;
+
+    /**
+     * 令牌版本，低于用户当前吊销版本的令牌无效
+     */
+    private final int tokenVersion;
+
+    /**
+     * 签发时间
+     */
+    private final Date issuedAt;
+
+    /**
+     * 过期时间
+     */
+    private final Date expiration;
+
+    /**
+     * 令牌的SHA-256摘要（Base64），用于缓存和吊销记录
+     */
+    private final String tokenDigest;
+}
@@ -1,11 +1,18 @@
 package com.mall.admin.util;
 
+import com.mall.admin.common.cache.ExpiringCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,6 +24,11 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
+    /**
+     * 令牌版本声明
+     */
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -29,21 +41,137 @@ public class JwtUtil {
     @Value("${jwt.prefix}")
     private String prefix;
 
+    /**
+     * 签名密钥，启动时生成一次
+     */
+    private SecretKey signingKey;
+
+    /**
+     * 验签解析器，线程安全，启动时构建一次
+     */
+    private JwtParser parser;
+
+    /**
+     * 已验证令牌缓存的最大条目数
+     */
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    /**
+     * 已验证令牌缓存，键为令牌的SHA-256摘要，在令牌过期时间失效
+     */
+    private ExpiringCache<String, JwtPrincipal> verifiedTokenCache;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokenCache = new ExpiringCache<>(cacheMaxSize);
+    }
+
+    /**
+     * 验签并解析JWT令牌，一次完成签名、过期校验和用户信息读取
+     * @param token JWT令牌
+     * @return 认证主体，令牌无效或已过期时返回null
+     */
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        // 同一令牌重复请求时只做一次摘要和查表，不再验签
+        String cacheKey = digest(token);
+        JwtPrincipal cached = verifiedTokenCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        JwtPrincipal principal;
+        try {
+            Claims claims = getClaimsFromToken(token);
+            principal = new JwtPrincipal(
+                    claims.get("userId", Integer.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    tokenVersion(claims),
+                    claims.getIssuedAt(),
+                    claims.getExpiration(),
+                    cacheKey);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        if (principal.getExpiration() != null) {
+            verifiedTokenCache.put(cacheKey, principal, principal.getExpiration().getTime());
+        }
+        return principal;
+    }
+
+    /**
+     * 获取已验证令牌缓存的统计信息
+     * @return 命中数、未命中数、命中率、条目数等
+     */
+    public Map<String, Object> getTokenCacheStatistics() {
+        return verifiedTokenCache.getStatistics();
+    }
+
+    /**
+     * 定期清理已过期的缓存令牌
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredTokens() {
+        verifiedTokenCache.purgeExpired();
+    }
+
+    /**
+     * 获取令牌有效期
+     * @return 有效期（毫秒）
+     */
+    public long getTokenLifetimeMillis() {
+        return expiration;
+    }
+
+    /**
+     * 计算令牌的SHA-256摘要，缓存和吊销记录中不保存令牌原文
+     * @param token JWT令牌
+     * @return Base64编码的摘要
+     */
+    public String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
     /**
      * 生成JWT令牌
      * @param userId 用户ID
      * @param username 用户名
      * @param role 用户角色
+     * @param tokenVersion 用户当前的令牌版本
      * @return JWT令牌
      */
-    public String generateToken(Integer userId, String username, String role) {
+    public String generateToken(Integer userId, String username, String role, Integer tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("username", username);
         claims.put("role", role);
+        claims.put(TOKEN_VERSION_CLAIM, tokenVersion != null ? tokenVersion : 0);
         return createToken(claims, username);
     }
 
+    /**
+     * 读取令牌版本，未携带版本的令牌视为版本0
+     */
+    private int tokenVersion(Claims claims) {
+        Integer version = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return version != null ? version : 0;
+    }
+
     /**
      * 创建JWT令牌
      * @param claims 声明信息
@@ -52,7 +180,7 @@ public class JwtUtil {
      */
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration * 1000);
+        Date expiryDate = new Date(now.getTime() + getTokenLifetimeMillis());
 
         return Jwts.builder()
                 .setClaims(claims)
@@ -69,15 +197,7 @@ public class JwtUtil {
      * @return 是否有效
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token) != null;
     }
 
     /**
@@ -136,11 +256,7 @@ public class JwtUtil {
      * @return Claims对象
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -148,7 +264,7 @@ public class JwtUtil {
      * @return 签名密钥
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
 
     /**
@@ -186,7 +302,7 @@ public class JwtUtil {
         Integer userId = claims.get("userId", Integer.class);
         String username = claims.getSubject();
         String role = claims.get("role", String.class);
-        return generateToken(userId, username, role);
+        return generateToken(userId, username, role, tokenVersion(claims));
     }
 
     // Getter方法
@@ -0,0 +1,154 @@
+package com.mall.admin.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.mall.admin.common.PageResult;
+import com.mall.admin.common.cache.ExpiringCache;
+import com.mall.admin.mapper.TableStatisticsMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分页查询执行器
+ * <p>
+ * MyBatis-Plus的分页插件每次分页都会额外执行一次COUNT(*)，带LIKE条件时统计的代价往往超过查询本页。
+ * 这里每页多读一行判断是否还有下一页，总数取自按表名和查询条件缓存的最近一次统计结果；
+ * 缓存未命中时，无条件查询且表的估算行数超过阈值时直接使用InnoDB统计信息中的估算值，其余情况统计一次后缓存。
+ * 读到最后一页时总数可由本页精确推出，同时修正缓存。只有调用方显式要求时才每次执行COUNT(*)。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageQueryHelper {
+    
+    /**
+     * 单页最大条数，与分页插件的maxLimit一致
+     */
+    private static final long MAX_PAGE_SIZE = 500L;
+    
+    /**
+     * 缓存键的最大长度，条件过长（如按大量ID查询）时不缓存，这类查询按主键统计本身代价很低
+     */
+    private static final int MAX_KEY_LENGTH = 1024;
+    
+    private final TableStatisticsMapper tableStatisticsMapper;
+    
+    /**
+     * 总数缓存时间
+     */
+    @Value("${mall.pagination.total-cache-seconds:30}")
+    private long totalCacheSeconds;
+    
+    /**
+     * 无条件查询时使用估算行数的阈值，估算值低于阈值时仍然精确统计
+     */
+    @Value("${mall.pagination.estimate-threshold:100000}")
+    private long estimateThreshold;
+    
+    /**
+     * 总数缓存的最大条目数
+     */
+    @Value("${mall.pagination.total-cache-size:10000}")
+    private int totalCacheSize;
+    
+    /**
+     * 总数缓存，键为表名和查询条件
+     */
+    private ExpiringCache<String, Long> totals;
+    
+    @PostConstruct
+    public void init() {
+        totals = new ExpiringCache<>(totalCacheSize);
+    }
+    
+    /**
+     * 执行分页查询
+     *
+     * @param mapper 数据访问接口
+     * @param entityClass 实体类型，用于取表名
+     * @param wrapper 查询条件，包含排序，执行后会追加LIMIT
+     * @param current 页码
+     * @param size 每页大小
+     * @param exactTotal 是否精确统计总数
+     * @return 实体分页结果
+     */
+    public <T> PageResult<T> selectPage(BaseMapper<T> mapper, Class<T> entityClass, LambdaQueryWrapper<T> wrapper,
+                                        long current, long size, boolean exactTotal) {
+        long pageNum = Math.max(1, current);
+        long pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        long offset = (pageNum - 1) * pageSize;
+        
+        String tableName = tableName(entityClass);
+        String cacheKey = tableName + '|' + wrapper.getSqlSegment() + '|' + new TreeMap<>(wrapper.getParamNameValuePairs());
+        boolean cacheable = cacheKey.length() <= MAX_KEY_LENGTH;
+        Long total = exactTotal || !cacheable ? null : totals.get(cacheKey);
+        boolean totalExact = false;
+        if (total == null) {
+            if (exactTotal || !cacheable) {
+                total = mapper.selectCount(wrapper);
+                totalExact = true;
+            } else {
+                total = estimateOrCount(mapper, tableName, wrapper);
+            }
+        }
+        
+        wrapper.last("LIMIT " + offset + ", " + (pageSize + 1));
+        List<T> records = mapper.selectList(wrapper);
+        boolean hasNext = records.size() > pageSize;
+        if (hasNext) {
+            records = records.subList(0, (int) pageSize);
+            // 缓存的总数偏小时至少要能翻到下一页
+            total = Math.max(total, offset + pageSize + 1);
+        } else if (!records.isEmpty() || offset == 0) {
+            // 最后一页：总数可以精确推出
+            total = offset + records.size();
+            totalExact = true;
+        }
+        if (cacheable) {
+            totals.put(cacheKey, total, System.currentTimeMillis() + totalCacheSeconds * 1000);
+        }
+        
+        PageResult<T> result = new PageResult<>(records, total, pageNum, pageSize);
+        result.setHasNext(hasNext);
+        result.setTotalExact(totalExact);
+        return result;
+    }
+    
+    /**
+     * 获取总数缓存统计
+     */
+    public Map<String, Object> getStatistics() {
+        return totals.getStatistics();
+    }
+    
+    private <T> long estimateOrCount(BaseMapper<T> mapper, String tableName, LambdaQueryWrapper<T> wrapper) {
+        if (wrapper.isEmptyOfWhere()) {
+            try {
+                Long estimate = tableStatisticsMapper.estimateRowCount(tableName);
+                if (estimate != null && estimate >= estimateThreshold) {
+                    return estimate;
+                }
+            } catch (Exception e) {
+                log.warn("读取表估算行数失败，改为精确统计，表: {}", tableName, e);
+            }
+        }
+        return mapper.selectCount(wrapper);
+    }
+    
+    private static String tableName(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        return tableInfo != null ? tableInfo.getTableName() : entityClass.getSimpleName();
+    }
+}
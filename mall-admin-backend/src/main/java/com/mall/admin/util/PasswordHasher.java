@@ -0,0 +1,164 @@
+package com.mall.admin.util;
+
+import com.mall.admin.common.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希执行器
+ * <p>
+ * PBKDF2的计算开销随迭代次数线性增长，放在请求线程上执行时，集中登录会占满Tomcat线程池并拖慢其他接口。
+ * 这里把密码加密与校验交给固定大小的专用线程池，等待队列有界，队列满时立即拒绝而不是排队等待，
+ * 使登录接口的吞吐可预期，且与商品等业务接口互不影响。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    /**
+     * PBKDF2迭代次数
+     */
+    @Value("${mall.auth.password.iterations:310000}")
+    private int iterations;
+
+    /**
+     * 哈希线程数，0表示使用CPU核数
+     */
+    @Value("${mall.auth.password.pool-size:0}")
+    private int poolSize;
+
+    /**
+     * 等待队列长度
+     */
+    @Value("${mall.auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 单次哈希的最长等待时间（含排队）
+     */
+    @Value("${mall.auth.password.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("密码哈希线程池已启动，线程数: {}, 队列长度: {}, 迭代次数: {}", threads, queueCapacity, iterations);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 加密密码
+     *
+     * @param rawPassword 原始密码
+     * @return 加密后的密码
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> PasswordUtil.encode(rawPassword, iterations));
+    }
+
+    /**
+     * 验证密码
+     *
+     * @param rawPassword 原始密码
+     * @param encodedPassword 加密后的密码
+     * @return 密码是否匹配
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return execute(() -> PasswordUtil.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 判断密码是否需要按当前配置重新加密
+     *
+     * @param encodedPassword 加密后的密码
+     * @return 是否需要重新加密
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return PasswordUtil.needsRehash(encodedPassword, iterations);
+    }
+
+    /**
+     * 获取线程池统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("iterations", iterations);
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedCount", executor.getCompletedTaskCount());
+        stats.put("rejectedCount", rejectedCount.sum());
+        stats.put("timeoutCount", timeoutCount.sum());
+        return stats;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new BusinessException("登录请求过多，请稍后重试");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 仍在排队的任务取消后不会再执行
+            future.cancel(true);
+            timeoutCount.increment();
+            throw new BusinessException("登录请求过多，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException("密码校验被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException("密码处理失败：" + e.getCause().getMessage());
+        }
+    }
+}
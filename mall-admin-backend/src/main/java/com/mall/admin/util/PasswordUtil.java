@@ -1,7 +1,9 @@
 package com.mall.admin.util;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
@@ -14,7 +16,21 @@ import java.util.Base64;
  */
 public class PasswordUtil {
     
-    private static final String ALGORITHM = "SHA-256";
+    /**
+     * 旧版单次加盐SHA-256，仅用于校验存量密码
+     */
+    private static final String LEGACY_ALGORITHM = "SHA-256";
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PBKDF2_PREFIX = "pbkdf2";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_LENGTH_BITS = 256;
+    
+    /**
+     * 默认迭代次数
+     */
+    public static final int DEFAULT_ITERATIONS = 310000;
+    
     private static final SecureRandom random = new SecureRandom();
     
     /**
@@ -24,33 +40,38 @@ public class PasswordUtil {
      * @return 加密后的密码
      */
     public static String encode(String rawPassword) {
+        return encode(rawPassword, DEFAULT_ITERATIONS);
+    }
+    
+    /**
+     * 使用PBKDF2加密密码
+     * 结果格式：pbkdf2$迭代次数$盐值$哈希值（盐值与哈希值均为Base64）
+     *
+     * @param rawPassword 原始密码
+     * @param iterations 迭代次数
+     * @return 加密后的密码
+     */
+    public static String encode(String rawPassword, int iterations) {
         if (rawPassword == null || rawPassword.trim().isEmpty()) {
             throw new IllegalArgumentException("密码不能为空");
         }
-        
-        try {
-            // 生成盐�?
-            byte[] salt = new byte[16];
-            random.nextBytes(salt);
-            
-            // 加密密码
-            MessageDigest md = MessageDigest.getInstance(ALGORITHM);
-            md.update(salt);
-            byte[] hashedPassword = md.digest(rawPassword.getBytes());
-            
-            // 将盐值和哈希值组合并编码
-            byte[] combined = new byte[salt.length + hashedPassword.length];
-            System.arraycopy(salt, 0, combined, 0, salt.length);
-            System.arraycopy(hashedPassword, 0, combined, salt.length, hashedPassword.length);
-            
-            return Base64.getEncoder().encodeToString(combined);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("密码加密失败", e);
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("迭代次数必须大于0");
         }
+        
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(rawPassword, salt, iterations);
+        
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PBKDF2_PREFIX + SEPARATOR + iterations
+                + SEPARATOR + encoder.encodeToString(salt)
+                + SEPARATOR + encoder.encodeToString(hash);
     }
     
     /**
      * 验证密码
+     * 同时支持PBKDF2格式和旧版SHA-256格式
      *
      * @param rawPassword 原始密码
      * @param encodedPassword 加密后的密码
@@ -62,29 +83,80 @@ public class PasswordUtil {
         }
         
         try {
-            // 解码存储的密�?
-            byte[] combined = Base64.getDecoder().decode(encodedPassword);
-            
-            // 提取盐�?
-            byte[] salt = new byte[16];
-            System.arraycopy(combined, 0, salt, 0, salt.length);
-            
-            // 提取哈希�?
-            byte[] storedHash = new byte[combined.length - salt.length];
-            System.arraycopy(combined, salt.length, storedHash, 0, storedHash.length);
-            
-            // 使用相同的盐值加密输入的密码
-            MessageDigest md = MessageDigest.getInstance(ALGORITHM);
-            md.update(salt);
-            byte[] inputHash = md.digest(rawPassword.getBytes());
-            
-            // 比较哈希�?
-            return MessageDigest.isEqual(storedHash, inputHash);
+            if (isPbkdf2(encodedPassword)) {
+                String[] parts = encodedPassword.split("\\$");
+                if (parts.length != 4) {
+                    return false;
+                }
+                int iterations = Integer.parseInt(parts[1]);
+                byte[] salt = Base64.getDecoder().decode(parts[2]);
+                byte[] storedHash = Base64.getDecoder().decode(parts[3]);
+                return MessageDigest.isEqual(storedHash, pbkdf2(rawPassword, salt, iterations));
+            }
+            return matchesLegacy(rawPassword, encodedPassword);
         } catch (Exception e) {
             return false;
         }
     }
     
+    /**
+     * 判断密码是否需要重新加密
+     * 旧版SHA-256格式或迭代次数与当前配置不一致时返回true
+     *
+     * @param encodedPassword 加密后的密码
+     * @param iterations 当前配置的迭代次数
+     * @return 是否需要重新加密
+     */
+    public static boolean needsRehash(String encodedPassword, int iterations) {
+        if (encodedPassword == null || !isPbkdf2(encodedPassword)) {
+            return true;
+        }
+        String[] parts = encodedPassword.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) != iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+    
+    private static boolean isPbkdf2(String encodedPassword) {
+        return encodedPassword.startsWith(PBKDF2_PREFIX + SEPARATOR);
+    }
+    
+    private static byte[] pbkdf2(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, KEY_LENGTH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("密码加密失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+    
+    /**
+     * 校验旧版格式：Base64(16字节盐值 + SHA-256(盐值 + 密码))
+     */
+    private static boolean matchesLegacy(String rawPassword, String encodedPassword) throws GeneralSecurityException {
+        byte[] combined = Base64.getDecoder().decode(encodedPassword);
+        if (combined.length <= SALT_LENGTH) {
+            return false;
+        }
+        
+        // 提取盐值和哈希值
+        byte[] salt = new byte[SALT_LENGTH];
+        System.arraycopy(combined, 0, salt, 0, salt.length);
+        byte[] storedHash = new byte[combined.length - salt.length];
+        System.arraycopy(combined, salt.length, storedHash, 0, storedHash.length);
+        
+        // 使用相同的盐值加密输入的密码
+        MessageDigest md = MessageDigest.getInstance(LEGACY_ALGORITHM);
+        md.update(salt);
+        byte[] inputHash = md.digest(rawPassword.getBytes());
+        
+        return MessageDigest.isEqual(storedHash, inputHash);
+    }
+    
     /**
      * 验证密码强度
      *
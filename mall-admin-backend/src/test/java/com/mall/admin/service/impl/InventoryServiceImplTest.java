@@ -0,0 +1,168 @@
+package com.mall.admin.service.impl;
+
+import com.mall.admin.common.exception.BusinessException;
+import com.mall.admin.entity.OrderItem;
+import com.mall.admin.mapper.InventoryReservationMapper;
+import com.mall.admin.mapper.OrderMapper;
+import com.mall.admin.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 库存预占并发测试
+ * <p>
+ * 多个线程争抢同一商品的最后几件库存，验证库存不会扣成负数，且成功预占的数量恰好等于库存。
+ * products表由内存计数模拟，扣减与SQL一样在库存充足时才执行。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+class InventoryServiceImplTest {
+    
+    private static final Integer PRODUCT_ID = 1;
+    
+    private static final int STOCK = 10;
+    
+    private static final int BUYERS = 100;
+    
+    private final AtomicInteger stock = new AtomicInteger(STOCK);
+    
+    private final AtomicBoolean negative = new AtomicBoolean();
+    
+    private ProductMapper productMapper;
+    
+    private InventoryServiceImpl inventoryService;
+    
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        when(productMapper.updateStock(eq(PRODUCT_ID), anyInt())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            int current;
+            do {
+                current = stock.get();
+                if (current < quantity) {
+                    return 0;
+                }
+            } while (!stock.compareAndSet(current, current - quantity));
+            return 1;
+        });
+        when(productMapper.adjustStock(eq(PRODUCT_ID), anyInt())).thenAnswer(invocation -> {
+            if (stock.addAndGet(invocation.getArgument(1)) < 0) {
+                negative.set(true);
+            }
+            return 1;
+        });
+        when(productMapper.selectStockQuantity(PRODUCT_ID)).thenAnswer(invocation -> stock.get());
+        when(productMapper.selectActivePromotionIds(any())).thenReturn(List.of(PRODUCT_ID));
+        
+        inventoryService = new InventoryServiceImpl(mock(InventoryReservationMapper.class), productMapper,
+                mock(OrderMapper.class), mock(ApplicationEventPublisher.class), mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(inventoryService, "paymentTimeoutMinutes", 30L);
+        ReflectionTestUtils.setField(inventoryService, "settleWaitMillis", 5000L);
+    }
+    
+    @Test
+    void reserveStockDoesNotOversellFromDatabase() throws Exception {
+        assertEquals(STOCK, raceForLastUnits(null));
+        assertEquals(0, stock.get());
+        assertFalse(negative.get());
+    }
+    
+    @Test
+    void reserveStockDoesNotOversellFromHotStock() throws Exception {
+        ReflectionTestUtils.setField(inventoryService, "hotStockEnabled", true);
+        inventoryService.refreshHotStock();
+        
+        assertEquals(STOCK, raceForLastUnits(null));
+        inventoryService.flushHotStock();
+        assertEquals(0, stock.get());
+        assertFalse(negative.get());
+    }
+    
+    @Test
+    void reserveStockDoesNotOversellWhileHotStockLoads() throws Exception {
+        // 预占进行中载入内存计数，一部分走数据库扣减，一部分走内存扣减
+        ReflectionTestUtils.setField(inventoryService, "hotStockEnabled", true);
+        
+        assertEquals(STOCK, raceForLastUnits(inventoryService::refreshHotStock));
+        inventoryService.refreshHotStock();
+        inventoryService.flushHotStock();
+        assertEquals(0, stock.get());
+        assertFalse(negative.get());
+    }
+    
+    /**
+     * 所有线程同时各预占一件商品，返回成功的数量
+     *
+     * @param concurrentTask 与预占同时执行的任务，可为null
+     */
+    private int raceForLastUnits(Runnable concurrentTask) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(BUYERS);
+            for (int i = 0; i < BUYERS; i++) {
+                int orderId = i + 1;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        inventoryService.reserveStock(orderId, List.of(orderItem(1)));
+                        return true;
+                    } catch (BusinessException e) {
+                        return false;
+                    }
+                }));
+            }
+            Future<?> task = concurrentTask == null ? null : executor.submit(() -> {
+                start.await();
+                concurrentTask.run();
+                return null;
+            });
+            
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            if (task != null) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+    
+    private OrderItem orderItem(int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(PRODUCT_ID);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,197 @@
+package com.mall.admin.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.mall.admin.common.PageResult;
+import com.mall.admin.dto.request.ProductQueryDTO;
+import com.mall.admin.dto.response.ProductResponse;
+import com.mall.admin.entity.Product;
+import com.mall.admin.entity.ProductImage;
+import com.mall.admin.mapper.ProductImageMapper;
+import com.mall.admin.mapper.ProductMapper;
+import com.mall.admin.service.ICategoryService;
+import com.mall.admin.service.ICounterService;
+import com.mall.admin.service.IInventoryService;
+import com.mall.admin.service.IProductRankingService;
+import com.mall.admin.service.IProductRecommendationService;
+import com.mall.admin.service.IProductSearchService;
+import com.mall.admin.util.PageQueryHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品列表组装查询次数测试
+ * <p>
+ * 各列表接口无论返回多少商品，都只能用一次IN查询取回商品图片，分类名称只从分类缓存读取，
+ * 防止重新出现逐个商品查询关联数据的N+1问题。
+ *
+ * @author Mall Admin Team
+ * @since 1.0.0
+ */
+class ProductServiceImplTest {
+    
+    private static final int PRODUCTS = 100;
+    
+    private static final int CATEGORIES = 10;
+    
+    private final List<Product> products = new ArrayList<>(PRODUCTS);
+    
+    private ProductMapper productMapper;
+    
+    private ProductImageMapper productImageMapper;
+    
+    private ICategoryService categoryService;
+    
+    private IProductRankingService productRankingService;
+    
+    private IProductSearchService productSearchService;
+    
+    private PageQueryHelper pageQueryHelper;
+    
+    private ProductServiceImpl productService;
+    
+    @BeforeAll
+    static void initTableInfo() {
+        // 查询条件中的Lambda列名需要实体的表信息
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, Product.class);
+        TableInfoHelper.initTableInfo(assistant, ProductImage.class);
+    }
+    
+    @BeforeEach
+    void setUp() {
+        List<ProductImage> images = new ArrayList<>(PRODUCTS * 2);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            Product product = new Product();
+            product.setProductId(i);
+            product.setCategoryId(i % CATEGORIES + 1);
+            product.setStatus(1);
+            products.add(product);
+            images.add(image(i, 1));
+            images.add(image(i, 0));
+        }
+        
+        productMapper = mock(ProductMapper.class);
+        when(productMapper.selectList(any())).thenReturn(products);
+        when(productMapper.selectBatchIds(anyCollection())).thenReturn(products);
+        productImageMapper = mock(ProductImageMapper.class);
+        when(productImageMapper.selectList(any())).thenReturn(images);
+        categoryService = mock(ICategoryService.class);
+        when(categoryService.getCategoryName(any())).thenAnswer(invocation -> "分类" + invocation.getArgument(0));
+        productRankingService = mock(IProductRankingService.class);
+        productSearchService = mock(IProductSearchService.class);
+        pageQueryHelper = mock(PageQueryHelper.class);
+        
+        productService = new ProductServiceImpl(productMapper, categoryService, productImageMapper,
+                mock(IInventoryService.class), productSearchService, productRankingService,
+                mock(IProductRecommendationService.class), mock(ICounterService.class), pageQueryHelper);
+    }
+    
+    @Test
+    void getProductListLoadsImagesOnce() {
+        when(pageQueryHelper.selectPage(eq(productMapper), eq(Product.class), any(), anyLong(), anyLong(), anyBoolean()))
+                .thenReturn(new PageResult<>(products, (long) PRODUCTS, 1L, (long) PRODUCTS));
+        ProductQueryDTO queryDTO = new ProductQueryDTO();
+        queryDTO.setPageSize(PRODUCTS);
+        
+        assertBatchAssembled(productService.getProductList(queryDTO).getRecords());
+    }
+    
+    @Test
+    void getHotProductsLoadsImagesOnce() {
+        assertBatchAssembled(productService.getHotProducts(PRODUCTS, null));
+        verify(productMapper, times(1)).selectList(any());
+    }
+    
+    @Test
+    void getHotProductsFromRankingLoadsImagesOnce() {
+        when(productRankingService.isReady()).thenReturn(true);
+        when(productRankingService.getHotProductIds(isNull(), anyInt())).thenReturn(productIds());
+        
+        assertBatchAssembled(productService.getHotProducts(PRODUCTS, null));
+        verify(productMapper, times(1)).selectBatchIds(anyCollection());
+    }
+    
+    @Test
+    void getRecommendedProductsLoadsImagesOnce() {
+        assertBatchAssembled(productService.getRecommendedProducts(PRODUCTS, null));
+        verify(productMapper, times(1)).selectList(any());
+    }
+    
+    @Test
+    void getProductsByCategoryIdLoadsImagesOnce() {
+        assertBatchAssembled(productService.getProductsByCategoryId(1));
+        verify(productMapper, times(1)).selectList(any());
+    }
+    
+    @Test
+    void searchProductsLoadsImagesOnce() {
+        assertBatchAssembled(productService.searchProducts("沙发"));
+        verify(productMapper, times(1)).selectList(any());
+    }
+    
+    @Test
+    void searchProductsFromIndexLoadsImagesOnce() {
+        when(productSearchService.isReady()).thenReturn(true);
+        when(productSearchService.searchIds("沙发", true)).thenReturn(productIds());
+        
+        assertBatchAssembled(productService.searchProducts("沙发"));
+        verify(productMapper, times(1)).selectBatchIds(anyCollection());
+    }
+    
+    /**
+     * 每个商品都组装了分类名称和图片，且图片只查询了一次、分类名称只读取缓存
+     */
+    private void assertBatchAssembled(List<ProductResponse> responses) {
+        assertEquals(PRODUCTS, responses.size());
+        for (ProductResponse response : responses) {
+            assertNotNull(response.getCategoryName());
+            assertEquals(2, response.getImages().size());
+            assertEquals(imageUrl(response.getProductId(), 1), response.getMainImage());
+        }
+        
+        verify(productImageMapper, times(1)).selectList(any());
+        verifyNoMoreInteractions(productImageMapper);
+        verify(categoryService, times(PRODUCTS)).getCategoryName(any());
+        verifyNoMoreInteractions(categoryService);
+    }
+    
+    private List<Integer> productIds() {
+        return products.stream()
+                .map(Product::getProductId)
+                .collect(Collectors.toList());
+    }
+    
+    private ProductImage image(int productId, int isMain) {
+        ProductImage image = new ProductImage();
+        image.setProductId(productId);
+        image.setIsMain(isMain);
+        image.setImageUrl(imageUrl(productId, isMain));
+        return image;
+    }
+    
+    private String imageUrl(int productId, int isMain) {
+        return "/images/" + productId + "-" + isMain + ".jpg";
+    }
+}